@@ -0,0 +1,32 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import java.time.OffsetDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order placement or status change already flushed into the sales
+ * rollups, so that a redelivery of its outbox event is not counted twice.
+ */
+@Entity
+@Table(name = "sales_rollup_applied_changes",
+        indexes = @Index(name = "idx_sales_rollup_applied_changes_applied_at", columnList = "applied_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppliedSalesChange {
+
+    @Id
+    @Column(name = "change_key", length = 100)
+    private String changeKey;
+
+    @Column(name = "applied_at", nullable = false)
+    private OffsetDateTime appliedAt;
+}
@@ -0,0 +1,19 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import java.time.OffsetDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface AppliedSalesChangeRepository extends JpaRepository<AppliedSalesChange, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AppliedSalesChange c WHERE c.appliedAt < :cutoff")
+    int deleteByAppliedAtBefore(@Param("cutoff") OffsetDateTime cutoff);
+}
@@ -0,0 +1,44 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import org.springframework.stereotype.Component;
+
+import com.group7.ecommerce.springbackend.order.Order;
+import com.group7.ecommerce.springbackend.order.OrderStatusChangedEvent;
+import com.group7.ecommerce.springbackend.outbox.OutboxHandler;
+
+/**
+ * Takes cancelled orders back out of the sales rollups, and puts them back in
+ * if they are reinstated. Other status changes do not affect sales. Changes
+ * a rollup rebuild has already seen are skipped, like placed orders are, and
+ * so are redeliveries of a change already counted.
+ */
+@Component
+public class OrderStatusRollupHandler implements OutboxHandler<OrderStatusChangedEvent> {
+
+    private final SalesRollupAccumulator accumulator;
+
+    public OrderStatusRollupHandler(SalesRollupAccumulator accumulator) {
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    public String eventType() {
+        return OrderStatusChangedEvent.TYPE;
+    }
+
+    @Override
+    public Class<OrderStatusChangedEvent> payloadType() {
+        return OrderStatusChangedEvent.class;
+    }
+
+    @Override
+    public void handle(OrderStatusChangedEvent event) {
+        boolean wasCancelled = event.previous() == Order.OrderStatus.CANCELLED;
+        boolean isCancelled = event.status() == Order.OrderStatus.CANCELLED;
+        if (isCancelled && !wasCancelled) {
+            accumulator.addStatusChange(event.order(), event.changedAt(), -1);
+        } else if (wasCancelled && !isCancelled) {
+            accumulator.addStatusChange(event.order(), event.changedAt(), 1);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.group7.ecommerce.springbackend.common.ApiResponse;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+public class SalesAnalyticsController {
+
+    private final SalesAnalyticsService analyticsService;
+    private final SalesRollupAccumulator accumulator;
+
+    public SalesAnalyticsController(SalesAnalyticsService analyticsService, SalesRollupAccumulator accumulator) {
+        this.analyticsService = analyticsService;
+        this.accumulator = accumulator;
+    }
+
+    /** Sales per hour or day, overall or for one or every item or category. */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SalesAnalyticsService.Bucket>>> getSeries(
+            @RequestParam(defaultValue = "DAY") SalesRollup.Granularity granularity,
+            @RequestParam(defaultValue = "TOTAL") SalesRollup.Dimension dimension,
+            @RequestParam(required = false) String key,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        return ResponseEntity.ok(ApiResponse.success(
+                analyticsService.series(granularity, dimension, key, from, to)));
+    }
+
+    /** Best-selling items or categories by revenue. */
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse<List<SalesAnalyticsService.Total>>> getTop(
+            @RequestParam(defaultValue = "DAY") SalesRollup.Granularity granularity,
+            @RequestParam(defaultValue = "ITEM") SalesRollup.Dimension dimension,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        return ResponseEntity.ok(ApiResponse.success(
+                analyticsService.top(granularity, dimension, from, to, limit)));
+    }
+
+    /** Recomputes every rollup from the orders table. */
+    @PostMapping("/rebuild")
+    public ResponseEntity<ApiResponse<Void>> rebuild() {
+        try {
+            accumulator.rebuild();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        }
+        return ResponseEntity.ok(ApiResponse.success(null, "Sales rollups rebuilt"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads sales figures from {@code sales_rollups}. Every query touches one row
+ * per bucket and key in the range, however many orders fall inside it.
+ * Figures lag checkout by up to the outbox delay plus
+ * {@code analytics.flush-interval}.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private static final int MAX_TOP = 100;
+
+    private final SalesRollupRepository repository;
+    private final int maxBuckets;
+
+    public SalesAnalyticsService(SalesRollupRepository repository,
+            @Value("${analytics.max-buckets:1000}") int maxBuckets) {
+        this.repository = repository;
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Figures per bucket between {@code from} and {@code to} (defaulting to
+     * the last 48 hours or 30 days). Without a key, every key of the dimension
+     * is returned for each bucket.
+     */
+    public List<Bucket> series(SalesRollup.Granularity granularity, SalesRollup.Dimension dimension,
+            String dimensionKey, OffsetDateTime from, OffsetDateTime to) {
+        Range range = range(granularity, from, to);
+        List<SalesRollup> rollups = dimensionKey != null
+                ? repository.findSeries(granularity, dimension, dimensionKey, range.from(), range.to())
+                : repository.findSeries(granularity, dimension, range.from(), range.to());
+        return rollups.stream()
+                .map(rollup -> new Bucket(rollup.getBucketStart(), rollup.getDimensionKey(),
+                        rollup.getOrderCount(), rollup.getUnits(), rollup.getRevenue()))
+                .toList();
+    }
+
+    /** The keys of a dimension with the highest revenue over the range. */
+    public List<Total> top(SalesRollup.Granularity granularity, SalesRollup.Dimension dimension,
+            OffsetDateTime from, OffsetDateTime to, int limit) {
+        if (limit < 1 || limit > MAX_TOP) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_TOP);
+        }
+        Range range = range(granularity, from, to);
+        return repository.sumByDimensionKey(granularity, dimension, range.from(), range.to(),
+                PageRequest.of(0, limit)).stream()
+                .map(row -> new Total((String) row[0], ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(), (BigDecimal) row[3]))
+                .toList();
+    }
+
+    private Range range(SalesRollup.Granularity granularity, OffsetDateTime from, OffsetDateTime to) {
+        OffsetDateTime end = to != null ? to : OffsetDateTime.now();
+        OffsetDateTime start = granularity.bucketOf(from != null ? from
+                : end.minus(granularity == SalesRollup.Granularity.HOUR ? Duration.ofHours(48) : Duration.ofDays(30)));
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (granularity.unit().between(start, end) >= maxBuckets) {
+            throw new IllegalArgumentException("Range spans more than " + maxBuckets + " "
+                    + granularity.name().toLowerCase() + " buckets");
+        }
+        return new Range(start, end);
+    }
+
+    private record Range(OffsetDateTime from, OffsetDateTime to) {
+    }
+
+    public record Bucket(OffsetDateTime bucketStart, String key, long orders, long units, BigDecimal revenue) {
+    }
+
+    public record Total(String key, long orders, long units, BigDecimal revenue) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sales in one time bucket for one item, one category or the whole store.
+ * Revenue per item and category is the sum of line prices; the store total
+ * uses order totals, so it includes tax and discounts.
+ */
+@Entity
+@Table(name = "sales_rollups")
+@Data
+@NoArgsConstructor
+public class SalesRollup {
+
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        /** Start of the UTC bucket containing {@code time}. */
+        public OffsetDateTime bucketOf(OffsetDateTime time) {
+            return time.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(unit);
+        }
+
+        public ChronoUnit unit() {
+            return unit;
+        }
+    }
+
+    public enum Dimension {
+        TOTAL, CATEGORY, ITEM
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Dimension dimension;
+
+    @Column(name = "dimension_key", nullable = false)
+    private String dimensionKey;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    public SalesRollup(Granularity granularity, Dimension dimension, String dimensionKey,
+            OffsetDateTime bucketStart) {
+        this.granularity = granularity;
+        this.dimension = dimension;
+        this.dimensionKey = dimensionKey;
+        this.bucketStart = bucketStart;
+    }
+}
@@ -0,0 +1,413 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.group7.ecommerce.springbackend.archive.ArchivedOrder;
+import com.group7.ecommerce.springbackend.archive.OrderArchive;
+import com.group7.ecommerce.springbackend.item.ItemRepository;
+import com.group7.ecommerce.springbackend.order.Order;
+import com.group7.ecommerce.springbackend.order.OrderItemRepository;
+import com.group7.ecommerce.springbackend.order.OrderPlacedEvent;
+import com.group7.ecommerce.springbackend.order.OrderRepository;
+import com.group7.ecommerce.springbackend.outbox.OutboxHandler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps {@code sales_rollups} up to date. Placed orders (from the outbox) and
+ * cancellations (see {@link OrderStatusRollupHandler}) are added to in-memory
+ * deltas per bucket, and {@link #flush()} applies them every
+ * {@code analytics.flush-interval}, so a busy bucket is written once per
+ * flush rather than once per order.
+ *
+ * <p>Outbox delivery is at least once, so each placement and status change
+ * is keyed and its key written in the same transaction as its deltas; a
+ * redelivered event whose key is pending or already written is skipped.
+ *
+ * <p>Deltas not yet flushed are lost if the process dies; {@link #rebuild()}
+ * recomputes everything from stored orders. It runs in the background after
+ * startup when the rollups are empty and can be triggered by an admin,
+ * preferably while checkout is quiet.
+ */
+@Component
+public class SalesRollupAccumulator implements OutboxHandler<OrderPlacedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupAccumulator.class);
+
+    static final String ALL = "all";
+    static final String UNCATEGORIZED = "uncategorized";
+
+    private static final long REBUILD_CHUNK = 1000;
+
+    private final SalesRollupRepository repository;
+    private final AppliedSalesChangeRepository appliedRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchive orderArchive;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration hourlyRetention;
+    private final Duration appliedRetention;
+
+    /** Held while writing to the table, so a flush and a rebuild never interleave. */
+    private final Object writeLock = new Object();
+    private Map<Key, Delta> pending = new HashMap<>();
+    /** Keys of the changes in {@code pending}, and of the batch being flushed until it commits. */
+    private Set<String> pendingKeys = new HashSet<>();
+    private Set<String> flushingKeys = Set.of();
+    private long rebuiltThroughOrderId;
+    private OffsetDateTime rebuildStartedAt = OffsetDateTime.MIN;
+    /** Changes handled while a rebuild reads orders; null when none is running. */
+    private List<Change> changesDuringRebuild;
+
+    private final Timer flushes;
+    private final Counter duplicates;
+
+    public SalesRollupAccumulator(SalesRollupRepository repository, AppliedSalesChangeRepository appliedRepository,
+            OrderRepository orderRepository, OrderItemRepository orderItemRepository, OrderArchive orderArchive,
+            ItemRepository itemRepository, TransactionTemplate transactionTemplate,
+            @Value("${analytics.hourly-retention:90d}") Duration hourlyRetention,
+            @Value("${analytics.applied-retention:7d}") Duration appliedRetention,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.appliedRepository = appliedRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchive = orderArchive;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.hourlyRetention = hourlyRetention;
+        this.appliedRetention = appliedRetention;
+
+        this.flushes = Timer.builder("analytics.rollup.flush")
+                .description("Time to write accumulated sales deltas to the rollup table")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("analytics.rollup.duplicates")
+                .description("Redelivered order events skipped because they were already counted")
+                .register(meterRegistry);
+        Gauge.builder("analytics.rollup.pending", this, SalesRollupAccumulator::pendingSize)
+                .description("Rollup buckets with deltas waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String eventType() {
+        return OrderPlacedEvent.TYPE;
+    }
+
+    @Override
+    public Class<OrderPlacedEvent> payloadType() {
+        return OrderPlacedEvent.class;
+    }
+
+    @Override
+    public synchronized void handle(OrderPlacedEvent order) {
+        // Already counted by a rebuild that read it from the orders table
+        if (order.orderId() != null && order.orderId() <= rebuiltThroughOrderId) {
+            return;
+        }
+        add(new Change(order, null, 1, order.orderId() != null ? "placed:" + order.orderId() : null));
+    }
+
+    /**
+     * Takes a cancelled order back out with {@code sign = -1}, or puts a
+     * reinstated one back in. Skipped if the status changed before the last
+     * rebuild started: the rebuild read the order with its new status already.
+     * Changes without {@code changedAt}, from old events, cannot be told apart
+     * from their redeliveries and are always counted.
+     */
+    public synchronized void addStatusChange(OrderPlacedEvent order, OffsetDateTime changedAt, int sign) {
+        if (order.orderId() != null && order.orderId() <= rebuiltThroughOrderId
+                && changedAt != null && changedAt.isBefore(rebuildStartedAt)) {
+            return;
+        }
+        add(new Change(order, changedAt, sign, order.orderId() != null && changedAt != null
+                ? "status:" + order.orderId() + ":" + changedAt.toInstant() + ":" + sign
+                : null));
+    }
+
+    private void add(Change change) {
+        if (change.key() != null) {
+            if (pendingKeys.contains(change.key()) || flushingKeys.contains(change.key())
+                    || appliedRepository.existsById(change.key())) {
+                duplicates.increment();
+                return;
+            }
+            pendingKeys.add(change.key());
+        }
+        accumulate(pending, change.order(), change.sign());
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.flush-interval:10s}")
+    @PreDestroy
+    public void flush() {
+        synchronized (writeLock) {
+            Map<Key, Delta> batch;
+            Set<String> keys;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                keys = pendingKeys;
+                pending = new HashMap<>();
+                pendingKeys = new HashSet<>();
+                flushingKeys = keys;
+            }
+
+            try {
+                OffsetDateTime appliedAt = OffsetDateTime.now();
+                flushes.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                    apply(batch);
+                    appliedRepository.saveAll(keys.stream()
+                            .map(key -> new AppliedSalesChange(key, appliedAt))
+                            .toList());
+                }));
+                synchronized (this) {
+                    flushingKeys = Set.of();
+                }
+            } catch (RuntimeException e) {
+                // Keep the deltas for the next flush; a concurrent insert of the
+                // same bucket by another instance also ends up here
+                synchronized (this) {
+                    batch.forEach((key, delta) -> pending.merge(key, delta, Delta::plus));
+                    pendingKeys.addAll(keys);
+                    flushingKeys = Set.of();
+                }
+                log.warn("Flushing {} sales rollup buckets failed, will retry", batch.size(), e);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (repository.count() == 0) {
+            Thread thread = new Thread(this::rebuild, "sales-rollup-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Replaces every rollup with totals recomputed from the orders table and
+     * the order archive, excluding cancelled orders. Reads orders in id ranges
+     * and the archive a segment at a time, so they are never all in memory at
+     * once. Archived orders are counted under their items' current category.
+     *
+     * <p>Orders are read without holding the accumulator, so the outbox and
+     * flushes carry on. Changes handled meanwhile are kept aside and, once the
+     * totals are written, the ones the rebuild did not already see become the
+     * new pending deltas.
+     */
+    public void rebuild() {
+        OffsetDateTime startedAt;
+        synchronized (this) {
+            if (changesDuringRebuild != null) {
+                throw new IllegalStateException("A sales rollup rebuild is already running");
+            }
+            startedAt = OffsetDateTime.now();
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            Long maxOrderId = orderRepository.findMaxId();
+            long hotThroughId = maxOrderId != null ? maxOrderId : 0;
+            Map<Key, Delta> totals = new HashMap<>();
+            for (long afterId = 0; afterId < hotThroughId; afterId += REBUILD_CHUNK) {
+                List<Object[]> rows = orderItemRepository.findLinesByOrderIdRange(Order.OrderStatus.CANCELLED,
+                        afterId, Math.min(afterId + REBUILD_CHUNK, hotThroughId));
+                toOrders(rows).forEach(order -> accumulate(totals, order, 1));
+            }
+            orderArchive.forEachSegment(orders -> archivedOrders(orders)
+                    .forEach(order -> accumulate(totals, order, 1)));
+            long throughId = Math.max(hotThroughId, orderArchive.maxOrderId());
+
+            synchronized (writeLock) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    repository.deleteAllInBatch();
+                    repository.saveAll(totals.entrySet().stream().map(entry -> {
+                        SalesRollup rollup = entry.getKey().newRollup();
+                        entry.getValue().applyTo(rollup);
+                        return rollup;
+                    }).toList());
+                });
+                synchronized (this) {
+                    // Anything flushed meanwhile was just overwritten, so start
+                    // over from the changes the totals do not include
+                    pending = new HashMap<>();
+                    pendingKeys = new HashSet<>();
+                    rebuiltThroughOrderId = throughId;
+                    rebuildStartedAt = startedAt;
+                    for (Change change : changesDuringRebuild) {
+                        if (!change.countedBy(throughId, startedAt)) {
+                            accumulate(pending, change.order(), change.sign());
+                            if (change.key() != null) {
+                                pendingKeys.add(change.key());
+                            }
+                        }
+                    }
+                }
+            }
+            log.info("Rebuilt {} sales rollup buckets from orders up to id {}", totals.size(), throughId);
+        } finally {
+            synchronized (this) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.purge-interval:1h}")
+    public void purgeHourly() {
+        int deleted = repository.deleteByGranularityAndBucketStartBefore(SalesRollup.Granularity.HOUR,
+                OffsetDateTime.now().minus(hourlyRetention));
+        if (deleted > 0) {
+            log.info("Purged {} hourly sales rollups", deleted);
+        }
+        // Outbox events are not redelivered after outbox.retention, so their keys can go
+        appliedRepository.deleteByAppliedAtBefore(OffsetDateTime.now().minus(appliedRetention));
+    }
+
+    synchronized int pendingSize() {
+        return pending.size();
+    }
+
+    private void apply(Map<Key, Delta> batch) {
+        for (Map.Entry<Key, Delta> entry : batch.entrySet()) {
+            Key key = entry.getKey();
+            SalesRollup rollup = repository.findByGranularityAndDimensionAndDimensionKeyAndBucketStart(
+                    key.granularity(), key.dimension(), key.dimensionKey(), key.bucketStart())
+                    .orElseGet(key::newRollup);
+            entry.getValue().applyTo(rollup);
+            repository.save(rollup);
+        }
+    }
+
+    private static void accumulate(Map<Key, Delta> target, OrderPlacedEvent order, int sign) {
+        long units = 0;
+        BigDecimal lineTotal = BigDecimal.ZERO;
+        Map<String, Delta> byItem = new HashMap<>();
+        Map<String, Delta> byCategory = new HashMap<>();
+        for (OrderPlacedEvent.Line line : order.lines()) {
+            BigDecimal amount = line.unitPrice() != null
+                    ? line.unitPrice().multiply(BigDecimal.valueOf(line.quantity()))
+                    : BigDecimal.ZERO;
+            units += line.quantity();
+            lineTotal = lineTotal.add(amount);
+            Delta delta = new Delta(0, line.quantity(), amount);
+            byItem.merge(String.valueOf(line.itemId()), delta, Delta::plus);
+            byCategory.merge(line.category() != null ? line.category() : UNCATEGORIZED, delta, Delta::plus);
+        }
+        Delta total = new Delta(0, units, order.total() != null ? order.total() : lineTotal);
+
+        for (SalesRollup.Granularity granularity : SalesRollup.Granularity.values()) {
+            OffsetDateTime bucket = granularity.bucketOf(order.orderDate());
+            merge(target, new Key(granularity, SalesRollup.Dimension.TOTAL, ALL, bucket), total, sign);
+            byItem.forEach((itemId, delta) -> merge(target,
+                    new Key(granularity, SalesRollup.Dimension.ITEM, itemId, bucket), delta, sign));
+            byCategory.forEach((category, delta) -> merge(target,
+                    new Key(granularity, SalesRollup.Dimension.CATEGORY, category, bucket), delta, sign));
+        }
+    }
+
+    /** Counts the order once per bucket it touches, however many lines it has there. */
+    private static void merge(Map<Key, Delta> target, Key key, Delta delta, int sign) {
+        target.merge(key, new Delta(sign, delta.units() * sign,
+                sign < 0 ? delta.revenue().negate() : delta.revenue()), Delta::plus);
+    }
+
+    /** Archived orders not cancelled and not also still in the orders table. */
+    private List<OrderPlacedEvent> archivedOrders(List<ArchivedOrder> orders) {
+        Set<Long> stillHot = new HashSet<>(orderRepository.findIdsByIdIn(
+                orders.stream().map(ArchivedOrder::id).toList()));
+        Map<Long, String> categories = new HashMap<>();
+        itemRepository.findAllById(orders.stream()
+                .flatMap(order -> order.lines().stream().map(ArchivedOrder.Line::itemId))
+                .distinct().toList())
+                .forEach(item -> categories.put(item.getId(), item.getCategory()));
+
+        return orders.stream()
+                .filter(order -> !Order.OrderStatus.CANCELLED.name().equals(order.status()))
+                .filter(order -> !stillHot.contains(order.id()))
+                .map(order -> new OrderPlacedEvent(order.id(), order.userId(), order.orderDate(), order.total(),
+                        order.lines().stream()
+                                .map(line -> new OrderPlacedEvent.Line(line.itemId(), categories.get(line.itemId()),
+                                        line.quantity(), line.priceAtPurchase()))
+                                .toList()))
+                .toList();
+    }
+
+    private static List<OrderPlacedEvent> toOrders(List<Object[]> rows) {
+        List<OrderPlacedEvent> orders = new ArrayList<>();
+        List<OrderPlacedEvent.Line> lines = null;
+        for (Object[] row : rows) {
+            Long orderId = (Long) row[0];
+            if (lines == null || !orders.get(orders.size() - 1).orderId().equals(orderId)) {
+                lines = new ArrayList<>();
+                orders.add(new OrderPlacedEvent(orderId, (Long) row[1], (OffsetDateTime) row[2],
+                        (BigDecimal) row[3], lines));
+            }
+            lines.add(new OrderPlacedEvent.Line((Long) row[4], (String) row[5], (Integer) row[6],
+                    (BigDecimal) row[7]));
+        }
+        return orders;
+    }
+
+    /**
+     * A placement ({@code changedAt} null) or a status change, with the key
+     * that identifies its redeliveries, or null if it has none.
+     */
+    private record Change(OrderPlacedEvent order, OffsetDateTime changedAt, int sign, String key) {
+
+        /** Whether a rebuild that read orders up to {@code throughId} from {@code startedAt} saw it. */
+        boolean countedBy(long throughId, OffsetDateTime startedAt) {
+            if (order.orderId() == null || order.orderId() > throughId) {
+                return false;
+            }
+            return changedAt == null || changedAt.isBefore(startedAt);
+        }
+    }
+
+    private record Key(SalesRollup.Granularity granularity, SalesRollup.Dimension dimension, String dimensionKey,
+            OffsetDateTime bucketStart) {
+
+        SalesRollup newRollup() {
+            return new SalesRollup(granularity, dimension, dimensionKey, bucketStart);
+        }
+    }
+
+    private record Delta(long orders, long units, BigDecimal revenue) {
+
+        Delta plus(Delta other) {
+            return new Delta(orders + other.orders, units + other.units, revenue.add(other.revenue));
+        }
+
+        void applyTo(SalesRollup rollup) {
+            rollup.setOrderCount(rollup.getOrderCount() + orders);
+            rollup.setUnits(rollup.getUnits() + units);
+            rollup.setRevenue(rollup.getRevenue().add(revenue));
+        }
+    }
+}
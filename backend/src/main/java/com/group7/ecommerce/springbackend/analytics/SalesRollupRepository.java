@@ -0,0 +1,50 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    Optional<SalesRollup> findByGranularityAndDimensionAndDimensionKeyAndBucketStart(
+            SalesRollup.Granularity granularity, SalesRollup.Dimension dimension, String dimensionKey,
+            OffsetDateTime bucketStart);
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart, r.dimensionKey")
+    List<SalesRollup> findSeries(@Param("granularity") SalesRollup.Granularity granularity,
+            @Param("dimension") SalesRollup.Dimension dimension,
+            @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension "
+            + "AND r.dimensionKey = :dimensionKey "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<SalesRollup> findSeries(@Param("granularity") SalesRollup.Granularity granularity,
+            @Param("dimension") SalesRollup.Dimension dimension,
+            @Param("dimensionKey") String dimensionKey,
+            @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    /** Rows of dimension key, order count, units and revenue, highest revenue first. */
+    @Query("SELECT r.dimensionKey, SUM(r.orderCount), SUM(r.units), SUM(r.revenue) FROM SalesRollup r "
+            + "WHERE r.granularity = :granularity AND r.dimension = :dimension "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to "
+            + "GROUP BY r.dimensionKey ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> sumByDimensionKey(@Param("granularity") SalesRollup.Granularity granularity,
+            @Param("dimension") SalesRollup.Dimension dimension,
+            @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteByGranularityAndBucketStartBefore(@Param("granularity") SalesRollup.Granularity granularity,
+            @Param("cutoff") OffsetDateTime cutoff);
+}
@@ -1,8 +1,15 @@
 package com.group7.ecommerce.springbackend.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,20 +17,32 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
 import com.group7.ecommerce.springbackend.common.ApiResponse;
+import com.group7.ecommerce.springbackend.common.ConflictRetryExecutor;
 import com.group7.ecommerce.springbackend.item.Item;
+import com.group7.ecommerce.springbackend.item.ItemBulkService;
+import com.group7.ecommerce.springbackend.item.ItemImportReport;
+import com.group7.ecommerce.springbackend.item.ItemImportService;
 import com.group7.ecommerce.springbackend.item.ItemRepository;
-import com.group7.ecommerce.springbackend.cart.CartRepository;
+import com.group7.ecommerce.springbackend.item.ItemRequestDTOs;
+import com.group7.ecommerce.springbackend.item.ItemService;
 import com.group7.ecommerce.springbackend.order.DiscountCode;
 import com.group7.ecommerce.springbackend.order.DiscountCodeRepository;
 import com.group7.ecommerce.springbackend.order.Order;
 import com.group7.ecommerce.springbackend.order.OrderRepository;
+import com.group7.ecommerce.springbackend.order.OrderService;
 import com.group7.ecommerce.springbackend.user.User;
+import com.group7.ecommerce.springbackend.user.UserAdminService;
+import com.group7.ecommerce.springbackend.user.UserFilter;
 import com.group7.ecommerce.springbackend.user.UserRepository;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -32,30 +51,79 @@ import lombok.RequiredArgsConstructor;
 public class AdminController {
 
     private final ItemRepository itemRepository;
+    private final ItemImportService itemImportService;
+    private final ItemBulkService itemBulkService;
+    private final ItemService itemService;
     private final DiscountCodeRepository discountCodeRepository;
     private final OrderRepository orderRepository;
+    private final OrderService orderService;
     private final UserRepository userRepository;
-    private final CartRepository cartRepository;
+    private final UserAdminService userAdminService;
+    private final ConflictRetryExecutor conflictRetry;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Item Management
     @PostMapping("/items")
     public Item createItem(@RequestBody Item item) {
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(saved.getId()));
+        return saved;
     }
 
+    // expectedQuantity is the stock the editor read; 409 if it has moved since
     @PutMapping("/items/{id}")
-    public ResponseEntity<Item> updateItem(@PathVariable Long id, @RequestBody Item itemDetails) {
-        Item item = itemRepository.findById(id).orElseThrow(() -> new RuntimeException("Item not found"));
-        item.setTitle(itemDetails.getTitle());
-        item.setDescription(itemDetails.getDescription());
-        item.setPrice(itemDetails.getPrice());
-        item.setQuantityAvailable(itemDetails.getQuantityAvailable());
-        item.setImageUrl(itemDetails.getImageUrl());
-        item.setCategory(itemDetails.getCategory());
-        item.setSku(itemDetails.getSku());
-        item.setOnSale(itemDetails.isOnSale());
-        item.setDiscountedPrice(itemDetails.getDiscountedPrice());
-        return ResponseEntity.ok(itemRepository.save(item));
+    public ResponseEntity<Item> updateItem(@PathVariable Long id, @RequestBody Item itemDetails,
+            @RequestParam(required = false) Integer expectedQuantity) {
+        Item saved;
+        try {
+            saved = conflictRetry.execute("item", () -> {
+                Item item = itemRepository.findById(id).orElseThrow(() -> new RuntimeException("Item not found"));
+                item.setTitle(itemDetails.getTitle());
+                item.setDescription(itemDetails.getDescription());
+                item.setPrice(itemDetails.getPrice());
+                item.setImageUrl(itemDetails.getImageUrl());
+                item.setCategory(itemDetails.getCategory());
+                item.setSku(itemDetails.getSku());
+                item.setOnSale(itemDetails.isOnSale());
+                item.setDiscountedPrice(itemDetails.getDiscountedPrice());
+                itemService.editStock(id, itemDetails.getQuantityAvailable(), expectedQuantity, "admin");
+                return itemRepository.save(item);
+            });
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(id));
+        return ResponseEntity.ok(saved);
+    }
+
+    // Streams the body; rows are upserted by SKU in batches
+    @PostMapping(value = "/items/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ApiResponse<ItemImportReport>> importItems(
+            @RequestHeader("Content-Type") MediaType contentType, InputStream body) throws IOException {
+        ItemImportService.Format format = contentType.isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? ItemImportService.Format.CSV
+                : ItemImportService.Format.NDJSON;
+        ItemImportReport report = itemImportService.importItems(body, format);
+        return ResponseEntity.ok(ApiResponse.success(report, "Imported " + report.rows() + " rows"));
+    }
+
+    // Bulk repricing and stock changes, one transaction and one cache invalidation each
+    @PostMapping("/items/bulk/price")
+    public ResponseEntity<ApiResponse<Integer>> repriceItems(
+            @Valid @RequestBody ItemRequestDTOs.BulkPriceRequest request) {
+        int updated = itemBulkService.reprice(request);
+        return ResponseEntity.ok(ApiResponse.success(updated, "Repriced " + updated + " items"));
+    }
+
+    @PostMapping("/items/bulk/stock")
+    public ResponseEntity<ApiResponse<Integer>> adjustStock(
+            @Valid @RequestBody ItemRequestDTOs.BulkStockRequest request) {
+        try {
+            int adjusted = itemBulkService.adjustStock(request.getAdjustments());
+            return ResponseEntity.ok(ApiResponse.success(adjusted, "Adjusted stock of " + adjusted + " items"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     // Discount Code Management
@@ -126,27 +194,28 @@ public class AdminController {
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        User user = userRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        try {
-            // Delete user's cart and cart items (cascade will handle cart items)
-            cartRepository.findByUserId(id).ifPresent(cart -> {
-                cartRepository.delete(cart);
-            });
-            
-            // Delete user's orders (cascade will handle order items)
-            List<Order> userOrders = orderRepository.findByUserIdOrderByOrderDateDesc(id);
-            if (!userOrders.isEmpty()) {
-                orderRepository.deleteAll(userOrders);
-            }
-            
-            // Now delete the user
-            userRepository.delete(user);
-            return ResponseEntity.ok().build();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to delete user: " + e.getMessage(), e);
-        }
+        // Cart, orders and user go in a few set-based deletes
+        userAdminService.delete(id);
+        return ResponseEntity.ok().build();
+    }
+
+    // Bulk operations; admins are never matched
+    @PostMapping("/users/bulk/delete")
+    public ResponseEntity<ApiResponse<Integer>> deleteUsers(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @RequestParam(required = false) String usernamePrefix) {
+        int deleted = userAdminService.deleteMatching(new UserFilter(active, createdBefore, usernamePrefix));
+        return ResponseEntity.ok(ApiResponse.success(deleted, "Deleted " + deleted + " users"));
+    }
+
+    @PostMapping("/users/bulk/deactivate")
+    public ResponseEntity<ApiResponse<Integer>> deactivateUsers(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @RequestParam(required = false) String usernamePrefix) {
+        int deactivated = userAdminService.deactivateMatching(new UserFilter(active, createdBefore, usernamePrefix));
+        return ResponseEntity.ok(ApiResponse.success(deactivated, "Deactivated " + deactivated + " users"));
     }
 
     // Order Management
@@ -155,9 +224,7 @@ public class AdminController {
             @PathVariable Long id,
             @org.springframework.web.bind.annotation.RequestParam com.group7.ecommerce.springbackend.order.Order.OrderStatus status
     ) {
-        Order o = orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found"));
-        o.setStatus(status);
-        return ResponseEntity.ok(orderRepository.save(o));
+        return ResponseEntity.ok(conflictRetry.execute("order_status", () -> orderService.changeStatus(id, status)));
     }
 
     public static class UpdateUserRequest {
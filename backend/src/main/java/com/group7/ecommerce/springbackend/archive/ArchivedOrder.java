@@ -0,0 +1,30 @@
+package com.group7.ecommerce.springbackend.archive;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import com.group7.ecommerce.springbackend.order.Order;
+
+/**
+ * An order as stored in an archive segment. Self-contained: the username and
+ * item titles are copied in, so it can be shown after the user or item rows
+ * it came from have changed or gone.
+ */
+public record ArchivedOrder(Long id, Long userId, String username, String status, BigDecimal subtotal,
+        BigDecimal tax, BigDecimal discountAmount, BigDecimal total, String appliedDiscountCode,
+        OffsetDateTime orderDate, List<Line> lines) {
+
+    public static ArchivedOrder of(Order order) {
+        return new ArchivedOrder(order.getId(), order.getUser().getId(), order.getUser().getUsername(),
+                order.getStatus().name(), order.getSubtotal(), order.getTax(), order.getDiscountAmount(),
+                order.getTotal(), order.getAppliedDiscountCode(), order.getOrderDate(),
+                order.getOrderItems().stream()
+                        .map(orderItem -> new Line(orderItem.getItem().getId(), orderItem.getItem().getTitle(),
+                                orderItem.getQuantity(), orderItem.getPriceAtPurchase()))
+                        .toList());
+    }
+
+    public record Line(Long itemId, String itemName, int quantity, BigDecimal priceAtPurchase) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.group7.ecommerce.springbackend.archive;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.group7.ecommerce.springbackend.common.LongLongHashMap;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Append-only store of archived orders: a directory of {@link OrderSegment}
+ * files, each written once and never modified. All segments are opened and
+ * memory-mapped on startup; only their headers are read until a lookup
+ * needs their columns.
+ *
+ * <p>A segment is complete before it becomes visible: it is written under a
+ * temporary name, synced and then renamed. Leftover temporary files from a
+ * crash are deleted on startup.
+ */
+@Component
+public class OrderArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchive.class);
+
+    private static final String SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".seg.tmp";
+
+    private final Path directory;
+    private final List<OrderSegment> segments = new CopyOnWriteArrayList<>();
+
+    public OrderArchive(@Value("${archive.orders.directory:archive/orders}") Path directory,
+            MeterRegistry meterRegistry) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path file : files) {
+                log.warn("Deleting incomplete archive segment {}", file);
+                Files.delete(file);
+            }
+        }
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            files.forEach(paths::add);
+        }
+        paths.sort(null);
+        for (Path path : paths) {
+            segments.add(OrderSegment.open(path));
+        }
+        if (!segments.isEmpty()) {
+            log.info("Opened {} order archive segments in {}", segments.size(), directory.toAbsolutePath());
+        }
+
+        Gauge.builder("archive.orders.segments", segments, List::size)
+                .description("Order archive segment files")
+                .register(meterRegistry);
+    }
+
+    /** Writes the orders to a new segment. */
+    public synchronized void append(List<ArchivedOrder> orders) throws IOException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        String name = String.format("orders-%013d-%019d", System.currentTimeMillis(),
+                orders.stream().mapToLong(ArchivedOrder::id).max().orElse(0));
+        Path temp = directory.resolve(name + TEMP_SUFFIX);
+        Path target = directory.resolve(name + SUFFIX);
+        OrderSegment.write(temp, orders);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        segments.add(OrderSegment.open(target));
+    }
+
+    /**
+     * Archived orders of the user, newest first. An order archived twice by
+     * an interrupted run is returned once.
+     */
+    public List<ArchivedOrder> findByUserId(Long userId) {
+        List<ArchivedOrder> orders = new ArrayList<>();
+        LongLongHashMap seen = new LongLongHashMap();
+        for (OrderSegment segment : segments) {
+            if (segment.mayContainUser(userId)) {
+                segment.findByUserId(userId).stream()
+                        .filter(order -> seen.addTo(order.id(), 1) == 1)
+                        .forEach(orders::add);
+            }
+        }
+        orders.sort((a, b) -> Long.compare(b.id(), a.id()));
+        return orders;
+    }
+
+    /**
+     * Hands every archived order to {@code action} once, one segment at a
+     * time. An order archived twice by an interrupted run is skipped the
+     * second time.
+     */
+    public void forEachSegment(Consumer<List<ArchivedOrder>> action) {
+        LongLongHashMap seen = new LongLongHashMap();
+        for (OrderSegment segment : segments) {
+            action.accept(segment.readAll().stream()
+                    .filter(order -> seen.addTo(order.id(), 1) == 1)
+                    .toList());
+        }
+    }
+
+    /** Highest archived order id, or 0 if the archive is empty. */
+    public long maxOrderId() {
+        return segments.stream().mapToLong(OrderSegment::maxOrderId).max().orElse(0);
+    }
+
+    public List<SegmentInfo> segments() {
+        return segments.stream().map(OrderSegment::info).toList();
+    }
+}
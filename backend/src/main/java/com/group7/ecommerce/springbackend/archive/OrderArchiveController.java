@@ -0,0 +1,36 @@
+package com.group7.ecommerce.springbackend.archive;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.group7.ecommerce.springbackend.common.ApiResponse;
+
+@RestController
+@RequestMapping("/api/admin/archive")
+public class OrderArchiveController {
+
+    private final OrderArchive orderArchive;
+    private final OrderArchiver orderArchiver;
+
+    public OrderArchiveController(OrderArchive orderArchive, OrderArchiver orderArchiver) {
+        this.orderArchive = orderArchive;
+        this.orderArchiver = orderArchiver;
+    }
+
+    @GetMapping("/segments")
+    public ResponseEntity<ApiResponse<List<SegmentInfo>>> getSegments() {
+        return ResponseEntity.ok(ApiResponse.success(orderArchive.segments()));
+    }
+
+    /** Runs the archiver now instead of waiting for its schedule. */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<Integer>> run() {
+        int archived = orderArchiver.archive();
+        return ResponseEntity.ok(ApiResponse.success(archived, "Archived " + archived + " orders"));
+    }
+}
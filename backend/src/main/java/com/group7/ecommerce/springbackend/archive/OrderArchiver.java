@@ -0,0 +1,118 @@
+package com.group7.ecommerce.springbackend.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.group7.ecommerce.springbackend.order.Order;
+import com.group7.ecommerce.springbackend.order.OrderItemRepository;
+import com.group7.ecommerce.springbackend.order.OrderRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves finished orders (DELIVERED or CANCELLED) older than
+ * {@code archive.orders.older-than} out of {@code orders} and
+ * {@code order_items} into {@link OrderArchive} segments, one segment per
+ * batch. Batches are taken in user id order, so each segment covers a narrow
+ * range of users and a user lookup can skip most of them by their header.
+ *
+ * <p>A batch is deleted from the database only after its segment has been
+ * synced to disk. If the delete then fails, the orders exist in both places
+ * until the next run archives them again; readers merge by order id, so the
+ * duplicate is never shown.
+ *
+ * <p>Created eagerly even under lazy initialization so the schedule runs.
+ */
+@Component
+@Lazy(false)
+public class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private static final Set<Order.OrderStatus> ARCHIVABLE =
+            EnumSet.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration olderThan;
+    private final int batchSize;
+
+    private final Counter archived;
+
+    public OrderArchiver(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+            OrderArchive orderArchive, TransactionTemplate transactionTemplate,
+            @Value("${archive.orders.enabled:true}") boolean enabled,
+            @Value("${archive.orders.older-than:365d}") Duration olderThan,
+            @Value("${archive.orders.batch-size:5000}") int batchSize,
+            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.olderThan = olderThan;
+        this.batchSize = batchSize;
+
+        this.archived = Counter.builder("archive.orders.archived")
+                .description("Orders moved from the database to archive segments")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${archive.orders.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /** Archives every eligible order and returns how many were moved. */
+    public synchronized int archive() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(olderThan);
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = orderRepository.findIdsByStatusInAndOrderDateBefore(ARCHIVABLE, cutoff,
+                    PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> batch = ids;
+            List<ArchivedOrder> orders = transactionTemplate.execute(status ->
+                    orderRepository.findAllWithItemsByIdIn(batch).stream().map(ArchivedOrder::of).toList());
+            try {
+                orderArchive.append(orders);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write order archive segment", e);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                orderItemRepository.deleteByOrderIdIn(batch);
+                orderRepository.deleteAllByIdIn(batch);
+            });
+            total += batch.size();
+            archived.increment(batch.size());
+        } while (ids.size() == batchSize);
+
+        if (total > 0) {
+            log.info("Archived {} orders placed before {}", total, cutoff);
+        }
+        return total;
+    }
+}
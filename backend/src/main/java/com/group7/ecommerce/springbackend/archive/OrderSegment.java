@@ -0,0 +1,464 @@
+package com.group7.ecommerce.springbackend.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive file of orders, stored column by column. Rows are
+ * sorted by user id, then order id. Each column is varint encoded (ids as
+ * deltas from the previous row) and deflated on its own, so a lookup only
+ * inflates the columns it reads: a user lookup first inflates the user id
+ * column, binary searches it, and touches the rest only on a hit. The user
+ * ids are kept once decoded, as each distinct id and its first row, so later
+ * lookups, including misses, need no inflating at all.
+ *
+ * <p>The file is memory-mapped. The header carries the row counts, the
+ * min/max order date, user id and order id, and the offset and length of
+ * every column, so segments that cannot match are skipped without reading
+ * any column.
+ */
+final class OrderSegment {
+
+    private static final int MAGIC = 0x4F524453; // "ORDS"
+    private static final int VERSION = 1;
+    private static final int PRICE_SCALE = 2;
+    private static final int MICROS_PER_SECOND = 1_000_000;
+
+    private enum Column {
+        ORDER_ID, USER_ID, USERNAME, STATUS, SUBTOTAL, TAX, DISCOUNT_AMOUNT, TOTAL, DISCOUNT_CODE, ORDER_DATE,
+        LINE_COUNT, ITEM_ID, ITEM_NAME, QUANTITY, PRICE_AT_PURCHASE
+    }
+
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 6 * 8 + Column.values().length * (8 + 4 + 4);
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int orderCount;
+    private final int lineCount;
+    private final long minUserId;
+    private final long maxUserId;
+    private final long minOrderId;
+    private final long maxOrderId;
+    private final long minOrderDate;
+    private final long maxOrderDate;
+    private final long[] offsets = new long[Column.values().length];
+    private final int[] compressedLengths = new int[Column.values().length];
+    private final int[] rawLengths = new int[Column.values().length];
+    private volatile UserIndex userIndex;
+
+    private OrderSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not an order archive segment: " + path);
+        }
+        this.orderCount = buffer.getInt(8);
+        this.lineCount = buffer.getInt(12);
+        this.minUserId = buffer.getLong(16);
+        this.maxUserId = buffer.getLong(24);
+        this.minOrderId = buffer.getLong(32);
+        this.maxOrderId = buffer.getLong(40);
+        this.minOrderDate = buffer.getLong(48);
+        this.maxOrderDate = buffer.getLong(56);
+        int position = 64;
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = buffer.getLong(position);
+            compressedLengths[i] = buffer.getInt(position + 8);
+            rawLengths[i] = buffer.getInt(position + 12);
+            position += 16;
+        }
+    }
+
+    static OrderSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new OrderSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** Writes and syncs a new segment file holding {@code orders}. */
+    static void write(Path path, List<ArchivedOrder> orders) throws IOException {
+        List<ArchivedOrder> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(ArchivedOrder::userId).thenComparing(ArchivedOrder::id));
+
+        Map<Column, ColumnWriter> columns = new EnumMap<>(Column.class);
+        for (Column column : Column.values()) {
+            columns.put(column, new ColumnWriter());
+        }
+        long minOrderDate = Long.MAX_VALUE;
+        long maxOrderDate = Long.MIN_VALUE;
+        int lineCount = 0;
+        for (ArchivedOrder order : sorted) {
+            columns.get(Column.ORDER_ID).writeDelta(order.id());
+            columns.get(Column.USER_ID).writeDelta(order.userId());
+            columns.get(Column.USERNAME).writeString(order.username());
+            columns.get(Column.STATUS).writeString(order.status());
+            columns.get(Column.SUBTOTAL).writeNullable(toUnscaled(order.subtotal()));
+            columns.get(Column.TAX).writeNullable(toUnscaled(order.tax()));
+            columns.get(Column.DISCOUNT_AMOUNT).writeNullable(toUnscaled(order.discountAmount()));
+            columns.get(Column.TOTAL).writeNullable(toUnscaled(order.total()));
+            columns.get(Column.DISCOUNT_CODE).writeString(order.appliedDiscountCode());
+            Long orderDate = toMicros(order.orderDate());
+            columns.get(Column.ORDER_DATE).writeNullable(orderDate);
+            if (orderDate != null) {
+                minOrderDate = Math.min(minOrderDate, orderDate);
+                maxOrderDate = Math.max(maxOrderDate, orderDate);
+            }
+            columns.get(Column.LINE_COUNT).writeLong(order.lines().size());
+            for (ArchivedOrder.Line line : order.lines()) {
+                columns.get(Column.ITEM_ID).writeDelta(line.itemId());
+                columns.get(Column.ITEM_NAME).writeString(line.itemName());
+                columns.get(Column.QUANTITY).writeLong(line.quantity());
+                columns.get(Column.PRICE_AT_PURCHASE).writeNullable(toUnscaled(line.priceAtPurchase()));
+                lineCount++;
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(sorted.size()).putInt(lineCount)
+                .putLong(sorted.isEmpty() ? 0 : sorted.get(0).userId())
+                .putLong(sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1).userId())
+                .putLong(sorted.stream().mapToLong(ArchivedOrder::id).min().orElse(0))
+                .putLong(sorted.stream().mapToLong(ArchivedOrder::id).max().orElse(0))
+                .putLong(minOrderDate).putLong(maxOrderDate);
+        List<byte[]> compressed = new ArrayList<>();
+        long offset = HEADER_SIZE;
+        for (Column column : Column.values()) {
+            byte[] raw = columns.get(column).toByteArray();
+            byte[] deflated = deflate(raw);
+            compressed.add(deflated);
+            header.putLong(offset).putInt(deflated.length).putInt(raw.length);
+            offset += deflated.length;
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (byte[] column : compressed) {
+                writeFully(channel, ByteBuffer.wrap(column));
+            }
+            channel.force(true);
+        }
+    }
+
+    long maxOrderId() {
+        return maxOrderId;
+    }
+
+    SegmentInfo info() {
+        return new SegmentInfo(path.getFileName().toString(), buffer.capacity(), orderCount, lineCount,
+                minOrderId, maxOrderId, minUserId, maxUserId,
+                minOrderDate <= maxOrderDate ? toOffsetDateTime(minOrderDate) : null,
+                minOrderDate <= maxOrderDate ? toOffsetDateTime(maxOrderDate) : null);
+    }
+
+    /** False if the segment certainly holds no order of the user. */
+    boolean mayContainUser(long userId) {
+        if (orderCount == 0 || userId < minUserId || userId > maxUserId) {
+            return false;
+        }
+        UserIndex index = userIndex;
+        return index == null || index.find(userId) >= 0;
+    }
+
+    List<ArchivedOrder> findByUserId(long userId) {
+        if (!mayContainUser(userId)) {
+            return List.of();
+        }
+        UserIndex index = userIndex();
+        int position = index.find(userId);
+        return position >= 0 ? read(index.firstRows[position], index.firstRows[position + 1]) : List.of();
+    }
+
+    List<ArchivedOrder> readAll() {
+        return read(0, orderCount);
+    }
+
+    private UserIndex userIndex() {
+        UserIndex index = userIndex;
+        if (index == null) {
+            // Decoding twice on a race is harmless; both results are equal
+            long[] users = new long[orderCount];
+            int[] firstRows = new int[orderCount + 1];
+            int distinct = 0;
+            ColumnReader reader = reader(Column.USER_ID);
+            for (int row = 0; row < orderCount; row++) {
+                long userId = reader.readDelta();
+                if (distinct == 0 || users[distinct - 1] != userId) {
+                    users[distinct] = userId;
+                    firstRows[distinct] = row;
+                    distinct++;
+                }
+            }
+            firstRows[distinct] = orderCount;
+            index = new UserIndex(Arrays.copyOf(users, distinct), Arrays.copyOf(firstRows, distinct + 1));
+            userIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Decodes rows {@code [from, to)}. Columns are varint streams, so earlier
+     * rows are still stepped over, but without building their values.
+     */
+    private List<ArchivedOrder> read(int from, int to) {
+        Map<Column, ColumnReader> readers = new EnumMap<>(Column.class);
+        for (Column column : Column.values()) {
+            readers.put(column, reader(column));
+        }
+        for (int row = 0; row < from; row++) {
+            readers.get(Column.ORDER_ID).readDelta();
+            readers.get(Column.USER_ID).readDelta();
+            readers.get(Column.USERNAME).skipString();
+            readers.get(Column.STATUS).skipString();
+            readers.get(Column.SUBTOTAL).skipNumber();
+            readers.get(Column.TAX).skipNumber();
+            readers.get(Column.DISCOUNT_AMOUNT).skipNumber();
+            readers.get(Column.TOTAL).skipNumber();
+            readers.get(Column.DISCOUNT_CODE).skipString();
+            readers.get(Column.ORDER_DATE).skipNumber();
+            int lines = (int) readers.get(Column.LINE_COUNT).readLong();
+            for (int i = 0; i < lines; i++) {
+                readers.get(Column.ITEM_ID).readDelta();
+                readers.get(Column.ITEM_NAME).skipString();
+                readers.get(Column.QUANTITY).skipNumber();
+                readers.get(Column.PRICE_AT_PURCHASE).skipNumber();
+            }
+        }
+        List<ArchivedOrder> orders = new ArrayList<>(to - from);
+        for (int row = from; row < to; row++) {
+            long orderId = readers.get(Column.ORDER_ID).readDelta();
+            long userId = readers.get(Column.USER_ID).readDelta();
+            String username = readers.get(Column.USERNAME).readString();
+            String status = readers.get(Column.STATUS).readString();
+            Long subtotal = readers.get(Column.SUBTOTAL).readNullable();
+            Long tax = readers.get(Column.TAX).readNullable();
+            Long discountAmount = readers.get(Column.DISCOUNT_AMOUNT).readNullable();
+            Long total = readers.get(Column.TOTAL).readNullable();
+            String discountCode = readers.get(Column.DISCOUNT_CODE).readString();
+            Long orderDate = readers.get(Column.ORDER_DATE).readNullable();
+            int lines = (int) readers.get(Column.LINE_COUNT).readLong();
+
+            List<ArchivedOrder.Line> orderLines = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                long itemId = readers.get(Column.ITEM_ID).readDelta();
+                String itemName = readers.get(Column.ITEM_NAME).readString();
+                int quantity = (int) readers.get(Column.QUANTITY).readLong();
+                Long price = readers.get(Column.PRICE_AT_PURCHASE).readNullable();
+                orderLines.add(new ArchivedOrder.Line(itemId, itemName, quantity, toDecimal(price)));
+            }
+            orders.add(new ArchivedOrder(orderId, userId, username, status, toDecimal(subtotal),
+                    toDecimal(tax), toDecimal(discountAmount), toDecimal(total), discountCode,
+                    toOffsetDateTime(orderDate), orderLines));
+        }
+        return orders;
+    }
+
+    private ColumnReader reader(Column column) {
+        int index = column.ordinal();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) offsets[index], compressedLengths[index]));
+            byte[] raw = new byte[rawLengths[index]];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("Truncated column " + column + " in " + path);
+            }
+            return new ColumnReader(raw);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt column " + column + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    private static Long toUnscaled(BigDecimal value) {
+        return value == null ? null : value.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal toDecimal(Long unscaled) {
+        return unscaled == null ? null : BigDecimal.valueOf(unscaled, PRICE_SCALE);
+    }
+
+    private static Long toMicros(OffsetDateTime time) {
+        if (time == null) {
+            return null;
+        }
+        Instant instant = time.toInstant();
+        return instant.getEpochSecond() * MICROS_PER_SECOND + instant.getNano() / 1000;
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Long micros) {
+        if (micros == null) {
+            return null;
+        }
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                Math.floorMod(micros, MICROS_PER_SECOND) * 1000L), ZoneOffset.UTC);
+    }
+
+    /** Distinct user ids in row order, and the first row of each; {@code firstRows} ends with the row count. */
+    private record UserIndex(long[] users, int[] firstRows) {
+
+        int find(long userId) {
+            return Arrays.binarySearch(users, userId);
+        }
+    }
+
+    /** Zig-zag varints; strings are a length varint (0 for null, else length + 1) and UTF-8 bytes. */
+    private static final class ColumnWriter {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private long previous;
+
+        void writeDelta(long value) {
+            writeLong(value - previous);
+            previous = value;
+        }
+
+        void writeLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeNullable(Long value) {
+            if (value == null) {
+                writeVarLong(0);
+            } else {
+                writeVarLong(((value << 1) ^ (value >> 63)) + 1);
+            }
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+    private static final class ColumnReader {
+
+        private final byte[] data;
+        private int position;
+        private long previous;
+
+        ColumnReader(byte[] data) {
+            this.data = data;
+        }
+
+        long readDelta() {
+            previous += readLong();
+            return previous;
+        }
+
+        long readLong() {
+            long encoded = readVarLong();
+            return (encoded >>> 1) ^ -(encoded & 1);
+        }
+
+        Long readNullable() {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            encoded--;
+            return (encoded >>> 1) ^ -(encoded & 1);
+        }
+
+        void skipNumber() {
+            readVarLong();
+        }
+
+        void skipString() {
+            int length = (int) readVarLong();
+            if (length > 0) {
+                position += length - 1;
+            }
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(data, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.group7.ecommerce.springbackend.archive;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Header of one archive segment: what it holds and the ranges used to skip
+ * it. Order dates are null if none of its orders had one.
+ */
+public record SegmentInfo(String file, long sizeBytes, int orders, int lines, long minOrderId, long maxOrderId,
+        long minUserId, long maxUserId, OffsetDateTime firstOrderDate, OffsetDateTime lastOrderDate) {
+}
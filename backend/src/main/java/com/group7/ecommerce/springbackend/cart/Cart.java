@@ -16,6 +16,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -43,6 +44,10 @@ public class Cart {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Every cart mutation touches updatedAt, so concurrent ones conflict here
+    @Version
+    private Long version;
+
     public Cart(User user) {
         this.user = user;
         this.createdAt = LocalDateTime.now();
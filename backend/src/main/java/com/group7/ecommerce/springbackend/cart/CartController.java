@@ -2,6 +2,8 @@ package com.group7.ecommerce.springbackend.cart;
 
 import java.util.NoSuchElementException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,6 +16,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.group7.ecommerce.springbackend.common.ConflictRetryExecutor;
+import com.group7.ecommerce.springbackend.common.LogSampler;
 import com.group7.ecommerce.springbackend.user.User;
 import com.group7.ecommerce.springbackend.user.UserRepository;
 
@@ -23,41 +27,44 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/cart")
 public class CartController {
 
+    private static final Logger log = LoggerFactory.getLogger(CartController.class);
+    private static final LogSampler TRACE_SAMPLER = LogSampler.oneIn(100);
+
     private final CartService cartService;
     private final UserRepository userRepository;
+    private final ConflictRetryExecutor conflictRetry;
 
-    public CartController(CartService cartService, UserRepository userRepository) {
+    public CartController(CartService cartService, UserRepository userRepository,
+            ConflictRetryExecutor conflictRetry) {
         this.cartService = cartService;
         this.userRepository = userRepository;
+        this.conflictRetry = conflictRetry;
     }
 
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        System.out.println("CartController - Authentication: " + authentication);
-        System.out.println("CartController - Authentication is authenticated: "
-                + (authentication != null ? authentication.isAuthenticated() : "null"));
 
         if (authentication == null || !authentication.isAuthenticated()) {
-            System.out.println("CartController - User not authenticated");
+            log.debug("User not authenticated");
             throw new RuntimeException("User not authenticated");
         }
 
         Object principal = authentication.getPrincipal();
-        System.out.println("CartController - Principal: " + principal);
-        System.out.println(
-                "CartController - Principal type: " + (principal != null ? principal.getClass().getName() : "null"));
 
         // The principal is a UserDetails object, not the User entity
         if (principal instanceof org.springframework.security.core.userdetails.User) {
             org.springframework.security.core.userdetails.User userDetails = (org.springframework.security.core.userdetails.User) principal;
             String username = userDetails.getUsername();
-            System.out.println("CartController - Found authenticated user: " + username);
+            if (log.isDebugEnabled() && TRACE_SAMPLER.sample()) {
+                log.debug("Resolved cart user {}", username);
+            }
 
             // Look up the User entity by username
             return userRepository.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found: " + username));
         }
 
+        log.debug("Unexpected principal type {}", principal == null ? null : principal.getClass().getName());
         throw new RuntimeException("Unable to get authenticated user");
     }
 
@@ -78,7 +85,8 @@ public class CartController {
             @RequestBody @Valid AddItemRequest request) {
         try {
             User user = getCurrentUser();
-            Cart cart = cartService.addItemToCart(user.getId(), itemId, request.getQuantity());
+            Cart cart = conflictRetry.execute("cart",
+                    () -> cartService.addItemToCart(user.getId(), itemId, request.getQuantity()));
             CartDto cartDto = cartService.convertToDto(cart);
             return ResponseEntity.ok(cartDto);
         } catch (NoSuchElementException | IllegalArgumentException e) {
@@ -92,7 +100,8 @@ public class CartController {
             @RequestBody @Valid UpdateQuantityRequest request) {
         try {
             User user = getCurrentUser();
-            Cart cart = cartService.updateItemQuantity(user.getId(), itemId, request.getQuantity());
+            Cart cart = conflictRetry.execute("cart",
+                    () -> cartService.updateItemQuantity(user.getId(), itemId, request.getQuantity()));
             CartDto cartDto = cartService.convertToDto(cart);
             return ResponseEntity.ok(cartDto);
         } catch (NoSuchElementException | IllegalArgumentException e) {
@@ -104,7 +113,7 @@ public class CartController {
     public ResponseEntity<CartDto> removeItemFromCart(@PathVariable Long itemId) {
         try {
             User user = getCurrentUser();
-            Cart cart = cartService.removeItemFromCart(user.getId(), itemId);
+            Cart cart = conflictRetry.execute("cart", () -> cartService.removeItemFromCart(user.getId(), itemId));
             CartDto cartDto = cartService.convertToDto(cart);
             return ResponseEntity.ok(cartDto);
         } catch (NoSuchElementException e) {
@@ -116,7 +125,7 @@ public class CartController {
     public ResponseEntity<CartDto> clearCart() {
         try {
             User user = getCurrentUser();
-            cartService.clearCart(user.getId());
+            conflictRetry.run("cart", () -> cartService.clearCart(user.getId()));
             CartDto cartDto = cartService.getCartAsDto(user.getId());
             return ResponseEntity.ok(cartDto);
         } catch (NoSuchElementException e) {
@@ -140,7 +149,8 @@ public class CartController {
             @RequestBody @Valid ApplyDiscountRequest request) {
         try {
             User user = getCurrentUser();
-            CartDto cartDto = cartService.applyDiscountCode(user.getId(), request.getDiscountCode());
+            CartDto cartDto = conflictRetry.execute("cart",
+                    () -> cartService.applyDiscountCode(user.getId(), request.getDiscountCode()));
             return ResponseEntity.ok(cartDto);
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
@@ -155,7 +165,8 @@ public class CartController {
             @RequestBody @Valid ChangeQuantityRequest request) {
         try {
             User user = getCurrentUser();
-            Cart cart = cartService.increaseItemQuantity(user.getId(), itemId, request.getAmount());
+            Cart cart = conflictRetry.execute("cart",
+                    () -> cartService.increaseItemQuantity(user.getId(), itemId, request.getAmount()));
             CartDto cartDto = cartService.convertToDto(cart);
             return ResponseEntity.ok(cartDto);
         } catch (NoSuchElementException | IllegalArgumentException e) {
@@ -169,7 +180,8 @@ public class CartController {
             @RequestBody @Valid ChangeQuantityRequest request) {
         try {
             User user = getCurrentUser();
-            Cart cart = cartService.decreaseItemQuantity(user.getId(), itemId, request.getAmount());
+            Cart cart = conflictRetry.execute("cart",
+                    () -> cartService.decreaseItemQuantity(user.getId(), itemId, request.getAmount()));
             CartDto cartDto = cartService.convertToDto(cart);
             return ResponseEntity.ok(cartDto);
         } catch (NoSuchElementException | IllegalArgumentException e) {
@@ -1,9 +1,13 @@
 package com.group7.ecommerce.springbackend.cart;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.group7.ecommerce.springbackend.item.Item;
@@ -17,4 +21,12 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     void deleteByCart(Cart cart);
 
     void deleteByCartAndItem(Cart cart, Item item);
+
+    /** Item ids in the users' carts, as {@code [userId, itemId]} rows. */
+    @Query("select c.user.id, ci.item.id from CartItem ci join ci.cart c where c.user.id in :userIds")
+    List<Object[]> findItemIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.cart.id in (select c.id from Cart c where c.user.id in :userIds)")
+    int deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
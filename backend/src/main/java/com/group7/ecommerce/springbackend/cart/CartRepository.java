@@ -1,8 +1,10 @@
 package com.group7.ecommerce.springbackend.cart;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,4 +21,8 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems WHERE c.user = :user")
     Optional<Cart> findByUserWithItems(@Param("user") User user);
+
+    @Modifying
+    @Query("delete from Cart c where c.user.id in :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
@@ -11,6 +11,9 @@ import java.util.Optional;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.group7.ecommerce.springbackend.common.SingleFlight;
+import com.group7.ecommerce.springbackend.inventory.ReservationLedger;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
 import com.group7.ecommerce.springbackend.item.Item;
 import com.group7.ecommerce.springbackend.item.ItemRepository;
 import com.group7.ecommerce.springbackend.order.DiscountCode;
@@ -18,6 +21,9 @@ import com.group7.ecommerce.springbackend.order.DiscountCodeRepository;
 import com.group7.ecommerce.springbackend.user.User;
 import com.group7.ecommerce.springbackend.user.UserRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 @Transactional
 public class CartService {
@@ -29,17 +35,54 @@ public class CartService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final DiscountCodeRepository discountCodeRepository;
+    private final ReservationLedger reservationLedger;
+    private final StockLedger stockLedger;
+    private final SingleFlight<String, Optional<DiscountCode>> discountCodeLoads;
+
+    private final Counter itemsAdded;
+    private final Counter itemsUpdated;
+    private final Counter itemsRemoved;
+    private final Counter cartsCleared;
+    private final Counter discountsApplied;
+    private final Counter discountsRejected;
 
     public CartService(CartRepository cartRepository,
             CartItemRepository cartItemRepository,
             ItemRepository itemRepository,
             UserRepository userRepository,
-            DiscountCodeRepository discountCodeRepository) {
+            DiscountCodeRepository discountCodeRepository,
+            ReservationLedger reservationLedger,
+            StockLedger stockLedger,
+            MeterRegistry meterRegistry) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.discountCodeRepository = discountCodeRepository;
+        this.reservationLedger = reservationLedger;
+        this.stockLedger = stockLedger;
+        this.discountCodeLoads = new SingleFlight<>("discount_code", meterRegistry);
+
+        this.itemsAdded = operationCounter(meterRegistry, "add");
+        this.itemsUpdated = operationCounter(meterRegistry, "update");
+        this.itemsRemoved = operationCounter(meterRegistry, "remove");
+        this.cartsCleared = operationCounter(meterRegistry, "clear");
+        this.discountsApplied = discountCounter(meterRegistry, "applied");
+        this.discountsRejected = discountCounter(meterRegistry, "rejected");
+    }
+
+    private static Counter operationCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("cart.operations")
+                .description("Successful cart mutations")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Counter discountCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cart.discount.applications")
+                .description("Discount code applications by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     public Cart getCart(Long userId) {
@@ -64,10 +107,6 @@ public class CartService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NoSuchElementException("Item not found"));
 
-        if (item.getQuantityAvailable() < quantity) {
-            throw new IllegalArgumentException("Insufficient stock available");
-        }
-
         Cart cart = cartRepository.findByUserWithItems(user)
                 .orElseGet(() -> {
                     Cart newCart = new Cart(user);
@@ -76,9 +115,13 @@ public class CartService {
 
         Optional<CartItem> existingCartItem = cartItemRepository.findByCartAndItem(cart, item);
 
+        // Hold the whole line, not just the units being added
+        int lineQuantity = existingCartItem.map(CartItem::getQuantity).orElse(0) + quantity;
+        reservationLedger.reserve(userId, itemId, lineQuantity, stockLedger.onHand(itemId));
+
         if (existingCartItem.isPresent()) {
             CartItem cartItem = existingCartItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
+            cartItem.setQuantity(lineQuantity);
             cartItemRepository.save(cartItem);
         } else {
             CartItem newCartItem = new CartItem(cart, item, quantity);
@@ -86,7 +129,9 @@ public class CartService {
         }
 
         cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepository.save(cart);
+        Cart saved = cartRepository.save(cart);
+        itemsAdded.increment();
+        return saved;
     }
 
     public Cart updateItemQuantity(Long userId, Long itemId, int quantity) {
@@ -107,18 +152,18 @@ public class CartService {
             return removeItemFromCart(userId, itemId);
         }
 
-        if (item.getQuantityAvailable() < quantity) {
-            throw new IllegalArgumentException("Insufficient stock available");
-        }
-
         CartItem cartItem = cartItemRepository.findByCartAndItem(cart, item)
                 .orElseThrow(() -> new NoSuchElementException("Item not found in cart"));
 
+        reservationLedger.reserve(userId, itemId, quantity, stockLedger.onHand(itemId));
+
         cartItem.setQuantity(quantity);
         cartItemRepository.save(cartItem);
 
         cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepository.save(cart);
+        Cart saved = cartRepository.save(cart);
+        itemsUpdated.increment();
+        return saved;
     }
 
     public Cart removeItemFromCart(Long userId, Long itemId) {
@@ -132,9 +177,12 @@ public class CartService {
                 .orElseThrow(() -> new NoSuchElementException("Cart not found"));
 
         cartItemRepository.deleteByCartAndItem(cart, item);
+        reservationLedger.release(userId, itemId);
 
         cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepository.save(cart);
+        Cart saved = cartRepository.save(cart);
+        itemsRemoved.increment();
+        return saved;
     }
 
     public void clearCart(Long userId) {
@@ -144,10 +192,12 @@ public class CartService {
         Cart cart = cartRepository.findByUserWithItems(user)
                 .orElseThrow(() -> new NoSuchElementException("Cart not found"));
 
+        cart.getCartItems().forEach(cartItem -> reservationLedger.release(userId, cartItem.getItem().getId()));
         cartItemRepository.deleteByCart(cart);
         cart.setAppliedDiscountCode(null); // Clear the discount code when clearing cart
         cart.setUpdatedAt(LocalDateTime.now());
         cartRepository.save(cart);
+        cartsCleared.increment();
     }
 
     public Cart increaseItemQuantity(Long userId, Long itemId, int amount) {
@@ -169,15 +219,15 @@ public class CartService {
 
         int newQuantity = cartItem.getQuantity() + amount;
 
-        if (item.getQuantityAvailable() < newQuantity) {
-            throw new IllegalArgumentException("Insufficient stock available");
-        }
+        reservationLedger.reserve(userId, itemId, newQuantity, stockLedger.onHand(itemId));
 
         cartItem.setQuantity(newQuantity);
         cartItemRepository.save(cartItem);
 
         cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepository.save(cart);
+        Cart saved = cartRepository.save(cart);
+        itemsUpdated.increment();
+        return saved;
     }
 
     public Cart decreaseItemQuantity(Long userId, Long itemId, int amount) {
@@ -203,11 +253,23 @@ public class CartService {
             return removeItemFromCart(userId, itemId);
         }
 
+        reservationLedger.reduce(userId, itemId, newQuantity);
+
         cartItem.setQuantity(newQuantity);
         cartItemRepository.save(cartItem);
 
         cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepository.save(cart);
+        Cart saved = cartRepository.save(cart);
+        itemsUpdated.increment();
+        return saved;
+    }
+
+    /**
+     * Every cart view re-reads the applied code, so concurrent lookups of the
+     * same code share one query. The result is only read, never modified.
+     */
+    private Optional<DiscountCode> findDiscountCode(String code) {
+        return discountCodeLoads.load(code, () -> discountCodeRepository.findByCode(code));
     }
 
     public CartDto calculateCart(CartDto cart) {
@@ -220,7 +282,7 @@ public class CartService {
 
         BigDecimal discountAmount = BigDecimal.ZERO;
         if (cart.getAppliedDiscountCode() != null && !cart.getAppliedDiscountCode().isEmpty()) {
-            Optional<DiscountCode> optionalCode = discountCodeRepository.findByCode(cart.getAppliedDiscountCode());
+            Optional<DiscountCode> optionalCode = findDiscountCode(cart.getAppliedDiscountCode());
             if (optionalCode.isPresent()) {
                 DiscountCode code = optionalCode.get();
                 if (code.isActive()
@@ -277,14 +339,17 @@ public class CartService {
         
         // Validate discount code
         if (discountCode != null && !discountCode.isEmpty()) {
-            Optional<DiscountCode> optionalCode = discountCodeRepository.findByCode(discountCode);
+            Optional<DiscountCode> optionalCode = findDiscountCode(discountCode);
             if (optionalCode.isEmpty()) {
+                discountsRejected.increment();
                 throw new IllegalArgumentException("Invalid discount code");
             }
             DiscountCode code = optionalCode.get();
             if (!code.isActive() || (code.getExpiryDate() != null && code.getExpiryDate().isBefore(OffsetDateTime.now()))) {
+                discountsRejected.increment();
                 throw new IllegalArgumentException("Discount code is not valid or has expired");
             }
+            discountsApplied.increment();
         }
         
         // Persist the discount code to the Cart entity
@@ -0,0 +1,44 @@
+package com.group7.ecommerce.springbackend.catalog;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever item or sale data visible in the public catalog changes.
+ * Listeners that derive data from the catalog (response cache, indexes) use it
+ * to invalidate or refresh. Either {@code wholeCatalog} is set and any item
+ * may have changed, or {@code itemIds} names the items that did; an event for
+ * no items at all is refused, so an empty selection cannot flush everything.
+ * {@code stockOnly} events change nothing but the items' stock levels, which
+ * move with every sale; listeners that do not show stock can ignore them.
+ */
+public record CatalogChangedEvent(Set<Long> itemIds, boolean wholeCatalog, boolean stockOnly) {
+
+    public CatalogChangedEvent {
+        if (wholeCatalog != itemIds.isEmpty()) {
+            throw new IllegalArgumentException(wholeCatalog
+                    ? "A whole-catalog change names no items"
+                    : "A catalog change needs at least one item");
+        }
+    }
+
+    public static CatalogChangedEvent ofItems(Collection<Long> itemIds) {
+        return new CatalogChangedEvent(Set.copyOf(itemIds), false, false);
+    }
+
+    public static CatalogChangedEvent ofItem(Long itemId) {
+        return new CatalogChangedEvent(Set.of(itemId), false, false);
+    }
+
+    public static CatalogChangedEvent ofStock(Collection<Long> itemIds) {
+        return new CatalogChangedEvent(Set.copyOf(itemIds), false, true);
+    }
+
+    public static CatalogChangedEvent allItems() {
+        return new CatalogChangedEvent(Set.of(), true, false);
+    }
+
+    public boolean isAllItems() {
+        return wholeCatalog;
+    }
+}
@@ -0,0 +1,205 @@
+package com.group7.ecommerce.springbackend.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Serialized catalog responses keyed by request URI and query string, stored
+ * as JSON plus precompressed gzip and brotli bytes, so compression runs once
+ * per response rather than once per request. At most
+ * {@code catalog.cache.max-entries} are kept, least recently used first out.
+ *
+ * <p>A {@link CatalogChangedEvent} evicts the {@code /api/items/{id}} entries
+ * of the changed items and every other entry: a list or sale page may gain,
+ * lose or reorder items on any change, and there is no cheap way to tell.
+ * Stock-only events evict nothing, as stock moves with every sale; instead an
+ * entry rendered before the latest stock change is re-rendered once it is
+ * older than {@code catalog.cache.stock-max-age}, which bounds how stale the
+ * quantities it shows can get.
+ */
+@Component
+public class CatalogResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogResponseCache.class);
+
+    private static final Pattern ITEM_KEY = Pattern.compile("/api/items/(\\d+)(\\?.*)?");
+
+    /** Guards every read and write of the tracking fields below as well. */
+    private final Map<String, Entry> entries;
+    private final AtomicLong version = new AtomicLong();
+    /** Version of the last change to each item, and to lists. */
+    private final Map<Long, Long> itemChangedAt = new HashMap<>();
+    private long listsChangedAt;
+    private volatile long stockChangedAt = System.nanoTime();
+
+    private final long minCompressSize;
+    private final long stockMaxAgeNanos;
+    private final boolean brotliAvailable;
+    private final Encoder.Parameters brotliParameters;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public CatalogResponseCache(@Value("${catalog.cache.max-entries:1000}") int maxEntries,
+            @Value("${server.compression.min-response-size:2KB}") DataSize minCompressSize,
+            @Value("${catalog.cache.brotli-quality:9}") int brotliQuality,
+            @Value("${catalog.cache.stock-max-age:30s}") Duration stockMaxAge,
+            MeterRegistry meterRegistry) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.minCompressSize = minCompressSize.toBytes();
+        this.stockMaxAgeNanos = stockMaxAge.toNanos();
+        this.brotliAvailable = Brotli4jLoader.isAvailable();
+        this.brotliParameters = new Encoder.Parameters().setQuality(brotliQuality);
+        if (!brotliAvailable) {
+            log.warn("Brotli native library unavailable, catalog responses will be precompressed with gzip only",
+                    Brotli4jLoader.getUnavailabilityCause());
+        }
+
+        this.hits = Counter.builder("catalog.response.cache")
+                .description("Catalog response cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("catalog.response.cache")
+                .description("Catalog response cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("catalog.response.cache.size", Tags.empty(), entries);
+    }
+
+    public long currentVersion() {
+        return version.get();
+    }
+
+    public Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !stockExpired(entry)) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Builds an entry for a freshly rendered response. It is only stored if
+     * nothing it depends on has changed since {@code renderedAtVersion}, so a
+     * response rendered from pre-change data never outlives the change.
+     */
+    public Entry put(String key, long renderedAtVersion, byte[] json) {
+        Entry entry = compress(json);
+        Long itemId = itemId(key);
+        synchronized (entries) {
+            long changedAt = itemId == null ? listsChangedAt : itemChangedAt.getOrDefault(itemId, 0L);
+            if (changedAt <= renderedAtVersion) {
+                entries.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.stockOnly()) {
+            stockChangedAt = System.nanoTime();
+            return;
+        }
+        synchronized (entries) {
+            long changed = version.incrementAndGet();
+            listsChangedAt = changed;
+            if (event.isAllItems()) {
+                // Every item is newer than any render in progress; older marks no longer matter
+                itemChangedAt.clear();
+                entries.clear();
+                return;
+            }
+            for (Long itemId : event.itemIds()) {
+                itemChangedAt.put(itemId, changed);
+            }
+            entries.keySet().removeIf(key -> {
+                Long itemId = itemId(key);
+                return itemId == null || event.itemIds().contains(itemId);
+            });
+        }
+    }
+
+    private boolean stockExpired(Entry entry) {
+        return entry.createdAt() - stockChangedAt < 0 && System.nanoTime() - entry.createdAt() > stockMaxAgeNanos;
+    }
+
+    private static Long itemId(String key) {
+        Matcher matcher = ITEM_KEY.matcher(key);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private Entry compress(byte[] json) {
+        long createdAt = System.nanoTime();
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        String etag = "W/\"" + Long.toHexString(crc.getValue()) + "\"";
+        if (json.length < minCompressSize) {
+            return new Entry(createdAt, etag, json, null, null);
+        }
+        return new Entry(createdAt, etag, json, gzip(json), brotliAvailable ? brotli(json) : null);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] brotli(byte[] json) {
+        try {
+            return Encoder.compress(json, brotliParameters);
+        } catch (IOException e) {
+            log.warn("Brotli compression failed, serving gzip only: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * One cached response. {@code gzip} and {@code brotli} are null when the
+     * body is below the compression threshold or the encoder is unavailable.
+     */
+    public record Entry(long createdAt, String etag, byte[] json, byte[] gzip, byte[] brotli) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.group7.ecommerce.springbackend.catalog;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves GET requests for the public catalog endpoints from
+ * {@link CatalogResponseCache}, picking brotli, gzip or plain JSON from the
+ * request's Accept-Encoding. Runs after the Spring Security filter chain so
+ * rate limiting and authorization still apply to cached responses.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern CACHEABLE = Pattern.compile("/api/(items|sales)(/\\d+)?");
+
+    private final CatalogResponseCache cache;
+
+    public CatalogResponseCacheFilter(CatalogResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !CACHEABLE.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+
+        CatalogResponseCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            write(request, response, entry);
+            return;
+        }
+
+        long version = cache.currentVersion();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && isJson(wrapper.getContentType())) {
+            entry = cache.put(key, version, wrapper.getContentAsByteArray());
+            wrapper.resetBuffer();
+            write(request, response, entry);
+        } else {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response,
+            CatalogResponseCache.Entry entry) throws IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        if (entry.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = entry.json();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (entry.brotli() != null && accepts(acceptEncoding, "br")) {
+            body = entry.brotli();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "br");
+        } else if (entry.gzip() != null && accepts(acceptEncoding, "gzip")) {
+            body = entry.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * True if the Accept-Encoding header lists the coding without {@code q=0}.
+     */
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!tokens[0].trim().equalsIgnoreCase(coding)) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package com.group7.ecommerce.springbackend.common;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs an operation in a transaction of its own and, if it loses an
+ * optimistic-locking race on a {@code @Version} column, runs it again from
+ * a fresh read. Retries wait a random time up to an exponentially growing
+ * cap ("full jitter"), so writers that collided once do not collide again
+ * in lockstep. After {@code retry.conflict.max-attempts} the conflict is
+ * rethrown and answered with 409.
+ *
+ * <p>The operation must be safe to repeat. Called inside a transaction it
+ * runs once without retrying: the conflict would only surface when the
+ * caller commits.
+ */
+@Component
+public class ConflictRetryExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetryExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public ConflictRetryExecutor(TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            @Value("${retry.conflict.max-attempts:4}") int maxAttempts,
+            @Value("${retry.conflict.initial-backoff:20ms}") Duration initialBackoff,
+            @Value("${retry.conflict.max-backoff:500ms}") Duration maxBackoff) {
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> action.get());
+                if (attempt > 1) {
+                    count(operation, "recovered");
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    count(operation, "exhausted");
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+                count(operation, "retried");
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private void count(String operation, String outcome) {
+        meterRegistry.counter("retry.conflicts", "operation", operation, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,32 @@
+package com.group7.ecommerce.springbackend.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets roughly one in {@code rate} calls through, for debug logs on paths that
+ * run on every request. Check the logger level first so the draw only happens
+ * when debug logging is actually on:
+ *
+ * <pre>
+ * if (log.isDebugEnabled() &amp;&amp; SAMPLER.sample()) { ... }
+ * </pre>
+ */
+public final class LogSampler {
+
+    private final int rate;
+
+    private LogSampler(int rate) {
+        this.rate = rate;
+    }
+
+    public static LogSampler oneIn(int rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Sample rate must be at least 1");
+        }
+        return new LogSampler(rate);
+    }
+
+    public boolean sample() {
+        return rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+}
@@ -0,0 +1,120 @@
+package com.group7.ecommerce.springbackend.common;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code long}, for large sparse
+ * counters where boxed {@code Map<Long, Long>} entries would cost several
+ * times the memory of the data. Keys must not be 0, which marks a free slot;
+ * database ids qualify.
+ *
+ * <p>Not thread safe.
+ */
+public final class LongLongHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int resizeAt;
+
+    public LongLongHashMap() {
+        this(8);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(Math.max(expectedSize, 4)));
+    }
+
+    /** The value for {@code key}, or 0 if absent. */
+    public long get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    /** Adds {@code delta} to the value for {@code key}, starting from 0, and returns the sum. */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeAt) {
+            allocate(keys.length * 2);
+        }
+        return delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Consumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        if (key == 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+        if (oldKeys == null) {
+            return;
+        }
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /** Spreads sequential ids across the table; linear probing clusters badly without it. */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit((int) Math.ceil(expectedSize / LOAD_FACTOR) - 1) << 1;
+        return Math.max(capacity, 8);
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(long key, long value);
+    }
+}
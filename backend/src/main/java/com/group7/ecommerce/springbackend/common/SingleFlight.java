@@ -0,0 +1,76 @@
+package com.group7.ecommerce.springbackend.common;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the
+ * loader, callers arriving while it is in flight wait for and share its
+ * result (or exception). Nothing is kept once the load finishes, so this is
+ * not a cache; it only stops a burst of identical misses from each hitting
+ * the database.
+ *
+ * <p>Results are handed to several threads, so loaders should return values
+ * that are safe to share (DTOs, detached copies, or entities that callers
+ * only read).
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loads = Counter.builder("singleflight.calls")
+                .description("Lookups by whether they ran the load or joined one in flight")
+                .tag("name", name)
+                .tag("result", "loaded")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("singleflight.calls")
+                .description("Lookups by whether they ran the load or joined one in flight")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -9,9 +9,11 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
 import com.group7.ecommerce.springbackend.item.Item;
 import com.group7.ecommerce.springbackend.item.ItemRepository;
 import com.group7.ecommerce.springbackend.order.DiscountCode;
@@ -45,6 +47,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private static final BigDecimal TAX_RATE = new BigDecimal("0.0825");
 
     @Override
@@ -72,6 +77,9 @@ public class DataInitializer implements CommandLineRunner {
                 seedOrders();
             }
         }
+
+        // The server may already be taking requests, so drop anything cached while seeding
+        eventPublisher.publishEvent(CatalogChangedEvent.allItems());
     }
 
     private void seedItems() {
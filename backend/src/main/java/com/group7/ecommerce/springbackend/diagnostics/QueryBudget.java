@@ -0,0 +1,77 @@
+package com.group7.ecommerce.springbackend.diagnostics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL statements and JDBC execution time recorded for the request bound to the
+ * current thread. Only requests picked by {@link QueryBudgetFilter} get one, so
+ * untracked requests pay for a single ThreadLocal read per statement.
+ */
+public final class QueryBudget {
+
+    private static final ThreadLocal<QueryBudget> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+    private int statements;
+    private long executionNanos;
+    private long executionStartedAt;
+
+    private QueryBudget() {
+    }
+
+    static QueryBudget begin() {
+        QueryBudget budget = new QueryBudget();
+        CURRENT.set(budget);
+        return budget;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static QueryBudget current() {
+        return CURRENT.get();
+    }
+
+    void statementPrepared(String sql) {
+        statements++;
+        // Hibernate renders bind parameters as '?', so an N+1 shows up as the same text repeated
+        statementCounts.merge(sql, 1, Integer::sum);
+    }
+
+    void executionStarted() {
+        executionStartedAt = System.nanoTime();
+    }
+
+    void executionEnded() {
+        if (executionStartedAt != 0) {
+            executionNanos += System.nanoTime() - executionStartedAt;
+            executionStartedAt = 0;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getExecutionMillis() {
+        return executionNanos / 1_000_000;
+    }
+
+    /**
+     * Statements prepared more than {@code maxRepeats} times, most repeated first.
+     */
+    public List<Map.Entry<String, Integer>> repeatedStatements(int maxRepeats) {
+        List<Map.Entry<String, Integer>> repeated = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : statementCounts.entrySet()) {
+            if (entry.getValue() > maxRepeats) {
+                repeated.add(entry);
+            }
+        }
+        repeated.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        return repeated;
+    }
+}
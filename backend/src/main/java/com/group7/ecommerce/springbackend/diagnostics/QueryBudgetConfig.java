@@ -0,0 +1,23 @@
+package com.group7.ecommerce.springbackend.diagnostics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryBudgetConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryBudgetHibernateCustomizer(
+            @Value("${querybudget.mode:sampled}") String mode) {
+        return properties -> {
+            if (QueryBudgetMode.valueOf(mode.trim().toUpperCase()) == QueryBudgetMode.OFF) {
+                return;
+            }
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryBudgetInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryTimingListener.class.getName());
+        };
+    }
+}
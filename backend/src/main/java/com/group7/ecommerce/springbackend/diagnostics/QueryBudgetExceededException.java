@@ -0,0 +1,11 @@
+package com.group7.ecommerce.springbackend.diagnostics;
+
+/**
+ * Thrown in {@code strict} mode when a request goes over its query budget.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
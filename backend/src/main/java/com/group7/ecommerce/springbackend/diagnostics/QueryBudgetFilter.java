@@ -0,0 +1,133 @@
+package com.group7.ecommerce.springbackend.diagnostics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Tracks the SQL each HTTP request runs and reports requests that go over the
+ * configured statement count or JDBC time, or that repeat the same statement
+ * more than {@code querybudget.max-repeats} times (the usual N+1 signature).
+ * Runs right after {@code RequestCorrelationFilter} so reports carry the
+ * request id.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+    private static final int MAX_SQL_LENGTH = 200;
+
+    private final QueryBudgetMode mode;
+    private final int sampleRate;
+    private final int maxStatements;
+    private final long maxTimeMillis;
+    private final int maxRepeats;
+
+    private final Counter statementViolations;
+    private final Counter timeViolations;
+    private final Counter repeatViolations;
+
+    public QueryBudgetFilter(@Value("${querybudget.mode:sampled}") String mode,
+            @Value("${querybudget.sample-rate:100}") int sampleRate,
+            @Value("${querybudget.max-statements:20}") int maxStatements,
+            @Value("${querybudget.max-time:500ms}") Duration maxTime,
+            @Value("${querybudget.max-repeats:5}") int maxRepeats,
+            MeterRegistry meterRegistry) {
+        this.mode = QueryBudgetMode.valueOf(mode.trim().toUpperCase());
+        this.sampleRate = Math.max(1, sampleRate);
+        this.maxStatements = maxStatements;
+        this.maxTimeMillis = maxTime.toMillis();
+        this.maxRepeats = maxRepeats;
+
+        this.statementViolations = violationCounter(meterRegistry, "statements");
+        this.timeViolations = violationCounter(meterRegistry, "time");
+        this.repeatViolations = violationCounter(meterRegistry, "repeated");
+    }
+
+    private static Counter violationCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("querybudget.violations")
+                .description("Tracked requests that went over their query budget")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Bulk imports run a few statements per batch by design
+        return mode == QueryBudgetMode.OFF || request.getRequestURI().startsWith("/actuator")
+                || request.getRequestURI().equals("/api/admin/items/import");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (mode == QueryBudgetMode.SAMPLED && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        QueryBudget budget = QueryBudget.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryBudget.end();
+        }
+        check(request, budget);
+    }
+
+    private void check(HttpServletRequest request, QueryBudget budget) {
+        boolean overStatements = budget.getStatements() > maxStatements;
+        boolean overTime = budget.getExecutionMillis() > maxTimeMillis;
+        List<Map.Entry<String, Integer>> repeated = budget.repeatedStatements(maxRepeats);
+        if (!overStatements && !overTime && repeated.isEmpty()) {
+            return;
+        }
+
+        if (overStatements) {
+            statementViolations.increment();
+        }
+        if (overTime) {
+            timeViolations.increment();
+        }
+        if (!repeated.isEmpty()) {
+            repeatViolations.increment();
+        }
+
+        StringBuilder message = new StringBuilder()
+                .append("Query budget exceeded: ").append(request.getMethod()).append(' ')
+                .append(request.getRequestURI()).append(" ran ").append(budget.getStatements())
+                .append(" statements in ").append(budget.getExecutionMillis()).append(" ms (budget ")
+                .append(maxStatements).append(" statements, ").append(maxTimeMillis).append(" ms)");
+        for (Map.Entry<String, Integer> entry : repeated) {
+            message.append(System.lineSeparator()).append("  repeated ").append(entry.getValue())
+                    .append("x, possible N+1: ").append(abbreviate(entry.getKey()));
+        }
+
+        if (mode == QueryBudgetMode.STRICT) {
+            throw new QueryBudgetExceededException(message.toString());
+        }
+        log.warn(message.toString());
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= MAX_SQL_LENGTH ? sql : sql.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+}
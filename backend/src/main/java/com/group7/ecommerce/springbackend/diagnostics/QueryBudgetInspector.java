@@ -0,0 +1,19 @@
+package com.group7.ecommerce.springbackend.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares against the current request's
+ * {@link QueryBudget}. The SQL is returned unchanged.
+ */
+public class QueryBudgetInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryBudget budget = QueryBudget.current();
+        if (budget != null) {
+            budget.statementPrepared(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,12 @@
+package com.group7.ecommerce.springbackend.diagnostics;
+
+public enum QueryBudgetMode {
+    /** Nothing is tracked. */
+    OFF,
+    /** One in {@code querybudget.sample-rate} requests is tracked; violations are logged. */
+    SAMPLED,
+    /** Every request is tracked; violations are logged. */
+    LOG,
+    /** Every request is tracked; violations throw {@link QueryBudgetExceededException}. */
+    STRICT
+}
@@ -0,0 +1,37 @@
+package com.group7.ecommerce.springbackend.diagnostics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds JDBC execution time to the current request's {@link QueryBudget}.
+ * Hibernate creates one instance per session from
+ * {@code hibernate.session.events.auto}.
+ */
+public class QueryTimingListener extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        QueryBudget budget = QueryBudget.current();
+        if (budget != null) {
+            budget.executionStarted();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryBudget budget = QueryBudget.current();
+        if (budget != null) {
+            budget.executionEnded();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
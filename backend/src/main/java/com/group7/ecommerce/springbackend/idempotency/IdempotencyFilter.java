@@ -0,0 +1,264 @@
+package com.group7.ecommerce.springbackend.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Honors the {@code Idempotency-Key} header on cart and order writes. The
+ * first request with a key runs normally and its response is stored; retries
+ * with the same key get that response back (with
+ * {@code Idempotent-Replayed: true} and headers such as {@code Location})
+ * without running the handler again. A retry arriving while the first is
+ * still running waits for it.
+ *
+ * <p>Keys are scoped to the authenticated user, so this runs after the Spring
+ * Security filter chain. Reusing a key for a different request (method, path
+ * or body) is rejected with 422. Server errors and 409/429 responses are not
+ * stored, so those can be retried with the same key.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 5)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(408, 409, 429);
+    /** Headers a client may act on; the rest (Date, Vary, tracing ids) belong to each response. */
+    private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.LOCATION,
+            HttpHeaders.CONTENT_LOCATION, HttpHeaders.RETRY_AFTER, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.LINK);
+
+    private final IdempotencyStore store;
+    private final Duration inFlightWait;
+
+    public IdempotencyFilter(IdempotencyStore store,
+            @Value("${idempotency.in-flight-wait:30s}") Duration inFlightWait) {
+        this.store = store;
+        this.inFlightWait = inFlightWait;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return request.getHeader(HEADER) == null
+                || !WRITE_METHODS.contains(request.getMethod())
+                || !(path.startsWith("/api/cart") || path.startsWith("/api/orders/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String scopedKey = authentication.getName() + ":" + key;
+        String fingerprint = fingerprint(cachedRequest);
+
+        IdempotencyStore.StoredResponse stored = store.find(scopedKey);
+        if (stored != null) {
+            replay(stored, fingerprint, response);
+            return;
+        }
+
+        CompletableFuture<IdempotencyStore.StoredResponse> own = new CompletableFuture<>();
+        CompletableFuture<IdempotencyStore.StoredResponse> running = store.begin(scopedKey, own);
+        if (running != null) {
+            stored = await(running);
+            if (stored == null) {
+                writeError(response, HttpServletResponse.SC_CONFLICT,
+                        "A request with this " + HEADER + " is still in progress or failed; retry shortly");
+                return;
+            }
+            replay(stored, fingerprint, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IdempotencyStore.StoredResponse result = null;
+        try {
+            // The previous holder of the key may have finished between find() and begin()
+            stored = store.find(scopedKey);
+            if (stored != null) {
+                result = stored;
+                replay(stored, fingerprint, response);
+                return;
+            }
+
+            chain.doFilter(cachedRequest, wrapper);
+            int status = wrapper.getStatus();
+            if (status < 500 && !RETRYABLE_STATUSES.contains(status)) {
+                Map<String, String> headers = new LinkedHashMap<>();
+                for (String name : REPLAYED_HEADERS) {
+                    String value = wrapper.getHeader(name);
+                    if (value != null) {
+                        headers.put(name, value);
+                    }
+                }
+                result = new IdempotencyStore.StoredResponse(fingerprint, status, wrapper.getContentType(), headers,
+                        new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8), OffsetDateTime.now());
+                store.save(scopedKey, result);
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            store.release(scopedKey, own, result);
+        }
+    }
+
+    private IdempotencyStore.StoredResponse await(CompletableFuture<IdempotencyStore.StoredResponse> running)
+            throws ServletException {
+        try {
+            return running.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted waiting for in-flight request", e);
+        }
+    }
+
+    private static void replay(IdempotencyStore.StoredResponse stored, String fingerprint,
+            HttpServletResponse response) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            writeError(response, 422, HEADER + " was already used for a different request");
+            return;
+        }
+        response.setStatus(stored.status());
+        stored.headers().forEach(response::setHeader);
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null && !stored.body().isEmpty()) {
+            response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\"}");
+    }
+
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?"
+                    + request.getQueryString() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the body up front so it can be fingerprinted and still be read by
+     * the handler. Cart and order bodies are small.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /** The body is already in memory, so it is all available at once. */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.group7.ecommerce.springbackend.idempotency;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Completed responses by idempotency key. Recent ones are kept in a bounded
+ * LRU; all of them are written to {@code idempotency_keys} so replays survive
+ * eviction and restarts. Requests still executing are tracked as in-flight
+ * futures so a concurrent duplicate can wait for the first one's response.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Map<String, StoredResponse> recent;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Duration retention;
+
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+            @Value("${idempotency.cache.max-entries:10000}") int maxEntries,
+            @Value("${idempotency.retention:24h}") Duration retention,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.retention = retention;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        this.memoryHits = lookupCounter(meterRegistry, "memory");
+        this.databaseHits = lookupCounter(meterRegistry, "database");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        meterRegistry.gaugeMapSize("idempotency.cache.size", Tags.empty(), recent);
+        meterRegistry.gaugeMapSize("idempotency.inflight", Tags.empty(), inFlight);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.lookups")
+                .description("Idempotency key lookups by where the stored response was found")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** The stored response for the key, or null if none or expired. */
+    public StoredResponse find(String scopedKey) {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(retention);
+        StoredResponse cached = recent.get(scopedKey);
+        if (cached != null && cached.createdAt().isAfter(cutoff)) {
+            memoryHits.increment();
+            return cached;
+        }
+
+        try {
+            StoredResponse stored = repository.findByScopedKey(scopedKey)
+                    .filter(record -> record.getCreatedAt().isAfter(cutoff))
+                    .map(StoredResponse::of)
+                    .orElse(null);
+            if (stored != null) {
+                databaseHits.increment();
+                recent.put(scopedKey, stored);
+                return stored;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Idempotency key lookup failed, treating as new request", e);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Registers the caller as the one executing the request for this key.
+     * Returns null if it is now in flight for the caller, or the future of the
+     * request already in flight.
+     */
+    public CompletableFuture<StoredResponse> begin(String scopedKey, CompletableFuture<StoredResponse> own) {
+        return inFlight.putIfAbsent(scopedKey, own);
+    }
+
+    /** Keeps the response for replay, in memory and in the database. */
+    public void save(String scopedKey, StoredResponse response) {
+        recent.put(scopedKey, response);
+        persist(scopedKey, response);
+    }
+
+    /**
+     * Ends the caller's in-flight request and hands {@code response} to anyone
+     * waiting on it; null tells them there is nothing to replay.
+     */
+    public void release(String scopedKey, CompletableFuture<StoredResponse> own, StoredResponse response) {
+        inFlight.remove(scopedKey, own);
+        own.complete(response);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(retention);
+        synchronized (recent) {
+            recent.values().removeIf(stored -> !stored.createdAt().isAfter(cutoff));
+        }
+        int deleted = repository.deleteByCreatedAtBefore(cutoff);
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private void persist(String scopedKey, StoredResponse response) {
+        try {
+            repository.save(new IdempotencyRecord(null, scopedKey, response.fingerprint(), response.status(),
+                    response.contentType(), encodeHeaders(response.headers()), response.body(),
+                    response.createdAt()));
+        } catch (DataAccessException e) {
+            // Another instance stored the same key first, or the database is
+            // unavailable; the in-memory copy still covers retries here
+            log.warn("Could not persist idempotency key", e);
+        }
+    }
+
+    /** Headers as one "Name: value" line each; values never contain line breaks. */
+    static String encodeHeaders(Map<String, String> headers) {
+        if (headers.isEmpty()) {
+            return null;
+        }
+        StringBuilder encoded = new StringBuilder();
+        headers.forEach((name, value) -> encoded.append(name).append(": ").append(value).append('\n'));
+        return encoded.toString();
+    }
+
+    static Map<String, String> decodeHeaders(String encoded) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (encoded != null) {
+            for (String line : encoded.split("\n")) {
+                int colon = line.indexOf(": ");
+                if (colon > 0) {
+                    headers.put(line.substring(0, colon), line.substring(colon + 2));
+                }
+            }
+        }
+        return headers;
+    }
+
+    /** {@code headers} holds only the ones worth replaying, see {@link IdempotencyFilter}. */
+    public record StoredResponse(String fingerprint, int status, String contentType, Map<String, String> headers,
+            String body, OffsetDateTime createdAt) {
+
+        static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getFingerprint(), record.getStatusCode(), record.getContentType(),
+                    decodeHeaders(record.getHeaders()), record.getBody(), record.getCreatedAt());
+        }
+    }
+}
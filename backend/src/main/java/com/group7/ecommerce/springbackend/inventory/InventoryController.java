@@ -0,0 +1,45 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.group7.ecommerce.springbackend.common.ApiResponse;
+
+@RestController
+@RequestMapping("/api/admin/inventory")
+public class InventoryController {
+
+    private final StockLedger stockLedger;
+    private final StockMovementRepository stockMovementRepository;
+
+    public InventoryController(StockLedger stockLedger, StockMovementRepository stockMovementRepository) {
+        this.stockLedger = stockLedger;
+        this.stockMovementRepository = stockMovementRepository;
+    }
+
+    /** Units on hand now, which the item row catches up with on the next flush. */
+    @GetMapping("/items/{itemId}")
+    public ResponseEntity<ApiResponse<Integer>> getOnHand(@PathVariable Long itemId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(stockLedger.onHand(itemId)));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /** The item's stock movements, newest first. */
+    @GetMapping("/items/{itemId}/movements")
+    public ResponseEntity<ApiResponse<List<StockMovement>>> getMovements(@PathVariable Long itemId,
+            Pageable pageable) {
+        Page<StockMovement> movements = stockMovementRepository.findByItemIdOrderByIdDesc(itemId, pageable);
+        return ResponseEntity.ok(ApiResponse.paged(movements.getContent(), movements));
+    }
+}
@@ -0,0 +1,271 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory stock holds for cart lines. Adding to the cart reserves units
+ * against the {@link StockLedger} level for a TTL, so shoppers without a
+ * hold cannot check out stock that is sitting in someone else's cart. Holds
+ * are refreshed on every change to the line, released when the line leaves
+ * the cart or is bought, and expire through a timer wheel.
+ *
+ * <p>Changes follow the outcome of the caller's transaction, like stock
+ * movements in the {@link StockLedger}. A hold grows at once, so concurrent
+ * carts cannot both claim the last units, and is put back if the transaction
+ * rolls back. A hold shrinks or is released only once the transaction
+ * commits, so a cart line that still exists keeps its hold.
+ *
+ * <p>Stock itself is the {@link StockLedger}'s; this ledger only tracks how
+ * much of it is spoken for, and holds are not stock movements. Updates for
+ * an item are serialized on one of a fixed set of striped locks. Holds are
+ * per instance and are lost on restart, which only makes stock look more
+ * available than it is.
+ */
+@Component
+public class ReservationLedger {
+
+    private static final int STRIPES = 64;
+    private static final int WHEEL_SIZE = 512;
+
+    private final Object[] locks = new Object[STRIPES];
+    private final Map<HoldKey, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> reservedByItem = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final TimerWheel<Hold> expiries;
+
+    private final Counter held;
+    private final Counter rejected;
+    private final Counter expired;
+    private final Counter committed;
+
+    public ReservationLedger(@Value("${inventory.reservation.ttl:15m}") Duration ttl,
+            @Value("${inventory.reservation.tick:1s}") Duration tick,
+            MeterRegistry meterRegistry) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.ttl = ttl;
+        this.expiries = new TimerWheel<>("reservation-expiry", WHEEL_SIZE, tick, this::expire);
+
+        this.held = outcomeCounter(meterRegistry, "held");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+        this.expired = outcomeCounter(meterRegistry, "expired");
+        this.committed = outcomeCounter(meterRegistry, "committed");
+        meterRegistry.gaugeMapSize("inventory.reservations.active", Tags.empty(), holds);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("inventory.reservations")
+                .description("Stock hold changes by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sets the user's hold on the item to {@code quantity} units and restarts
+     * its TTL. Growing a hold needs {@code onHand} minus everyone else's holds
+     * to cover it; shrinking one always succeeds.
+     *
+     * @throws IllegalArgumentException if there is not enough unreserved stock
+     */
+    public void reserve(Long userId, Long itemId, int quantity, int onHand) {
+        HoldKey key = new HoldKey(userId, itemId);
+        synchronized (lock(itemId)) {
+            Hold current = holds.get(key);
+            int currentQuantity = current == null ? 0 : current.quantity;
+            if (quantity < currentQuantity) {
+                shrinkOnCommit(key, current, quantity);
+            } else {
+                int reservedByOthers = reservedByItem.getOrDefault(itemId, 0) - currentQuantity;
+                if (quantity > currentQuantity && onHand - reservedByOthers < quantity) {
+                    rejected.increment();
+                    throw new IllegalArgumentException("Insufficient stock available");
+                }
+                Hold grown = replace(key, current, quantity);
+                afterCompletion(isCommitted -> {
+                    if (!isCommitted) {
+                        revert(key, grown, currentQuantity);
+                    }
+                });
+            }
+        }
+        held.increment();
+    }
+
+    /**
+     * Lowers an existing hold to at most {@code quantity} units. Does nothing
+     * if the hold has already expired, since shrinking a cart line should never
+     * fail on stock.
+     */
+    public void reduce(Long userId, Long itemId, int quantity) {
+        HoldKey key = new HoldKey(userId, itemId);
+        synchronized (lock(itemId)) {
+            Hold current = holds.get(key);
+            if (current != null && current.quantity > quantity) {
+                shrinkOnCommit(key, current, quantity);
+            }
+        }
+    }
+
+    public void release(Long userId, Long itemId) {
+        HoldKey key = new HoldKey(userId, itemId);
+        synchronized (lock(itemId)) {
+            Hold current = holds.get(key);
+            if (current != null) {
+                shrinkOnCommit(key, current, 0);
+            }
+        }
+    }
+
+    /** Units of the item held across all carts, a measure of how contended it is. */
+    public int reserved(Long itemId) {
+        return reservedByItem.getOrDefault(itemId, 0);
+    }
+
+    /**
+     * Units of the item the user may buy: stock on hand less what other
+     * shoppers are holding. The user's own hold is included.
+     */
+    public int available(Long userId, Long itemId, int onHand) {
+        Hold own = holds.get(new HoldKey(userId, itemId));
+        int reservedByOthers = reservedByItem.getOrDefault(itemId, 0) - (own == null ? 0 : own.quantity);
+        return onHand - reservedByOthers;
+    }
+
+    /**
+     * Called by checkout once it has recorded the sale of the user's line.
+     * The sale's stock movement already takes the units, so the hold stops
+     * counting at once; otherwise later orders in the same batch would see
+     * those units taken twice. If the transaction rolls back, the sale is
+     * undone and the hold is put back.
+     */
+    public void consume(Long userId, Long itemId) {
+        HoldKey key = new HoldKey(userId, itemId);
+        synchronized (lock(itemId)) {
+            Hold current = holds.get(key);
+            if (current == null) {
+                return;
+            }
+            replace(key, current, 0);
+            afterCompletion(isCommitted -> {
+                if (isCommitted) {
+                    committed.increment();
+                } else {
+                    revert(key, null, current.quantity);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        expiries.shutdown();
+    }
+
+    /** Must hold the item's lock. Returns the new hold, or null if there is none now. */
+    private Hold replace(HoldKey key, Hold current, int quantity) {
+        int delta = quantity - (current == null ? 0 : current.quantity);
+        Hold hold = null;
+        if (quantity <= 0) {
+            holds.remove(key);
+        } else {
+            hold = new Hold(key, quantity);
+            holds.put(key, hold);
+            expiries.schedule(hold, ttl);
+        }
+        adjustReserved(key.itemId(), delta);
+        return hold;
+    }
+
+    /**
+     * Must hold the item's lock. Sets the hold to {@code quantity} once the
+     * transaction commits, unless it has been replaced or has expired by then.
+     */
+    private void shrinkOnCommit(HoldKey key, Hold current, int quantity) {
+        afterCompletion(isCommitted -> {
+            if (isCommitted) {
+                synchronized (lock(key.itemId())) {
+                    if (holds.get(key) == current) {
+                        replace(key, current, quantity);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Undoes a change made by a transaction that rolled back: if the hold is
+     * still {@code applied}, it goes back to {@code quantity} with a new TTL.
+     */
+    private void revert(HoldKey key, Hold applied, int quantity) {
+        synchronized (lock(key.itemId())) {
+            if (holds.get(key) == applied) {
+                replace(key, applied, quantity);
+            }
+        }
+    }
+
+    /** Runs the callback when the current transaction ends, or at once as committed if there is none. */
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /** Must hold the item's lock. */
+    private void adjustReserved(Long itemId, int delta) {
+        reservedByItem.compute(itemId, (id, reserved) -> {
+            int updated = (reserved == null ? 0 : reserved) + delta;
+            return updated <= 0 ? null : updated;
+        });
+    }
+
+    /** Called by the timer wheel; a hold that was replaced or released since is ignored. */
+    private void expire(Hold hold) {
+        synchronized (lock(hold.key.itemId())) {
+            if (holds.remove(hold.key, hold)) {
+                adjustReserved(hold.key.itemId(), -hold.quantity);
+                expired.increment();
+            }
+        }
+    }
+
+    private Object lock(Long itemId) {
+        return locks[Long.hashCode(itemId) & (STRIPES - 1)];
+    }
+
+    private record HoldKey(Long userId, Long itemId) {
+    }
+
+    /** Compared by identity, so an expiry only removes the exact hold it was scheduled for. */
+    private static final class Hold {
+
+        private final HoldKey key;
+        private final int quantity;
+
+        private Hold(HoldKey key, int quantity) {
+            this.key = key;
+            this.quantity = quantity;
+        }
+    }
+}
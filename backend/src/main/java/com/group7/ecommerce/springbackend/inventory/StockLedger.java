@@ -0,0 +1,317 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Every stock change is a {@link StockMovement} row, written in the caller's
+ * transaction; {@code items.quantity_available} is a projection of those
+ * rows. Nothing else writes that column after the item is created.
+ *
+ * <p>Each item's level is kept in memory once first touched: the projection
+ * plus committed movements not yet folded into it. Sales are checked and
+ * subtracted under the item's lock before their transaction commits, so
+ * concurrent checkouts cannot sell the same unit, and are given back if the
+ * transaction rolls back. Every {@code inventory.ledger.flush-interval} the
+ * committed movements are folded into the item rows, one UPDATE per item
+ * however many movements it had, and marked applied. That keeps bursts on a
+ * hot item off its row lock. Movements left unapplied by a crash are picked
+ * up the next time the item is loaded.
+ *
+ * <p>Levels are per instance, like {@link ReservationLedger}, so stock
+ * writes must go through a single instance.
+ */
+@Component
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final int STRIPES = 64;
+    private static final int MARK_CHUNK = 1000;
+
+    private static final String LOAD_QUANTITY_SQL = "select quantity_available from items where id = ?";
+    private static final String LOAD_UNAPPLIED_SQL =
+            "select id, quantity from stock_movements where item_id = ? and applied = false order by id";
+    private static final String APPLY_SQL = "update items set quantity_available = quantity_available + ? where id = ?";
+    private static final String MARK_APPLIED_SQL = "update stock_movements set applied = true where id in (:ids)";
+
+    private final StockMovementRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Object[] locks = new Object[STRIPES];
+    private final Map<Long, Level> levels = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final Map<StockMovement.Type, Counter> movements = new HashMap<>();
+    private final Counter rejected;
+    private final Timer flushTimer;
+
+    public StockLedger(StockMovementRepository repository, JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate, TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+
+        for (StockMovement.Type type : StockMovement.Type.values()) {
+            movements.put(type, Counter.builder("inventory.movements")
+                    .description("Stock movements recorded")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        this.rejected = Counter.builder("inventory.movements.rejected")
+                .description("Sales and adjustments refused because stock would go below zero")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("inventory.ledger.flush")
+                .description("Folding committed stock movements into items.quantity_available")
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("inventory.ledger.pending", Tags.empty(), dirty);
+    }
+
+    /**
+     * Units on hand: the item's committed level less units already taken by
+     * transactions that have not committed yet.
+     *
+     * @throws NoSuchElementException if there is no such item
+     */
+    public int onHand(Long itemId) {
+        synchronized (lock(itemId)) {
+            return level(itemId).onHand();
+        }
+    }
+
+    /**
+     * Records a movement of {@code quantity} units (negative to take stock)
+     * in the current transaction, or a new one if there is none.
+     *
+     * @throws IllegalStateException if it would take stock below zero
+     */
+    @Transactional
+    public StockMovement append(Long itemId, StockMovement.Type type, int quantity, String reference) {
+        synchronized (lock(itemId)) {
+            Level level = level(itemId);
+            if (quantity < 0 && level.onHand() + quantity < 0) {
+                rejected.increment();
+                throw new IllegalStateException("Not enough stock for item " + itemId);
+            }
+            level.inFlight += quantity;
+        }
+        return record(itemId, type, quantity, reference);
+    }
+
+    /**
+     * Records the {@code ADJUSTMENT} that brings the item to {@code quantity}
+     * units, or nothing if it is already there.
+     */
+    @Transactional
+    public StockMovement setLevel(Long itemId, int quantity, String reference) {
+        return setLevel(itemId, quantity, null, reference);
+    }
+
+    /**
+     * Like {@link #setLevel(Long, int, String)}, for a stock count taken when
+     * the item had {@code expectedOnHand} units. If stock has moved since, or
+     * is moving now, the count would erase those movements, so it is refused.
+     *
+     * @throws OptimisticLockingFailureException if the item no longer has
+     *         {@code expectedOnHand} committed units and nothing in flight
+     */
+    @Transactional
+    public StockMovement setLevel(Long itemId, int quantity, Integer expectedOnHand, String reference) {
+        int delta;
+        synchronized (lock(itemId)) {
+            Level level = level(itemId);
+            if (expectedOnHand != null && (level.inFlight != 0 || level.committed != expectedOnHand)) {
+                throw new OptimisticLockingFailureException(
+                        "Stock of item " + itemId + " changed since it was counted");
+            }
+            delta = quantity - (level.committed + level.inFlight);
+            if (delta == 0) {
+                return null;
+            }
+            level.inFlight += delta;
+        }
+        return record(itemId, StockMovement.Type.ADJUSTMENT, delta, reference);
+    }
+
+    /** Folds committed movements into the item rows. */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval:1s}")
+    public synchronized void flush() {
+        Map<Long, Pending> drained = new HashMap<>();
+        for (Long itemId : dirty) {
+            dirty.remove(itemId);
+            synchronized (lock(itemId)) {
+                Level level = levels.get(itemId);
+                if (level != null && !level.unappliedIds.isEmpty()) {
+                    drained.put(itemId, new Pending(level.unappliedDelta, level.unappliedIds));
+                    level.unappliedDelta = 0;
+                    level.unappliedIds = new ArrayList<>();
+                }
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(drained));
+        } catch (RuntimeException e) {
+            log.warn("Could not apply stock movements for {} items, will retry", drained.size(), e);
+            drained.forEach((itemId, pending) -> {
+                synchronized (lock(itemId)) {
+                    Level level = levels.get(itemId);
+                    level.unappliedDelta += pending.delta();
+                    level.unappliedIds.addAll(0, pending.ids());
+                }
+                dirty.add(itemId);
+            });
+            return;
+        } finally {
+            sample.stop(flushTimer);
+        }
+        // The rows changed, so cached copies of them are stale now rather than at sale time
+        eventPublisher.publishEvent(CatalogChangedEvent.ofStock(drained.keySet()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void write(Map<Long, Pending> drained) {
+        List<Map.Entry<Long, Pending>> entries = new ArrayList<>(drained.entrySet());
+        jdbcTemplate.batchUpdate(APPLY_SQL, entries, entries.size(), (statement, entry) -> {
+            statement.setInt(1, entry.getValue().delta());
+            statement.setLong(2, entry.getKey());
+        });
+        List<Long> ids = new ArrayList<>();
+        drained.values().forEach(pending -> ids.addAll(pending.ids()));
+        for (int from = 0; from < ids.size(); from += MARK_CHUNK) {
+            namedJdbcTemplate.update(MARK_APPLIED_SQL,
+                    Map.of("ids", ids.subList(from, Math.min(from + MARK_CHUNK, ids.size()))));
+        }
+    }
+
+    /** Saves the movement; its delta is already in the item's in-flight total. */
+    private StockMovement record(Long itemId, StockMovement.Type type, int quantity, String reference) {
+        StockMovement movement;
+        try {
+            movement = repository.save(new StockMovement(itemId, type, quantity, reference));
+        } catch (RuntimeException e) {
+            settle(itemId, quantity, null);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                settle(itemId, quantity, status == STATUS_COMMITTED ? movement.getId() : null);
+            }
+        });
+        movements.get(type).increment();
+        return movement;
+    }
+
+    /** Moves a delta out of in-flight, into the committed level if {@code committedId} is set. */
+    private void settle(Long itemId, int quantity, Long committedId) {
+        synchronized (lock(itemId)) {
+            Level level = levels.get(itemId);
+            level.inFlight -= quantity;
+            if (committedId != null) {
+                level.committed += quantity;
+                level.unappliedDelta += quantity;
+                level.unappliedIds.add(committedId);
+                dirty.add(itemId);
+            }
+        }
+    }
+
+    /** Must hold the item's lock. */
+    private Level level(Long itemId) {
+        Level level = levels.get(itemId);
+        if (level != null) {
+            return level;
+        }
+        Integer quantity;
+        try {
+            quantity = jdbcTemplate.queryForObject(LOAD_QUANTITY_SQL, Integer.class, itemId);
+        } catch (EmptyResultDataAccessException e) {
+            throw new NoSuchElementException("Item " + itemId + " not found");
+        }
+        level = new Level(quantity == null ? 0 : quantity);
+        Level loaded = level;
+        jdbcTemplate.query(LOAD_UNAPPLIED_SQL, row -> {
+            loaded.committed += row.getInt("quantity");
+            loaded.unappliedDelta += row.getInt("quantity");
+            loaded.unappliedIds.add(row.getLong("id"));
+        }, itemId);
+        if (!level.unappliedIds.isEmpty()) {
+            log.info("Item {} has {} stock movements not yet applied", itemId, level.unappliedIds.size());
+            dirty.add(itemId);
+        }
+        levels.put(itemId, level);
+        return level;
+    }
+
+    private Object lock(Long itemId) {
+        return locks[Long.hashCode(itemId) & (STRIPES - 1)];
+    }
+
+    /** Guarded by the item's lock. */
+    private static final class Level {
+        /** The row's quantity plus every committed movement. */
+        int committed;
+        /** Deltas recorded by transactions still open. */
+        int inFlight;
+        /** Committed movements not yet folded into the row, and their sum. */
+        List<Long> unappliedIds = new ArrayList<>();
+        int unappliedDelta;
+
+        Level(int quantity) {
+            this.committed = quantity;
+        }
+
+        /** Pending restocks are not sellable until they commit; pending sales already are gone. */
+        int onHand() {
+            return committed + Math.min(inFlight, 0);
+        }
+    }
+
+    private record Pending(int delta, List<Long> ids) {
+    }
+}
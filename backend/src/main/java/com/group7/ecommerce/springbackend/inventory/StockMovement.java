@@ -0,0 +1,65 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import java.time.OffsetDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change to an item's stock, never updated except to mark it folded
+ * into {@code items.quantity_available}. Ids come from a sequence so that
+ * inserts can be batched.
+ */
+@Entity
+@Table(name = "stock_movements")
+@Data
+@NoArgsConstructor
+public class StockMovement {
+
+    public enum Type {
+        SALE, RESTOCK, ADJUSTMENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    /** Signed change in units. */
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(length = 100)
+    private String reference;
+
+    /** Whether {@code items.quantity_available} already includes this movement. */
+    @Column(nullable = false)
+    private boolean applied;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    public StockMovement(Long itemId, Type type, int quantity, String reference) {
+        this.itemId = itemId;
+        this.type = type;
+        this.quantity = quantity;
+        this.reference = reference;
+        this.createdAt = OffsetDateTime.now();
+    }
+}
@@ -0,0 +1,12 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    Page<StockMovement> findByItemIdOrderByIdDesc(Long itemId, Pageable pageable);
+}
@@ -0,0 +1,104 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel. Deadlines are rounded up to whole ticks and dropped into
+ * one of {@code size} buckets, so scheduling is O(1) and each tick only walks
+ * one bucket. Timeouts more than one rotation away stay in their bucket until
+ * their round comes up.
+ *
+ * <p>There is no cancel: the expiry callback decides whether the task is still
+ * current. Callbacks run on the single ticker thread and must be short.
+ */
+final class TimerWheel<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final Queue<Timeout<T>>[] buckets;
+    private final int mask;
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final Consumer<T> onExpiry;
+    private final ScheduledExecutorService ticker;
+    /** Last tick whose bucket was processed; only touched by the ticker thread. */
+    private long processedTick;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(String name, int size, Duration tick, Consumer<T> onExpiry) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+        this.tickNanos = tick.toNanos();
+        this.onExpiry = onExpiry;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void schedule(T task, Duration delay) {
+        long ticks = Math.max(1, (delay.toNanos() + tickNanos - 1) / tickNanos);
+        long deadline = currentTick() + ticks;
+        buckets[(int) (deadline & mask)].add(new Timeout<>(task, deadline));
+    }
+
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    /**
+     * Processes every tick up to now, so a delayed run catches up instead of
+     * skipping buckets.
+     */
+    private void advance() {
+        long now = currentTick();
+        while (processedTick < now) {
+            processedTick++;
+            expire(buckets[(int) (processedTick & mask)], processedTick);
+        }
+    }
+
+    private void expire(Queue<Timeout<T>> bucket, long tick) {
+        // Only look at what was queued when the tick started; timeouts re-queued
+        // for a later round go to the back and are picked up next rotation
+        for (int remaining = bucket.size(); remaining > 0; remaining--) {
+            Timeout<T> timeout = bucket.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.deadline() > tick) {
+                bucket.add(timeout);
+                continue;
+            }
+            try {
+                onExpiry.accept(timeout.task());
+            } catch (RuntimeException e) {
+                log.warn("Timer wheel expiry failed", e);
+            }
+        }
+    }
+
+    private record Timeout<T>(T task, long deadline) {
+    }
+}
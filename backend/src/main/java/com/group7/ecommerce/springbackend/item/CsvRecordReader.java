@@ -0,0 +1,109 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time: comma separated, fields may be
+ * quoted, a doubled quote inside quotes is a literal quote, and quoted
+ * fields may span lines. Only the current record is held in memory.
+ */
+final class CsvRecordReader {
+
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack = -2;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Line the last record returned by {@link #next()} started on. */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /** The next record's fields, or null at end of input. Blank lines are skipped. */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldWasQuoted = false;
+        recordLine = line;
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append(field, (char) c);
+                }
+            } else if (c == '"' && field.isEmpty() && !fieldWasQuoted) {
+                quoted = true;
+                fieldWasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldWasQuoted = false;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                line++;
+                if (fields.isEmpty() && field.isEmpty() && !fieldWasQuoted) {
+                    recordLine = line;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                append(field, (char) c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field starting on line " + recordLine);
+        }
+        if (fields.isEmpty() && field.isEmpty() && !fieldWasQuoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void append(StringBuilder field, char c) throws IOException {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IOException("Field longer than " + MAX_FIELD_LENGTH + " characters");
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
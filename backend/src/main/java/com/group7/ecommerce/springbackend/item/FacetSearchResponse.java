@@ -0,0 +1,11 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of {@code GET /api/items/facets}: the total number of matches, one page
+ * of them and the count for every facet value.
+ */
+public record FacetSearchResponse(int total, List<ItemSummary> items, Map<String, Map<String, Integer>> facets) {
+}
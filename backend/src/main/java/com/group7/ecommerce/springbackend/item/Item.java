@@ -2,17 +2,20 @@ package com.group7.ecommerce.springbackend.item;
 
 import java.math.BigDecimal;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = @Index(name = "idx_items_sku", columnList = "sku"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +28,8 @@ public class Item {
     private String title;
     private String description;
     private BigDecimal price;
+    // Projection of the stock ledger; only StockLedger writes it after insert
+    @Column(updatable = false)
     private int quantityAvailable;
     private String imageUrl;
     private String category;
@@ -32,6 +37,10 @@ public class Item {
     private boolean isOnSale;
     private BigDecimal discountedPrice;
 
+    // Admin writes of a stale copy fail instead of overwriting
+    @Version
+    private Long version;
+
     public Item(String title, String description, BigDecimal price, Integer quantityAvailable, String imageUrl,
             String category, String sku) {
         this.title = title;
@@ -0,0 +1,146 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
+import com.group7.ecommerce.springbackend.inventory.StockMovement;
+
+/**
+ * Price and stock changes for many items at once. Repricing is a single
+ * set-based UPDATE that bumps {@code items.version}, so a checkout that read
+ * an item before the change fails its version check instead of writing back
+ * a stale price. It publishes one catalog change.
+ *
+ * <p>Stock adjustments are movements in the {@link StockLedger}, all in one
+ * transaction. Deltas never take stock below zero. A count applies only if
+ * the item still has the on-hand quantity it was counted against, so sales
+ * since the count are not erased; stock movements do not touch
+ * {@code items.version}, so the version cannot tell. If any adjustment does
+ * not apply, none do. Only a stale count is a conflict worth retrying from a
+ * fresh read.
+ */
+@Service
+public class ItemBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemBulkService.class);
+
+    private final ItemRepository itemRepository;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ItemBulkService(ItemRepository itemRepository, StockLedger stockLedger,
+            ApplicationEventPublisher eventPublisher) {
+        this.itemRepository = itemRepository;
+        this.stockLedger = stockLedger;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** Reprices the category or the listed items; returns how many changed. */
+    @Transactional
+    public int reprice(ItemRequestDTOs.BulkPriceRequest request) {
+        boolean byCategory = request.getCategory() != null && !request.getCategory().isBlank();
+        boolean byIds = request.getItemIds() != null && !request.getItemIds().isEmpty();
+        if (byCategory == byIds) {
+            throw new IllegalArgumentException("Give either a category or item ids");
+        }
+        if ((request.getFactor() == null) == (request.getPrice() == null)) {
+            throw new IllegalArgumentException("Give either a factor or a price");
+        }
+
+        int updated;
+        if (request.getFactor() != null) {
+            updated = byCategory
+                    ? itemRepository.multiplyPriceByCategory(request.getCategory(), request.getFactor())
+                    : itemRepository.multiplyPriceByIdIn(request.getItemIds(), request.getFactor());
+        } else {
+            updated = byCategory
+                    ? itemRepository.setPriceByCategory(request.getCategory(), request.getPrice())
+                    : itemRepository.setPriceByIdIn(request.getItemIds(), request.getPrice());
+        }
+        if (updated > 0) {
+            eventPublisher.publishEvent(byCategory
+                    ? CatalogChangedEvent.allItems()
+                    : CatalogChangedEvent.ofItems(request.getItemIds()));
+        }
+        log.info("Repriced {} items", updated);
+        return updated;
+    }
+
+    /**
+     * Applies every adjustment or none.
+     *
+     * @throws NoSuchElementException naming the unknown items
+     * @throws OptimisticLockingFailureException naming the items whose stock
+     *         changed since it was counted
+     * @throws IllegalStateException naming the items whose stock would go
+     *         below zero
+     */
+    @Transactional
+    public int adjustStock(List<ItemRequestDTOs.StockAdjustment> adjustments) {
+        Set<Long> seen = new HashSet<>();
+        for (ItemRequestDTOs.StockAdjustment adjustment : adjustments) {
+            if (!seen.add(adjustment.getItemId())) {
+                throw new IllegalArgumentException("Item " + adjustment.getItemId() + " is adjusted twice");
+            }
+            if ((adjustment.getDelta() == null) == (adjustment.getQuantity() == null)) {
+                throw new IllegalArgumentException("Item " + adjustment.getItemId()
+                        + " needs either a delta or a quantity");
+            }
+            if (adjustment.getQuantity() != null && adjustment.getExpectedQuantity() == null) {
+                throw new IllegalArgumentException("Item " + adjustment.getItemId()
+                        + " needs the expected quantity its stock was counted against");
+            }
+        }
+
+        Set<Long> unknown = new HashSet<>(seen);
+        itemRepository.findAllById(seen).forEach(item -> unknown.remove(item.getId()));
+        if (!unknown.isEmpty()) {
+            throw new NoSuchElementException("Stock not adjusted; items " + unknown + " not found");
+        }
+
+        List<Long> stale = new ArrayList<>();
+        List<Long> insufficient = new ArrayList<>();
+        for (ItemRequestDTOs.StockAdjustment adjustment : adjustments) {
+            Long itemId = adjustment.getItemId();
+            if (adjustment.getQuantity() != null) {
+                try {
+                    stockLedger.setLevel(itemId, adjustment.getQuantity(), adjustment.getExpectedQuantity(),
+                            "bulk count");
+                } catch (OptimisticLockingFailureException e) {
+                    stale.add(itemId);
+                }
+            } else if (adjustment.getDelta() != 0) {
+                try {
+                    stockLedger.append(itemId, adjustment.getDelta() > 0
+                            ? StockMovement.Type.RESTOCK
+                            : StockMovement.Type.ADJUSTMENT, adjustment.getDelta(), "bulk adjustment");
+                } catch (IllegalStateException e) {
+                    insufficient.add(itemId);
+                }
+            }
+        }
+        // Either throw rolls back the movements already recorded
+        if (!stale.isEmpty()) {
+            throw new OptimisticLockingFailureException("Stock not adjusted; items " + stale
+                    + " changed since they were counted");
+        }
+        if (!insufficient.isEmpty()) {
+            throw new IllegalStateException("Stock not adjusted; items " + insufficient + " would go below zero");
+        }
+
+        log.info("Adjusted stock of {} items", adjustments.size());
+        return adjustments.size();
+    }
+}
@@ -0,0 +1,203 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Read-through cache of items by id and SKU. Misses are loaded with chunked
+ * {@code IN} queries. The cache holds detached copies and hands out fresh
+ * copies, so callers can never modify a cached instance. Entries are evicted
+ * on {@link CatalogChangedEvent}, and the least recently used ones once
+ * there are more than {@code item.cache.max-entries}.
+ */
+@Component
+public class ItemCache {
+
+    static final int CHUNK_SIZE = 100;
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, Item> byId;
+    private final Map<String, Long> idBySku = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ItemCache(ItemRepository itemRepository,
+            @Value("${item.cache.max-entries:10000}") int maxEntries,
+            MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.byId = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Item> eldest) {
+                if (size() <= maxEntries) {
+                    return false;
+                }
+                if (eldest.getValue().getSku() != null) {
+                    idBySku.remove(eldest.getValue().getSku(), eldest.getKey());
+                }
+                return true;
+            }
+        });
+        this.hits = Counter.builder("item.cache")
+                .description("Item cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("item.cache")
+                .description("Item cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("item.cache.size", Tags.empty(), byId);
+    }
+
+    /**
+     * Items for the given ids in request order; unknown ids are skipped.
+     */
+    public List<Item> getAllById(Collection<Long> ids) {
+        Map<Long, Item> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Item cached = byId.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        record(found.size(), missing.size());
+
+        long loadedAt = version.get();
+        for (int from = 0; from < missing.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + CHUNK_SIZE, missing.size()));
+            for (Item item : store(itemRepository.findAllById(chunk), loadedAt)) {
+                found.put(item.getId(), item);
+            }
+        }
+
+        List<Item> result = new ArrayList<>(found.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Item item = found.get(id);
+            if (item != null) {
+                result.add(copy(item));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Items for the given SKUs in request order; unknown SKUs are skipped.
+     */
+    public List<Item> getAllBySku(Collection<String> skus) {
+        Map<String, Item> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String sku : new LinkedHashSet<>(skus)) {
+            Long id = idBySku.get(sku);
+            Item cached = id == null ? null : byId.get(id);
+            if (cached != null && sku.equals(cached.getSku())) {
+                found.put(sku, cached);
+            } else {
+                missing.add(sku);
+            }
+        }
+        record(found.size(), missing.size());
+
+        long loadedAt = version.get();
+        for (int from = 0; from < missing.size(); from += CHUNK_SIZE) {
+            List<String> chunk = missing.subList(from, Math.min(from + CHUNK_SIZE, missing.size()));
+            for (Item item : store(itemRepository.findBySkuIn(chunk), loadedAt)) {
+                found.put(item.getSku(), item);
+            }
+        }
+
+        List<Item> result = new ArrayList<>(found.size());
+        for (String sku : new LinkedHashSet<>(skus)) {
+            Item item = found.get(sku);
+            if (item != null) {
+                result.add(copy(item));
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        version.incrementAndGet();
+        if (event.isAllItems()) {
+            byId.clear();
+            idBySku.clear();
+            return;
+        }
+        for (Long id : event.itemIds()) {
+            Item removed = byId.remove(id);
+            if (removed != null && removed.getSku() != null) {
+                idBySku.remove(removed.getSku(), id);
+            }
+        }
+    }
+
+    /**
+     * Caches freshly loaded items unless the catalog changed while they were
+     * being read. Returns detached copies either way.
+     * A change can also land between the version check and the put; eviction
+     * bumps the version first, so checking again afterwards catches it.
+     */
+    private List<Item> store(List<Item> loaded, long loadedAt) {
+        List<Item> copies = new ArrayList<>(loaded.size());
+        for (Item item : loaded) {
+            Item copy = copy(item);
+            copies.add(copy);
+            if (version.get() == loadedAt) {
+                byId.put(copy.getId(), copy);
+                if (copy.getSku() != null) {
+                    idBySku.put(copy.getSku(), copy.getId());
+                }
+                if (version.get() != loadedAt) {
+                    byId.remove(copy.getId(), copy);
+                    if (copy.getSku() != null) {
+                        idBySku.remove(copy.getSku(), copy.getId());
+                    }
+                }
+            }
+        }
+        return copies;
+    }
+
+    private void record(int hit, int missed) {
+        hits.increment(hit);
+        misses.increment(missed);
+    }
+
+    static Item copy(Item item) {
+        Item copy = new Item();
+        copy.setId(item.getId());
+        copy.setTitle(item.getTitle());
+        copy.setDescription(item.getDescription());
+        copy.setPrice(item.getPrice());
+        copy.setQuantityAvailable(item.getQuantityAvailable());
+        copy.setImageUrl(item.getImageUrl());
+        copy.setCategory(item.getCategory());
+        copy.setSku(item.getSku());
+        copy.setOnSale(item.isOnSale());
+        copy.setDiscountedPrice(item.getDiscountedPrice());
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+}
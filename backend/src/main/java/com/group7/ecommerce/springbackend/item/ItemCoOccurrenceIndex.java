@@ -0,0 +1,213 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.group7.ecommerce.springbackend.archive.ArchivedOrder;
+import com.group7.ecommerce.springbackend.archive.OrderArchive;
+import com.group7.ecommerce.springbackend.common.LongLongHashMap;
+import com.group7.ecommerce.springbackend.order.OrderItemRepository;
+import com.group7.ecommerce.springbackend.order.OrderPlacedEvent;
+import com.group7.ecommerce.springbackend.order.OrderRepository;
+import com.group7.ecommerce.springbackend.outbox.OutboxHandler;
+
+/**
+ * "Frequently bought together": for every item, how many orders also
+ * contained each other item. Counts live in one {@link LongLongHashMap} per
+ * item, keyed by the other item's id. Loaded from the order history (the
+ * orders table and the order archive) on a background thread after startup,
+ * then bumped from the outbox as orders are placed. Until the load finishes
+ * {@link #related} returns nothing, and placed orders are held back and
+ * counted once it is done.
+ *
+ * <p>The top {@code item.related.top-k} neighbours of each item are kept
+ * ranked, and only re-ranked when one of its counts changes, so
+ * {@link #related} is a map lookup and an array copy.
+ */
+@Component
+public class ItemCoOccurrenceIndex implements OutboxHandler<OrderPlacedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemCoOccurrenceIndex.class);
+
+    private static final long LOAD_CHUNK = 1000;
+    // Bulk orders would add n^2 pairs and say little about what goes together
+    private static final int MAX_ITEMS_PER_ORDER = 50;
+    private static final long[] NONE = new long[0];
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchive orderArchive;
+    private final int topK;
+
+    private Map<Long, LongLongHashMap> counts = new HashMap<>();
+    private volatile Map<Long, long[]> ranked = new ConcurrentHashMap<>();
+    private long loadedThroughOrderId;
+    /** Orders handled while a load is running; null once it has finished. */
+    private List<OrderPlacedEvent> heldBack = new ArrayList<>();
+
+    public ItemCoOccurrenceIndex(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+            OrderArchive orderArchive, @Value("${item.related.top-k:20}") int topK) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchive = orderArchive;
+        this.topK = topK;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread thread = new Thread(this::rebuild, "co-occurrence-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Recounts everything from the order history. Reads without holding the
+     * index, so the outbox keeps moving; orders it delivers meanwhile are
+     * counted after the swap unless the load already read them.
+     */
+    public void rebuild() {
+        synchronized (this) {
+            if (heldBack == null) {
+                heldBack = new ArrayList<>();
+            }
+        }
+        Map<Long, LongLongHashMap> loaded = new HashMap<>();
+        long throughId = 0;
+        try {
+            Long maxOrderId = orderRepository.findMaxId();
+            throughId = maxOrderId != null ? maxOrderId : 0;
+            for (long afterId = 0; afterId < throughId; afterId += LOAD_CHUNK) {
+                List<Object[]> rows = orderItemRepository.findItemIdsByOrderIdRange(afterId,
+                        Math.min(afterId + LOAD_CHUNK, throughId));
+                Long orderId = null;
+                Set<Long> itemIds = new LinkedHashSet<>();
+                for (Object[] row : rows) {
+                    if (!row[0].equals(orderId)) {
+                        count(loaded, itemIds);
+                        itemIds.clear();
+                        orderId = (Long) row[0];
+                    }
+                    itemIds.add((Long) row[1]);
+                }
+                count(loaded, itemIds);
+            }
+            orderArchive.forEachSegment(orders -> {
+                Set<Long> stillHot = new HashSet<>(orderRepository.findIdsByIdIn(
+                        orders.stream().map(ArchivedOrder::id).toList()));
+                for (ArchivedOrder order : orders) {
+                    if (!stillHot.contains(order.id())) {
+                        Set<Long> itemIds = new LinkedHashSet<>();
+                        order.lines().forEach(line -> itemIds.add(line.itemId()));
+                        count(loaded, itemIds);
+                    }
+                }
+            });
+            throughId = Math.max(throughId, orderArchive.maxOrderId());
+        } catch (RuntimeException e) {
+            // Keep what was there and count the held-back orders into it
+            log.error("Loading co-occurrence counts failed", e);
+            synchronized (this) {
+                List<OrderPlacedEvent> orders = heldBack;
+                heldBack = null;
+                orders.forEach(this::handle);
+            }
+            return;
+        }
+
+        Map<Long, long[]> loadedRanked = new ConcurrentHashMap<>();
+        loaded.forEach((itemId, neighbours) -> loadedRanked.put(itemId, rank(neighbours)));
+        synchronized (this) {
+            counts = loaded;
+            ranked = loadedRanked;
+            loadedThroughOrderId = throughId;
+            List<OrderPlacedEvent> orders = heldBack;
+            heldBack = null;
+            orders.forEach(this::handle);
+        }
+        log.info("Loaded co-occurrence counts for {} items from orders up to id {}", loaded.size(), throughId);
+    }
+
+    @Override
+    public String eventType() {
+        return OrderPlacedEvent.TYPE;
+    }
+
+    @Override
+    public Class<OrderPlacedEvent> payloadType() {
+        return OrderPlacedEvent.class;
+    }
+
+    @Override
+    public synchronized void handle(OrderPlacedEvent order) {
+        if (heldBack != null) {
+            heldBack.add(order);
+            return;
+        }
+        if (order.orderId() != null && order.orderId() <= loadedThroughOrderId) {
+            return;
+        }
+        Set<Long> itemIds = new LinkedHashSet<>();
+        order.lines().forEach(line -> itemIds.add(line.itemId()));
+        if (count(counts, itemIds)) {
+            itemIds.forEach(itemId -> ranked.put(itemId, rank(counts.get(itemId))));
+        }
+    }
+
+    /** Ids of the items most often bought with {@code itemId}, most frequent first. */
+    public List<Long> related(Long itemId, int limit) {
+        long[] ids = ranked.getOrDefault(itemId, NONE);
+        List<Long> result = new ArrayList<>(Math.min(limit, ids.length));
+        for (int i = 0; i < ids.length && i < limit; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    /** Counts every pair of items in one order; false if the order was skipped. */
+    private static boolean count(Map<Long, LongLongHashMap> counts, Set<Long> itemIds) {
+        if (itemIds.size() < 2 || itemIds.size() > MAX_ITEMS_PER_ORDER) {
+            return false;
+        }
+        for (Long itemId : itemIds) {
+            LongLongHashMap neighbours = counts.computeIfAbsent(itemId, id -> new LongLongHashMap());
+            for (Long other : itemIds) {
+                if (!other.equals(itemId)) {
+                    neighbours.addTo(other, 1);
+                }
+            }
+        }
+        return true;
+    }
+
+    /** The top-k neighbours by count, ties broken by lower id. */
+    private long[] rank(LongLongHashMap neighbours) {
+        PriorityQueue<long[]> heap = new PriorityQueue<>(topK + 1,
+                (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+        neighbours.forEach((itemId, count) -> {
+            heap.add(new long[] { itemId, count });
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        });
+
+        long[] ids = new long[heap.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = heap.poll()[0];
+        }
+        return ids;
+    }
+}
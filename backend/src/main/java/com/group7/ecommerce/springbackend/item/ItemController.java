@@ -5,9 +5,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -30,8 +34,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.group7.ecommerce.springbackend.common.ApiResponse;
+import com.group7.ecommerce.springbackend.common.ConflictRetryExecutor;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
@@ -42,26 +48,155 @@ import jakarta.validation.constraints.Min;
 @Validated
 @CrossOrigin(origins = "*") // Allow all origins for public access
 public class ItemController {
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final ItemService service;
+    private final ItemUpdateStream updateStream;
+    private final ConflictRetryExecutor conflictRetry;
 
-    public ItemController(ItemService service) {
+    public ItemController(ItemService service, ItemUpdateStream updateStream, ConflictRetryExecutor conflictRetry) {
         this.service = service;
+        this.updateStream = updateStream;
+        this.conflictRetry = conflictRetry;
     }
 
+    /**
+     * Lists items. {@code fields} selects a sparse fieldset, e.g.
+     * {@code fields=id,title,price} or {@code fields=summary}. Fieldsets made only of
+     * summary fields are loaded with a projection that skips the description column.
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Item>>> getAll(
+    public ResponseEntity<ApiResponse<List<?>>> getAll(
             @RequestParam(required = false, name = "search") String search,
             @RequestParam(defaultValue = "title", name = "sortBy") String sortBy,
             @RequestParam(defaultValue = "asc", name = "sortDirection") String sortDirection,
             @RequestParam(defaultValue = "0", name = "pageNumber") @Min(0) int pageNumber,
-            @RequestParam(defaultValue = "20", name = "pageSize") @Min(1) @Max(100) int pageSize) {
+            @RequestParam(defaultValue = "20", name = "pageSize") @Min(1) @Max(100) int pageSize,
+            @RequestParam(required = false, name = "fields") String fields) {
         Sort s = sortDirection.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(pageNumber, pageSize, s);
-        Page<Item> itemsPage = service.getAll(search, pageable);
 
-        return ResponseEntity.ok(ApiResponse.success(itemsPage.getContent()));
+        List<String> selected;
+        try {
+            selected = ItemFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+
+        if (selected == null) {
+            return ResponseEntity.ok(ApiResponse.success(service.getAll(search, pageable).getContent()));
+        }
+        if (selected.equals(ItemFields.SUMMARY)) {
+            return ResponseEntity.ok(ApiResponse.success(service.getSummaries(search, pageable).getContent()));
+        }
+        if (ItemFields.isSummaryOnly(selected)) {
+            List<Map<String, Object>> rows = service.getSummaries(search, pageable).stream()
+                    .map(summary -> ItemFields.select(summary, selected))
+                    .toList();
+            return ResponseEntity.ok(ApiResponse.success(rows));
+        }
+        List<Map<String, Object>> rows = service.getAll(search, pageable).stream()
+                .map(item -> ItemFields.select(item, selected))
+                .toList();
+        return ResponseEntity.ok(ApiResponse.success(rows));
+    }
+
+    /**
+     * Fetches many items in one round trip, by {@code ids=1,2,3} or by
+     * {@code skus=A,B}. Results follow the request order; unknown keys are
+     * skipped and listed in the message.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ItemResponseDTO>>> getBatch(
+            @RequestParam(required = false, name = "ids") List<Long> ids,
+            @RequestParam(required = false, name = "skus") List<String> skus) {
+        if ((ids == null) == (skus == null)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Provide either ids or skus"));
+        }
+        int requested = ids != null ? ids.size() : skus.size();
+        if (requested > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("At most " + MAX_BATCH_SIZE + " items can be fetched at once"));
+        }
+
+        List<Item> items;
+        List<Object> notFound = new ArrayList<>();
+        if (ids != null) {
+            items = service.getAllById(ids);
+            Set<Long> foundIds = items.stream().map(Item::getId).collect(Collectors.toSet());
+            ids.stream().distinct().filter(id -> !foundIds.contains(id)).forEach(notFound::add);
+        } else {
+            items = service.getAllBySku(skus);
+            Set<String> foundSkus = items.stream().map(Item::getSku).collect(Collectors.toSet());
+            skus.stream().distinct().filter(sku -> !foundSkus.contains(sku)).forEach(notFound::add);
+        }
+
+        List<ItemResponseDTO> body = items.stream().map(ItemResponseDTO::new).toList();
+        return ResponseEntity.ok(notFound.isEmpty()
+                ? ApiResponse.success(body)
+                : ApiResponse.success(body, "Not found: " + notFound));
+    }
+
+    /**
+     * Autocomplete for the search box. Answered from memory, never from the database.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<ItemSuggestion>>> suggest(
+            @RequestParam(name = "prefix") String prefix,
+            @RequestParam(defaultValue = "10", name = "limit") @Min(1) @Max(20) int limit) {
+        return ResponseEntity.ok(ApiResponse.success(service.suggest(prefix, limit)));
+    }
+
+    /**
+     * Faceted search. Repeat {@code category} and {@code price} to select several
+     * values, e.g. {@code ?category=Books&category=Sports&price=0-25&onSale=true}.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<FacetSearchResponse>> facets(
+            @RequestParam(required = false, name = "category") List<String> categories,
+            @RequestParam(required = false, name = "price") List<String> priceBuckets,
+            @RequestParam(required = false, name = "onSale") Boolean onSale,
+            @RequestParam(defaultValue = "0", name = "pageNumber") @Min(0) int pageNumber,
+            @RequestParam(defaultValue = "20", name = "pageSize") @Min(1) @Max(100) int pageSize) {
+        try {
+            FacetSearchResponse response = service.facetSearch(
+                    categories == null ? List.of() : categories,
+                    priceBuckets == null ? List.of() : priceBuckets,
+                    onSale, pageNumber, pageSize);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * "Frequently bought together" for an item page, from precomputed
+     * co-occurrence counts. Empty for items never ordered with anything else.
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<ApiResponse<List<ItemResponseDTO>>> related(@PathVariable Long id,
+            @RequestParam(defaultValue = "10", name = "limit") @Min(1) @Max(20) int limit) {
+        return ResponseEntity.ok(ApiResponse.success(
+                service.related(id, limit).stream().map(ItemResponseDTO::new).toList()));
+    }
+
+    /**
+     * Server-Sent Events for an item page: a {@code snapshot} of its stock and
+     * prices, then an {@code update} with the changed fields whenever they
+     * change, instead of polling {@code GET /api/items/{id}}.
+     */
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @CrossOrigin
+    public ResponseEntity<SseEmitter> stream(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(updateStream.subscribe(id));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -97,9 +232,11 @@ public class ItemController {
         }
     }
 
+    // expectedQuantity is the stock the editor read; 409 if it has moved since
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<ItemResponseDTO>> replace(@PathVariable Long id,
-            @RequestBody @Valid ItemRequestDTOs.CreateItemRequest itemRequest) {
+            @RequestBody @Valid ItemRequestDTOs.CreateItemRequest itemRequest,
+            @RequestParam(required = false) Integer expectedQuantity) {
         try {
             Item item = new Item(
                     itemRequest.getTitle(),
@@ -109,19 +246,22 @@ public class ItemController {
                     itemRequest.getImageUrl(),
                     itemRequest.getCategory(),
                     itemRequest.getSku());
-            Item updatedItem = service.replace(id, item);
+            Item updatedItem = conflictRetry.execute("item", () -> service.replace(id, item, expectedQuantity));
             ItemResponseDTO itemResponse = new ItemResponseDTO(updatedItem);
             return ResponseEntity.ok(ApiResponse.success(itemResponse, "Item updated successfully"));
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
         }
     }
 
     @PatchMapping("/{id}")
     public ResponseEntity<ApiResponse<ItemResponseDTO>> update(@PathVariable Long id,
-            @RequestBody @Valid ItemRequestDTOs.UpdateItemRequest updates) {
+            @RequestBody @Valid ItemRequestDTOs.UpdateItemRequest updates,
+            @RequestParam(required = false) Integer expectedQuantity) {
         try {
             Item item = new Item();
             if (updates.getTitle() != null)
@@ -130,8 +270,6 @@ public class ItemController {
                 item.setDescription(updates.getDescription());
             if (updates.getPrice() != null)
                 item.setPrice(updates.getPrice());
-            if (updates.getQuantityAvailable() != null)
-                item.setQuantityAvailable(updates.getQuantityAvailable());
             if (updates.getImageUrl() != null)
                 item.setImageUrl(updates.getImageUrl());
             if (updates.getCategory() != null)
@@ -139,13 +277,16 @@ public class ItemController {
             if (updates.getSku() != null)
                 item.setSku(updates.getSku());
 
-            Item updatedItem = service.update(id, item);
+            Item updatedItem = conflictRetry.execute("item",
+                    () -> service.update(id, item, updates.getQuantityAvailable(), expectedQuantity));
             ItemResponseDTO itemResponse = new ItemResponseDTO(updatedItem);
             return ResponseEntity.ok(ApiResponse.success(itemResponse, "Item updated successfully"));
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
         }
     }
 
@@ -0,0 +1,299 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+
+/**
+ * In-memory facet index over the catalog. Every item gets a bit position, and
+ * each category, price bucket and the on-sale flag keep a {@link BitSet} of the
+ * items that have that value, so the matches and counts for any filter
+ * combination are bitwise intersections.
+ *
+ * <p>Readers use an immutable snapshot; writers copy it, apply the change and
+ * swap it in, so queries never lock.
+ */
+@Component
+public class ItemFacetIndex {
+
+    /** Upper bounds (exclusive) of every price bucket except the open-ended last one. */
+    private static final BigDecimal[] PRICE_BOUNDS = {
+            new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100"),
+            new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000")
+    };
+    public static final List<String> PRICE_BUCKETS = List.of(
+            "0-25", "25-50", "50-100", "100-250", "250-500", "500-1000", "1000+");
+
+    private final ItemRepository itemRepository;
+    private volatile Snapshot snapshot = new Snapshot();
+
+    public ItemFacetIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Snapshot next = new Snapshot();
+        for (Item item : itemRepository.findAll()) {
+            next.put(item);
+        }
+        snapshot = next;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.stockOnly()) {
+            // Stock is not a facet
+            return;
+        }
+        if (event.isAllItems()) {
+            rebuild();
+        } else {
+            update(event.itemIds());
+        }
+    }
+
+    /** Copies the snapshot only if a facet value of one of the items changed. */
+    private synchronized void update(Collection<Long> itemIds) {
+        Snapshot current = snapshot;
+        List<Item> changed = new ArrayList<>();
+        Set<Long> missing = new HashSet<>(itemIds);
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            missing.remove(item.getId());
+            if (!current.indexes(item)) {
+                changed.add(item);
+            }
+        }
+        missing.removeIf(id -> !current.contains(id));
+        if (changed.isEmpty() && missing.isEmpty()) {
+            return;
+        }
+        Snapshot next = current.copy();
+        changed.forEach(next::put);
+        missing.forEach(next::remove);
+        snapshot = next;
+    }
+
+    /**
+     * Finds the items matching every given filter and counts each facet value.
+     * Counts for a facet apply the filters of the other facets but not its own,
+     * so the storefront can show how many items selecting another value would add.
+     * Empty collections and a null {@code onSale} mean "no filter".
+     */
+    public FacetResult search(Collection<String> categories, Collection<String> priceBuckets, Boolean onSale) {
+        for (String bucket : priceBuckets) {
+            if (!PRICE_BUCKETS.contains(bucket)) {
+                throw new IllegalArgumentException("Unknown price bucket: " + bucket + ". Supported: " + PRICE_BUCKETS);
+            }
+        }
+        Snapshot s = snapshot;
+
+        BitSet categoryFilter = categories.isEmpty() ? null : s.union(categories.stream().map(s.categories::get).toList());
+        BitSet priceFilter = priceBuckets.isEmpty() ? null
+                : s.union(priceBuckets.stream().map(bucket -> s.prices[PRICE_BUCKETS.indexOf(bucket)]).toList());
+        BitSet saleFilter = null;
+        if (onSale != null) {
+            saleFilter = (BitSet) s.onSale.clone();
+            if (!onSale) {
+                saleFilter.xor(s.live);
+            }
+        }
+
+        Map<String, Integer> categoryCounts = new TreeMap<>();
+        BitSet base = s.intersect(priceFilter, saleFilter);
+        s.categories.forEach((category, bits) -> categoryCounts.put(category, andCardinality(base, bits)));
+
+        Map<String, Integer> priceCounts = new LinkedHashMap<>();
+        BitSet priceBase = s.intersect(categoryFilter, saleFilter);
+        for (int i = 0; i < PRICE_BUCKETS.size(); i++) {
+            priceCounts.put(PRICE_BUCKETS.get(i), andCardinality(priceBase, s.prices[i]));
+        }
+
+        Map<String, Integer> saleCounts = new LinkedHashMap<>();
+        BitSet saleBase = s.intersect(categoryFilter, priceFilter);
+        int onSaleCount = andCardinality(saleBase, s.onSale);
+        saleCounts.put("true", onSaleCount);
+        saleCounts.put("false", saleBase.cardinality() - onSaleCount);
+
+        BitSet matches = s.intersect(categoryFilter, priceFilter);
+        if (saleFilter != null) {
+            matches.and(saleFilter);
+        }
+        long[] ids = new long[matches.cardinality()];
+        int n = 0;
+        for (int bit = matches.nextSetBit(0); bit >= 0; bit = matches.nextSetBit(bit + 1)) {
+            ids[n++] = s.ids[bit];
+        }
+        Arrays.sort(ids);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("category", categoryCounts);
+        facets.put("price", priceCounts);
+        facets.put("onSale", saleCounts);
+        return new FacetResult(ids, facets);
+    }
+
+    private static int andCardinality(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result.cardinality();
+    }
+
+    static int priceBucket(BigDecimal price) {
+        if (price == null) {
+            return 0;
+        }
+        for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+            if (price.compareTo(PRICE_BOUNDS[i]) < 0) {
+                return i;
+            }
+        }
+        return PRICE_BOUNDS.length;
+    }
+
+    /** Matching item ids in ascending order, plus counts per facet value. */
+    public record FacetResult(long[] itemIds, Map<String, Map<String, Integer>> facets) {
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Long, Integer> positions;
+        private long[] ids;
+        private final BitSet live;
+        private final Map<String, BitSet> categories;
+        private final BitSet[] prices;
+        private final BitSet onSale;
+
+        Snapshot() {
+            this.positions = new HashMap<>();
+            this.ids = new long[64];
+            this.live = new BitSet();
+            this.categories = new HashMap<>();
+            this.prices = new BitSet[PRICE_BUCKETS.size()];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = new BitSet();
+            }
+            this.onSale = new BitSet();
+        }
+
+        private Snapshot(Snapshot other) {
+            this.positions = new HashMap<>(other.positions);
+            this.ids = other.ids.clone();
+            this.live = (BitSet) other.live.clone();
+            this.categories = new HashMap<>();
+            other.categories.forEach((category, bits) -> categories.put(category, (BitSet) bits.clone()));
+            this.prices = new BitSet[other.prices.length];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = (BitSet) other.prices[i].clone();
+            }
+            this.onSale = (BitSet) other.onSale.clone();
+        }
+
+        Snapshot copy() {
+            return new Snapshot(this);
+        }
+
+        void put(Item item) {
+            Integer existing = positions.get(item.getId());
+            int bit;
+            if (existing != null) {
+                bit = existing;
+                clear(bit);
+            } else {
+                bit = positions.size();
+                positions.put(item.getId(), bit);
+                if (bit == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[bit] = item.getId();
+            }
+
+            live.set(bit);
+            if (item.getCategory() != null) {
+                categories.computeIfAbsent(item.getCategory(), category -> new BitSet()).set(bit);
+            }
+            prices[priceBucket(item.getPrice())].set(bit);
+            if (item.isOnSale()) {
+                onSale.set(bit);
+            }
+        }
+
+        boolean contains(Long itemId) {
+            Integer bit = positions.get(itemId);
+            return bit != null && live.get(bit);
+        }
+
+        /** True if the item is live with exactly these facet values. */
+        boolean indexes(Item item) {
+            Integer bit = positions.get(item.getId());
+            if (bit == null || !live.get(bit) || onSale.get(bit) != item.isOnSale()
+                    || !prices[priceBucket(item.getPrice())].get(bit)) {
+                return false;
+            }
+            if (item.getCategory() == null) {
+                return categories.values().stream().noneMatch(bits -> bits.get(bit));
+            }
+            BitSet category = categories.get(item.getCategory());
+            return category != null && category.get(bit);
+        }
+
+        void remove(Long itemId) {
+            Integer bit = positions.get(itemId);
+            if (bit != null) {
+                // The position stays reserved for this id; the next rebuild compacts it away
+                clear(bit);
+            }
+        }
+
+        private void clear(int bit) {
+            live.clear(bit);
+            categories.values().removeIf(bits -> {
+                bits.clear(bit);
+                return bits.isEmpty();
+            });
+            for (BitSet bits : prices) {
+                bits.clear(bit);
+            }
+            onSale.clear(bit);
+        }
+
+        /** OR of the given sets; unknown values (null) match nothing. */
+        BitSet union(List<BitSet> sets) {
+            BitSet result = new BitSet();
+            for (BitSet bits : sets) {
+                if (bits != null) {
+                    result.or(bits);
+                }
+            }
+            return result;
+        }
+
+        /** Live items restricted by each non-null filter. */
+        BitSet intersect(BitSet first, BitSet second) {
+            BitSet result = (BitSet) live.clone();
+            if (first != null) {
+                result.and(first);
+            }
+            if (second != null) {
+                result.and(second);
+            }
+            return result;
+        }
+    }
+}
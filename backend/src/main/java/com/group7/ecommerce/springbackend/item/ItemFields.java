@@ -0,0 +1,85 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the {@code fields=} parameter of {@code GET /api/items} and builds the
+ * sparse rows it asks for. {@code fields=summary} selects the
+ * {@link ItemSummary} columns.
+ */
+final class ItemFields {
+
+    static final List<String> SUMMARY = List.of("id", "title", "price", "thumbnail", "category");
+
+    private static final List<String> SUPPORTED = List.of("id", "title", "description", "price", "quantityAvailable",
+            "imageUrl", "thumbnail", "category", "sku", "onSale", "discountedPrice");
+
+    private ItemFields() {
+    }
+
+    /**
+     * Returns the requested field names in request order, or null when the
+     * parameter is absent and the full item should be returned.
+     */
+    static List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        if (fields.trim().equalsIgnoreCase("summary")) {
+            return SUMMARY;
+        }
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!SUPPORTED.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + ". Supported fields: " + SUPPORTED);
+            }
+            if (!selected.contains(name)) {
+                selected.add(name);
+            }
+        }
+        return selected;
+    }
+
+    static boolean isSummaryOnly(List<String> fields) {
+        return SUMMARY.containsAll(fields);
+    }
+
+    static Map<String, Object> select(ItemSummary summary, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, switch (field) {
+                case "id" -> summary.id();
+                case "title" -> summary.title();
+                case "price" -> summary.price();
+                case "thumbnail" -> summary.thumbnail();
+                case "category" -> summary.category();
+                default -> throw new IllegalArgumentException("Not a summary field: " + field);
+            });
+        }
+        return row;
+    }
+
+    static Map<String, Object> select(Item item, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, switch (field) {
+                case "id" -> item.getId();
+                case "title" -> item.getTitle();
+                case "description" -> item.getDescription();
+                case "price" -> item.getPrice();
+                case "quantityAvailable" -> item.getQuantityAvailable();
+                case "imageUrl", "thumbnail" -> item.getImageUrl();
+                case "category" -> item.getCategory();
+                case "sku" -> item.getSku();
+                case "onSale" -> item.isOnSale();
+                case "discountedPrice" -> item.getDiscountedPrice();
+                default -> throw new IllegalArgumentException("Unknown field: " + field);
+            });
+        }
+        return row;
+    }
+}
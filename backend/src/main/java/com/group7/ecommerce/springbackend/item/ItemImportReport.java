@@ -0,0 +1,14 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk item import. {@code errors} lists failed rows up to a
+ * cap; {@code failed} is the full count.
+ */
+public record ItemImportReport(long rows, int inserted, int updated, int failed, List<RowError> errors) {
+
+    /** A rejected row, by the line it started on. */
+    public record RowError(long line, String sku, List<String> messages) {
+    }
+}
@@ -0,0 +1,332 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Imports items from a streamed CSV or NDJSON body, upserting by SKU. Rows
+ * are parsed and validated one at a time against the
+ * {@link ItemRequestDTOs.CreateItemRequest} rules and written in JDBC
+ * batches of {@code item.import.batch-size}, one transaction per batch:
+ * SKUs already in {@code items} are updated, the rest inserted. Sale flags
+ * are left alone on update, and stock counts of existing items go through
+ * the {@link StockLedger} as adjustments.
+ *
+ * <p>If a batch fails, its rows are retried one by one so only the bad
+ * rows are reported. The catalog caches are invalidated once, after the
+ * last batch. Imports run one at a time, so two imports never both insert
+ * the same new SKU.
+ */
+@Service
+public class ItemImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String EXISTING_SQL = "select id, sku from items where sku in (:skus)";
+    private static final String UPDATE_SQL = "update items set title = ?, description = ?, price = ?, "
+            + "image_url = ?, category = ?, version = version + 1 where sku = ?";
+    private static final String INSERT_SQL = "insert into items (title, description, price, quantity_available, "
+            + "image_url, category, sku, is_on_sale, version) values (?, ?, ?, ?, ?, ?, ?, false, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockLedger stockLedger;
+    private final int batchSize;
+
+    private final Counter rowsInserted;
+    private final Counter rowsUpdated;
+    private final Counter rowsFailed;
+
+    public ItemImportService(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+            TransactionTemplate transactionTemplate, Validator validator, ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher, StockLedger stockLedger, @Value("${item.import.batch-size:500}") int batchSize,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.stockLedger = stockLedger;
+        this.batchSize = batchSize;
+
+        this.rowsInserted = rowCounter(meterRegistry, "inserted");
+        this.rowsUpdated = rowCounter(meterRegistry, "updated");
+        this.rowsFailed = rowCounter(meterRegistry, "failed");
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("item.import.rows")
+                .description("Bulk import rows by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the whole body and returns what happened to each row.
+     *
+     * @throws IllegalArgumentException if a CSV header lacks a required column
+     */
+    public synchronized ItemImportReport importItems(InputStream body, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource source = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+        Import run = new Import();
+        try {
+            Row row;
+            while ((row = source.next()) != null) {
+                run.rows++;
+                List<String> problems = row.error() != null ? List.of(row.error()) : validate(row.request());
+                if (!problems.isEmpty()) {
+                    run.fail(row, problems);
+                    continue;
+                }
+                String sku = row.request().getSku().trim();
+                // A repeated SKU must land after its earlier row, so flush first
+                if (run.pending.containsKey(sku) || run.pending.size() >= batchSize) {
+                    flush(run);
+                }
+                run.pending.put(sku, row);
+            }
+            flush(run);
+        } finally {
+            if (run.inserted + run.updated > 0) {
+                eventPublisher.publishEvent(CatalogChangedEvent.allItems());
+            }
+        }
+        log.info("Imported {} item rows: {} inserted, {} updated, {} failed",
+                run.rows, run.inserted, run.updated, run.failed);
+        return new ItemImportReport(run.rows, run.inserted, run.updated, run.failed, run.errors);
+    }
+
+    private List<String> validate(ItemRequestDTOs.CreateItemRequest request) {
+        List<String> problems = new ArrayList<>();
+        for (ConstraintViolation<ItemRequestDTOs.CreateItemRequest> violation : validator.validate(request)) {
+            problems.add(violation.getMessage());
+        }
+        if (request.getSku() == null || request.getSku().isBlank()) {
+            problems.add("SKU is required for import");
+        }
+        problems.sort(null);
+        return problems;
+    }
+
+    private void flush(Import run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        List<Row> batch = new ArrayList<>(run.pending.values());
+        run.pending.clear();
+        try {
+            int[] written = transactionTemplate.execute(status -> write(batch));
+            run.inserted += written[0];
+            run.updated += written[1];
+            rowsInserted.increment(written[0]);
+            rowsUpdated.increment(written[1]);
+        } catch (DataAccessException e) {
+            log.warn("Import batch of {} rows failed, retrying row by row: {}", batch.size(),
+                    e.getMostSpecificCause().getMessage());
+            for (Row row : batch) {
+                try {
+                    int[] written = transactionTemplate.execute(status -> write(List.of(row)));
+                    run.inserted += written[0];
+                    run.updated += written[1];
+                    rowsInserted.increment(written[0]);
+                    rowsUpdated.increment(written[1]);
+                } catch (DataAccessException rowError) {
+                    run.fail(row, List.of(rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+    }
+
+    /** Upserts the rows and returns {inserted, updated}. */
+    private int[] write(List<Row> rows) {
+        List<String> skus = rows.stream().map(row -> row.request().getSku().trim()).toList();
+        Map<String, List<Long>> existing = new HashMap<>();
+        namedJdbcTemplate.query(EXISTING_SQL, Map.of("skus", skus), result -> {
+            existing.computeIfAbsent(result.getString("sku"), sku -> new ArrayList<>()).add(result.getLong("id"));
+        });
+        List<Row> updates = new ArrayList<>();
+        List<Row> inserts = new ArrayList<>();
+        for (Row row : rows) {
+            (existing.containsKey(row.request().getSku().trim()) ? updates : inserts).add(row);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (statement, row) -> bind(statement, row, false));
+            for (Row row : updates) {
+                for (Long id : existing.get(row.request().getSku().trim())) {
+                    stockLedger.setLevel(id, row.request().getQuantityAvailable(), "import");
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (statement, row) -> bind(statement, row, true));
+        }
+        return new int[] { inserts.size(), updates.size() };
+    }
+
+    /**
+     * Binds the columns shared by both statements, with the quantity after
+     * the price on insert; the SKU is last in each.
+     */
+    private void bind(PreparedStatement statement, Row row, boolean withQuantity) throws SQLException {
+        ItemRequestDTOs.CreateItemRequest request = row.request();
+        int index = 1;
+        statement.setString(index++, request.getTitle().trim());
+        statement.setString(index++, request.getDescription());
+        statement.setBigDecimal(index++, request.getPrice());
+        if (withQuantity) {
+            statement.setInt(index++, request.getQuantityAvailable());
+        }
+        if (request.getImageUrl() != null) {
+            statement.setString(index++, request.getImageUrl());
+        } else {
+            statement.setNull(index++, Types.VARCHAR);
+        }
+        statement.setString(index++, request.getCategory().trim());
+        statement.setString(index, request.getSku().trim());
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalize(header.get(i)), i);
+        }
+        for (String required : List.of("title", "price", "quantityavailable", "category", "sku")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column '" + required + "'");
+            }
+        }
+        return () -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            ItemRequestDTOs.CreateItemRequest request = new ItemRequestDTOs.CreateItemRequest();
+            request.setTitle(field(fields, columns, "title"));
+            request.setDescription(field(fields, columns, "description"));
+            request.setImageUrl(field(fields, columns, "imageurl"));
+            request.setCategory(field(fields, columns, "category"));
+            request.setSku(field(fields, columns, "sku"));
+            String price = field(fields, columns, "price");
+            String quantity = field(fields, columns, "quantityavailable");
+            try {
+                request.setPrice(price == null ? null : new BigDecimal(price.trim()));
+                request.setQuantityAvailable(quantity == null ? null : Integer.valueOf(quantity.trim()));
+            } catch (NumberFormatException e) {
+                return new Row(csv.recordLine(), request, "Price and quantity available must be numbers");
+            }
+            return new Row(csv.recordLine(), request, null);
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] line = { 0 };
+        return () -> {
+            String text;
+            do {
+                text = reader.readLine();
+                line[0]++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                ItemRequestDTOs.CreateItemRequest request =
+                        objectMapper.readValue(text, ItemRequestDTOs.CreateItemRequest.class);
+                if (request == null) {
+                    return new Row(line[0], new ItemRequestDTOs.CreateItemRequest(), "Row must be a JSON object");
+                }
+                return new Row(line[0], request, null);
+            } catch (JsonProcessingException e) {
+                return new Row(line[0], new ItemRequestDTOs.CreateItemRequest(),
+                        "Malformed JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    /** The field's value, or null when the column is absent or the field is empty. */
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+
+    private record Row(long line, ItemRequestDTOs.CreateItemRequest request, String error) {
+    }
+
+    /** Counters and the pending batch of one import. */
+    private final class Import {
+        final Map<String, Row> pending = new LinkedHashMap<>();
+        final List<ItemImportReport.RowError> errors = new ArrayList<>();
+        long rows;
+        int inserted;
+        int updated;
+        int failed;
+
+        void fail(Row row, List<String> messages) {
+            failed++;
+            rowsFailed.increment();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ItemImportReport.RowError(row.line(), row.request().getSku(), messages));
+            }
+        }
+    }
+}
@@ -1,12 +1,57 @@
 package com.group7.ecommerce.springbackend.item;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item> {
     Page<Item> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String title, String description, Pageable pageable);
-}
\ No newline at end of file
+
+    @Query("select new com.group7.ecommerce.springbackend.item.ItemSummary(i.id, i.title, i.price, i.imageUrl, i.category) "
+            + "from Item i")
+    Page<ItemSummary> findSummaries(Pageable pageable);
+
+    @Query(value = "select new com.group7.ecommerce.springbackend.item.ItemSummary(i.id, i.title, i.price, i.imageUrl, i.category) "
+            + "from Item i where upper(i.title) like upper(concat('%', :q, '%')) "
+            + "or upper(i.description) like upper(concat('%', :q, '%'))",
+            countQuery = "select count(i) from Item i where upper(i.title) like upper(concat('%', :q, '%')) "
+                    + "or upper(i.description) like upper(concat('%', :q, '%'))")
+    Page<ItemSummary> searchSummaries(@Param("q") String q, Pageable pageable);
+
+    List<Item> findBySkuIn(Collection<String> skus);
+
+    @Query("select new com.group7.ecommerce.springbackend.item.ItemSummary(i.id, i.title, i.price, i.imageUrl, i.category) "
+            + "from Item i where i.id in :ids order by i.id")
+    List<ItemSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Bulk repricing; every statement bumps the version so stale entity saves fail
+    @Modifying
+    @Query("update Item i set i.price = round(i.price * :factor, 2), "
+            + "i.discountedPrice = round(i.discountedPrice * :factor, 2), i.version = i.version + 1 "
+            + "where i.category = :category")
+    int multiplyPriceByCategory(@Param("category") String category, @Param("factor") BigDecimal factor);
+
+    @Modifying
+    @Query("update Item i set i.price = round(i.price * :factor, 2), "
+            + "i.discountedPrice = round(i.discountedPrice * :factor, 2), i.version = i.version + 1 "
+            + "where i.id in :ids")
+    int multiplyPriceByIdIn(@Param("ids") Collection<Long> ids, @Param("factor") BigDecimal factor);
+
+    @Modifying
+    @Query("update Item i set i.price = :price, i.version = i.version + 1 where i.category = :category")
+    int setPriceByCategory(@Param("category") String category, @Param("price") BigDecimal price);
+
+    @Modifying
+    @Query("update Item i set i.price = :price, i.version = i.version + 1 where i.id in :ids")
+    int setPriceByIdIn(@Param("ids") Collection<Long> ids, @Param("price") BigDecimal price);
+}
@@ -1,10 +1,14 @@
 package com.group7.ecommerce.springbackend.item;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
@@ -177,9 +181,128 @@ public class ItemRequestDTOs {
             this.sku = sku;
         }
     }
-}
 
+    /**
+     * Reprices a category or a list of items: either multiplies prices
+     * (and sale prices) by {@code factor} or sets them to {@code price}.
+     */
+    public static class BulkPriceRequest {
+        @Size(max = 50, message = "Category must not exceed 50 characters")
+        private String category;
+
+        @Size(max = 1000, message = "At most 1000 item ids per request")
+        private List<Long> itemIds;
+
+        @DecimalMin(value = "0.01", message = "Factor must be at least 0.01")
+        @DecimalMax(value = "100", message = "Factor must not exceed 100")
+        private BigDecimal factor;
+
+        @DecimalMin(value = "0.00", message = "Price must be greater than or equal to 0.00")
+        private BigDecimal price;
+
+        public BulkPriceRequest() {
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public List<Long> getItemIds() {
+            return itemIds;
+        }
+
+        public void setItemIds(List<Long> itemIds) {
+            this.itemIds = itemIds;
+        }
+
+        public BigDecimal getFactor() {
+            return factor;
+        }
 
+        public void setFactor(BigDecimal factor) {
+            this.factor = factor;
+        }
 
+        public BigDecimal getPrice() {
+            return price;
+        }
 
+        public void setPrice(BigDecimal price) {
+            this.price = price;
+        }
+    }
 
+    /** Stock changes applied together or not at all. */
+    public static class BulkStockRequest {
+        @NotEmpty(message = "At least one adjustment is required")
+        @Size(max = 1000, message = "At most 1000 adjustments per request")
+        private List<@Valid StockAdjustment> adjustments;
+
+        public BulkStockRequest() {
+        }
+
+        public List<StockAdjustment> getAdjustments() {
+            return adjustments;
+        }
+
+        public void setAdjustments(List<StockAdjustment> adjustments) {
+            this.adjustments = adjustments;
+        }
+    }
+
+    /**
+     * Either adds {@code delta} units or, for a stock count, sets the level
+     * to {@code quantity}. A count must carry the on-hand quantity the system
+     * showed when it was taken, as {@code expectedQuantity}.
+     */
+    public static class StockAdjustment {
+        @NotNull(message = "Item id is required")
+        private Long itemId;
+
+        private Integer delta;
+
+        @Min(value = 0, message = "Quantity must be greater than or equal to 0")
+        private Integer quantity;
+
+        private Integer expectedQuantity;
+
+        public StockAdjustment() {
+        }
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public void setItemId(Long itemId) {
+            this.itemId = itemId;
+        }
+
+        public Integer getDelta() {
+            return delta;
+        }
+
+        public void setDelta(Integer delta) {
+            this.delta = delta;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public Integer getExpectedQuantity() {
+            return expectedQuantity;
+        }
+
+        public void setExpectedQuantity(Integer expectedQuantity) {
+            this.expectedQuantity = expectedQuantity;
+        }
+    }
+}
@@ -11,6 +11,7 @@ public class ItemResponseDTO {
     private String imageUrl;
     private String category;
     private String sku;
+    private Long version;
 
     public ItemResponseDTO() {
     }
@@ -24,6 +25,7 @@ public class ItemResponseDTO {
         this.imageUrl = item.getImageUrl();
         this.category = item.getCategory();
         this.sku = item.getSku();
+        this.version = item.getVersion();
     }
 
     // Getters and setters
@@ -90,9 +92,12 @@ public class ItemResponseDTO {
     public void setSku(String sku) {
         this.sku = sku;
     }
-}
-
-
-
 
+    public Long getVersion() {
+        return version;
+    }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -4,23 +4,55 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+import com.group7.ecommerce.springbackend.common.SingleFlight;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
 import com.group7.ecommerce.springbackend.sales.SalesItemRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class ItemService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemService.class);
+
     private final ItemRepository repo;
     private final SalesItemRepository salesItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ItemFacetIndex facetIndex;
+    private final ItemSuggestIndex suggestIndex;
+    private final ItemCoOccurrenceIndex coOccurrenceIndex;
+    private final ItemCache itemCache;
+    private final StockLedger stockLedger;
+    private final SingleFlight<Long, Optional<Item>> itemLoads;
 
-    public ItemService(ItemRepository repo, SalesItemRepository salesItemRepository) {
+    public ItemService(ItemRepository repo, SalesItemRepository salesItemRepository,
+            ApplicationEventPublisher eventPublisher, ItemFacetIndex facetIndex, ItemSuggestIndex suggestIndex,
+            ItemCoOccurrenceIndex coOccurrenceIndex, ItemCache itemCache, StockLedger stockLedger,
+            MeterRegistry meterRegistry) {
         this.repo = repo;
         this.salesItemRepository = salesItemRepository;
+        this.eventPublisher = eventPublisher;
+        this.facetIndex = facetIndex;
+        this.suggestIndex = suggestIndex;
+        this.coOccurrenceIndex = coOccurrenceIndex;
+        this.itemCache = itemCache;
+        this.stockLedger = stockLedger;
+        this.itemLoads = new SingleFlight<>("item", meterRegistry);
     }
 
     public Page<Item> getAll(String q, Pageable pageable) {
@@ -29,12 +61,60 @@ public class ItemService {
         return repo.findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(q, q, pageable);
     }
 
+    public Page<ItemSummary> getSummaries(String q, Pageable pageable) {
+        if (q == null || q.isBlank())
+            return repo.findSummaries(pageable);
+        return repo.searchSummaries(q, pageable);
+    }
+
+    public List<Item> getAllById(List<Long> ids) {
+        return itemCache.getAllById(ids);
+    }
+
+    public List<Item> getAllBySku(List<String> skus) {
+        return itemCache.getAllBySku(skus);
+    }
+
+    public List<ItemSuggestion> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    /** Items most often ordered together with the given one; deleted items are skipped. */
+    public List<Item> related(Long id, int limit) {
+        return itemCache.getAllById(coOccurrenceIndex.related(id, limit));
+    }
+
+    /**
+     * Filters by facets using the in-memory index and loads one page of the
+     * matching items, ordered by id.
+     */
+    public FacetSearchResponse facetSearch(List<String> categories, List<String> priceBuckets, Boolean onSale,
+            int pageNumber, int pageSize) {
+        ItemFacetIndex.FacetResult result = facetIndex.search(categories, priceBuckets, onSale);
+        long[] ids = result.itemIds();
+        int from = (int) Math.min((long) pageNumber * pageSize, ids.length);
+        int to = Math.min(from + pageSize, ids.length);
+
+        List<ItemSummary> items = from == to
+                ? List.of()
+                : repo.findSummariesByIdIn(Arrays.stream(ids, from, to).boxed().toList());
+        return new FacetSearchResponse(ids.length, items, result.facets());
+    }
+
     public Item add(Item item) {
-        return repo.save(item);
+        Item saved = repo.save(item);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(saved.getId()));
+        return saved;
     }
 
+    /**
+     * Concurrent lookups of the same id share one query. Each caller gets its
+     * own detached copy, so use {@code repo.findById} when the entity is to be
+     * modified.
+     */
     public Item getById(Long id) {
-        return repo.findById(id)
+        return itemLoads.load(id, () -> repo.findById(id))
+                .map(ItemCache::copy)
                 .orElseThrow(() -> new NoSuchElementException("Item " + id + " not found"));
     }
 
@@ -71,16 +151,24 @@ public class ItemService {
                 }
             } catch (IOException e) {
                 // Log the error but don't fail the deletion if file deletion fails
-                System.err.println("Failed to delete image file for item " + id + ": " + e.getMessage());
+                log.warn("Failed to delete image file for item {}: {}", id, e.getMessage());
             }
         }
         
         // Delete all related sales items first to avoid foreign key constraint violation
         salesItemRepository.deleteByItemId(id);
         repo.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(id));
     }
 
-    public Item replace(Long id, Item body) {
+    /**
+     * Replaces the item's fields. Its stock is set like {@link #editStock},
+     * against {@code expectedQuantity}.
+     *
+     * @throws IllegalStateException if stock changed since the editor read it
+     */
+    @Transactional
+    public Item replace(Long id, Item body, Integer expectedQuantity) {
         Item existing = repo.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Item " + id + " not found"));
 
@@ -88,32 +176,66 @@ public class ItemService {
         existing.setTitle(body.getTitle());
         existing.setDescription(body.getDescription());
         existing.setPrice(body.getPrice());
-        existing.setQuantityAvailable(body.getQuantityAvailable());
+        editStock(id, body.getQuantityAvailable(), expectedQuantity, "admin");
         existing.setImageUrl(body.getImageUrl());
         existing.setCategory(body.getCategory());
         if (body.getSku() != null)
             existing.setSku(body.getSku());
 
-        return repo.save(existing);
+        Item saved = repo.save(existing);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(id));
+        return saved;
     }
 
-    public Item update(Long id, Item updates) {
-        Item existing = getById(id);
+    /**
+     * Sets the non-null fields, and the stock if {@code quantityAvailable} is
+     * given, like {@link #editStock}.
+     *
+     * @throws IllegalStateException if stock changed since the editor read it
+     */
+    @Transactional
+    public Item update(Long id, Item updates, Integer quantityAvailable, Integer expectedQuantity) {
+        Item existing = repo.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Item " + id + " not found"));
         if (updates.getTitle() != null)
             existing.setTitle(updates.getTitle());
         if (updates.getDescription() != null)
             existing.setDescription(updates.getDescription());
         if (updates.getPrice() != null)
             existing.setPrice(updates.getPrice());
-        if (updates.getQuantityAvailable() != 0)
-            existing.setQuantityAvailable(updates.getQuantityAvailable());
+        if (quantityAvailable != null)
+            editStock(id, quantityAvailable, expectedQuantity, "admin");
         if (updates.getImageUrl() != null)
             existing.setImageUrl(updates.getImageUrl());
         if (updates.getCategory() != null)
             existing.setCategory(updates.getCategory());
         if (updates.getSku() != null)
             existing.setSku(updates.getSku());
-        return repo.save(existing);
+        Item saved = repo.save(existing);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(id));
+        return saved;
     }
 
+    /**
+     * Sets the item's stock from an edit form, in the caller's transaction.
+     * {@code expectedQuantity} is the on-hand quantity the editor read;
+     * without it the form's quantity is taken to be what the editor read, so
+     * an edit that leaves stock alone still fails if units sold meanwhile
+     * rather than putting them back. Stock movements do not bump the item's
+     * version, so this is the only check that catches them.
+     *
+     * @throws IllegalStateException if stock changed since the editor read it
+     */
+    @Transactional
+    public void editStock(Long id, int quantity, Integer expectedQuantity, String reference) {
+        int expected = expectedQuantity != null ? expectedQuantity : quantity;
+        if (quantity == expected && stockLedger.onHand(id) == quantity) {
+            return;
+        }
+        try {
+            stockLedger.setLevel(id, quantity, expected, reference);
+        } catch (OptimisticLockingFailureException e) {
+            throw new IllegalStateException("Stock of item " + id + " changed since it was read; reload and retry");
+        }
+    }
 }
@@ -0,0 +1,212 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+import com.group7.ecommerce.springbackend.order.OrderItemRepository;
+import com.group7.ecommerce.springbackend.order.OrderPlacedEvent;
+import com.group7.ecommerce.springbackend.outbox.OutboxHandler;
+
+/**
+ * Prefix autocomplete over item titles, categories and SKUs. Terms are
+ * normalized (lower case, accents and punctuation stripped) and kept in a
+ * sorted array, so a lookup is a binary search followed by a short scan.
+ * Matches are ranked by units ordered.
+ *
+ * <p>The term array is an immutable snapshot, rebuilt only when an item's
+ * title, category or SKU actually changes. Popularity is a separate
+ * concurrent map bumped on every order, so checkout never triggers a rebuild.
+ */
+@Component
+public class ItemSuggestIndex implements OutboxHandler<OrderPlacedEvent> {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_CANDIDATES = 500;
+
+    private final ItemRepository itemRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Long> popularity = new ConcurrentHashMap<>();
+    private volatile Terms terms = Terms.EMPTY;
+
+    public ItemSuggestIndex(ItemRepository itemRepository, OrderItemRepository orderItemRepository) {
+        this.itemRepository = itemRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        entries.clear();
+        for (Item item : itemRepository.findAll()) {
+            entries.put(item.getId(), Entry.of(item));
+        }
+        popularity.clear();
+        for (Object[] row : orderItemRepository.sumQuantityByItem()) {
+            popularity.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        terms = Terms.build(entries.values());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.stockOnly()) {
+            return;
+        }
+        if (event.isAllItems()) {
+            rebuild();
+        } else {
+            update(event.itemIds());
+        }
+    }
+
+    @Override
+    public String eventType() {
+        return OrderPlacedEvent.TYPE;
+    }
+
+    @Override
+    public Class<OrderPlacedEvent> payloadType() {
+        return OrderPlacedEvent.class;
+    }
+
+    /** Ranking only, so an occasional redelivery counted twice is harmless. */
+    @Override
+    public void handle(OrderPlacedEvent event) {
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            popularity.merge(line.itemId(), (long) line.quantity(), Long::sum);
+        }
+    }
+
+    private synchronized void update(Collection<Long> itemIds) {
+        boolean changed = false;
+        Set<Long> missing = new HashSet<>(itemIds);
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            missing.remove(item.getId());
+            Entry entry = Entry.of(item);
+            if (!entry.equals(entries.get(item.getId()))) {
+                entries.put(item.getId(), entry);
+                changed = true;
+            }
+        }
+        for (Long id : missing) {
+            changed |= entries.remove(id) != null;
+        }
+        if (changed) {
+            terms = Terms.build(entries.values());
+        }
+    }
+
+    /**
+     * Items with a title word, category or SKU starting with {@code prefix},
+     * most ordered first.
+     */
+    public List<ItemSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Terms snapshot = terms;
+        Set<Entry> candidates = new LinkedHashSet<>();
+        for (int i = snapshot.firstAtOrAfter(normalized); i < snapshot.keys.length
+                && snapshot.keys[i].startsWith(normalized) && candidates.size() < MAX_CANDIDATES; i++) {
+            candidates.addAll(Arrays.asList(snapshot.postings[i]));
+        }
+
+        return candidates.stream()
+                .sorted(Comparator.comparingLong((Entry entry) -> popularity.getOrDefault(entry.id(), 0L))
+                        .reversed()
+                        .thenComparing(Entry::title, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .limit(limit)
+                .map(entry -> new ItemSuggestion(entry.id(), entry.title(), entry.category(), entry.sku()))
+                .toList();
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = MARKS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    /** What the index knows about one item; equal entries need no reindexing. */
+    private record Entry(Long id, String title, String category, String sku) {
+
+        static Entry of(Item item) {
+            return new Entry(item.getId(), item.getTitle(), item.getCategory(), item.getSku());
+        }
+
+        /** The full normalized title, category and SKU, plus each of their words. */
+        List<String> terms() {
+            List<String> result = new ArrayList<>();
+            for (String field : new String[] { title, category, sku }) {
+                String normalized = normalize(field);
+                if (normalized.isEmpty()) {
+                    continue;
+                }
+                result.add(normalized);
+                for (String word : normalized.split(" ")) {
+                    result.add(word);
+                }
+            }
+            return result;
+        }
+    }
+
+    /** Sorted term keys with the entries for each key at the same index. */
+    private static final class Terms {
+
+        static final Terms EMPTY = new Terms(new String[0], new Entry[0][]);
+
+        final String[] keys;
+        final Entry[][] postings;
+
+        private Terms(String[] keys, Entry[][] postings) {
+            this.keys = keys;
+            this.postings = postings;
+        }
+
+        static Terms build(Collection<Entry> entries) {
+            Map<String, Set<Entry>> byTerm = new TreeMap<>();
+            for (Entry entry : entries) {
+                for (String term : entry.terms()) {
+                    byTerm.computeIfAbsent(term, key -> new LinkedHashSet<>()).add(entry);
+                }
+            }
+            String[] keys = new String[byTerm.size()];
+            Entry[][] postings = new Entry[byTerm.size()][];
+            int i = 0;
+            for (Map.Entry<String, Set<Entry>> term : byTerm.entrySet()) {
+                keys[i] = term.getKey();
+                postings[i++] = term.getValue().toArray(new Entry[0]);
+            }
+            return new Terms(keys, postings);
+        }
+
+        int firstAtOrAfter(String prefix) {
+            int index = Arrays.binarySearch(keys, prefix);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
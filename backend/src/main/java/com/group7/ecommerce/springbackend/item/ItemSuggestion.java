@@ -0,0 +1,7 @@
+package com.group7.ecommerce.springbackend.item;
+
+/**
+ * One autocomplete result from {@code GET /api/items/suggest}.
+ */
+public record ItemSuggestion(Long id, String title, String category, String sku) {
+}
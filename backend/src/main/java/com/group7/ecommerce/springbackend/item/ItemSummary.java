@@ -0,0 +1,10 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.math.BigDecimal;
+
+/**
+ * Lean row for catalog grids, loaded with a JPQL constructor projection so the
+ * description text is never read. {@code thumbnail} is the item's image URL.
+ */
+public record ItemSummary(Long id, String title, BigDecimal price, String thumbnail, String category) {
+}
@@ -0,0 +1,419 @@
+package com.group7.ecommerce.springbackend.item;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
+import com.group7.ecommerce.springbackend.sales.SalesItemRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes stock and price changes of single items to Server-Sent Events
+ * subscribers, so item pages do not have to poll.
+ *
+ * <p>One dispatcher thread decides what to send. Every
+ * {@code item.stream.coalesce-interval} it compares each subscribed item's
+ * state with what its subscribers last saw and queues one {@code update}
+ * event with the fields that differ, however many changes happened in
+ * between. Stock is read from the {@link StockLedger} on every tick; price
+ * and sale fields are reloaded only for items named by a
+ * {@link CatalogChangedEvent} since the last tick, or whose sale starts or
+ * ends. A new subscriber gets a {@code snapshot} event with every field
+ * first, and a deleted item ends its streams with a {@code deleted} event.
+ *
+ * <p>The writes happen on {@code item.stream.send-threads} sender threads,
+ * one subscriber at a time each. A subscriber with
+ * {@code item.stream.max-queued-events} events still unsent is too slow to
+ * keep up and its stream is closed; the browser reconnects and starts over
+ * from a snapshot.
+ */
+@Component
+public class ItemUpdateStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemUpdateStream.class);
+
+    private final ItemCache itemCache;
+    private final StockLedger stockLedger;
+    private final SalesItemRepository salesItemRepository;
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private final int maxSubscribers;
+    private final int maxQueuedEvents;
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService senders;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private volatile boolean allChanged;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private long lastHeartbeat = System.currentTimeMillis();
+    /** Next sale start or end per item, when its prices must be reloaded. Dispatcher only. */
+    private final Map<Long, OffsetDateTime> saleBoundaries = new HashMap<>();
+
+    private final Counter snapshots;
+    private final Counter updates;
+    private final Counter dropped;
+
+    public ItemUpdateStream(ItemCache itemCache, StockLedger stockLedger, SalesItemRepository salesItemRepository,
+            @Value("${item.stream.coalesce-interval:250ms}") Duration coalesceInterval,
+            @Value("${item.stream.timeout:30m}") Duration timeout,
+            @Value("${item.stream.heartbeat:15s}") Duration heartbeat,
+            @Value("${item.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${item.stream.send-threads:4}") int sendThreads,
+            @Value("${item.stream.max-queued-events:32}") int maxQueuedEvents,
+            MeterRegistry meterRegistry) {
+        this.itemCache = itemCache;
+        this.stockLedger = stockLedger;
+        this.salesItemRepository = salesItemRepository;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatMillis = heartbeat.toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.maxQueuedEvents = maxQueuedEvents;
+
+        this.snapshots = eventCounter(meterRegistry, "snapshot");
+        this.updates = eventCounter(meterRegistry, "update");
+        this.dropped = Counter.builder("item.stream.dropped")
+                .description("Item update streams closed because the client fell behind")
+                .register(meterRegistry);
+        Gauge.builder("item.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open item update streams")
+                .register(meterRegistry);
+
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "item-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(sendThreads, task -> {
+            Thread thread = new Thread(task, "item-stream-send-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = coalesceInterval.toMillis();
+        dispatcher.scheduleWithFixedDelay(this::dispatch, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("item.stream.events")
+                .description("Item update events sent to subscribers")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the item; its snapshot follows on the next tick.
+     *
+     * @throws NoSuchElementException if there is no such item
+     * @throws IllegalStateException if {@code item.stream.max-subscribers} streams are open
+     */
+    public SseEmitter subscribe(Long itemId) {
+        if (itemCache.getAllById(List.of(itemId)).isEmpty()) {
+            throw new NoSuchElementException("Item " + itemId + " not found");
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Too many open item streams");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(itemId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+        channels.compute(itemId, (id, channel) -> {
+            Channel joined = channel != null ? channel : new Channel();
+            joined.joining.add(subscriber);
+            return joined;
+        });
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.stockOnly()) {
+            // Stock is read from the ledger on every tick anyway
+            return;
+        }
+        if (event.isAllItems()) {
+            allChanged = true;
+        } else {
+            changed.addAll(event.itemIds());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        channels.values().forEach(channel -> {
+            channel.emitters.forEach(subscriber -> subscriber.emitter.complete());
+            channel.joining.forEach(subscriber -> subscriber.emitter.complete());
+        });
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Channel channel = channels.get(subscriber.itemId);
+        if (channel != null && (channel.emitters.remove(subscriber) || channel.joining.remove(subscriber))) {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    private void dispatch() {
+        try {
+            Set<Long> stale = new HashSet<>();
+            if (allChanged) {
+                allChanged = false;
+                stale.addAll(channels.keySet());
+            }
+            for (Long itemId : changed) {
+                changed.remove(itemId);
+                stale.add(itemId);
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            saleBoundaries.forEach((itemId, boundary) -> {
+                if (!now.isBefore(boundary)) {
+                    stale.add(itemId);
+                }
+            });
+
+            Set<Long> toLoad = new HashSet<>();
+            channels.forEach((itemId, channel) -> {
+                if (channel.last == null || stale.contains(itemId)) {
+                    toLoad.add(itemId);
+                }
+            });
+            Map<Long, Prices> prices = loadPrices(toLoad);
+
+            boolean heartbeat = System.currentTimeMillis() - lastHeartbeat >= heartbeatMillis;
+            for (Map.Entry<Long, Channel> entry : channels.entrySet()) {
+                Long itemId = entry.getKey();
+                Channel channel = entry.getValue();
+                if (toLoad.contains(itemId)) {
+                    push(itemId, channel, prices.get(itemId), heartbeat);
+                } else if (channel.last != null) {
+                    push(itemId, channel, channel.last.prices(), heartbeat);
+                }
+                // else subscribed after the load; picked up next tick
+            }
+            if (heartbeat) {
+                lastHeartbeat = System.currentTimeMillis();
+            }
+            channels.keySet().forEach(itemId -> channels.computeIfPresent(itemId,
+                    (id, channel) -> channel.emitters.isEmpty() && channel.joining.isEmpty() ? null : channel));
+            saleBoundaries.keySet().retainAll(channels.keySet());
+        } catch (RuntimeException e) {
+            // Keep the dispatcher alive; the next tick tries again
+            log.warn("Item update dispatch failed", e);
+        }
+    }
+
+    /** Sends the item's changes since the last tick; {@code prices} is null if it was deleted. */
+    private void push(Long itemId, Channel channel, Prices prices, boolean heartbeat) {
+        Snapshot next;
+        try {
+            if (prices == null) {
+                throw new NoSuchElementException();
+            }
+            next = new Snapshot(stockLedger.onHand(itemId), prices);
+        } catch (NoSuchElementException e) {
+            Map<String, Object> deleted = Map.of("itemId", itemId);
+            channel.emitters.forEach(subscriber -> enqueue(subscriber, new Outgoing("deleted", deleted, true)));
+            channel.joining.forEach(subscriber -> enqueue(subscriber, new Outgoing("deleted", deleted, true)));
+            return;
+        }
+
+        Map<String, Object> delta = channel.last == null ? null : next.diff(itemId, channel.last);
+        if (delta != null && delta.size() > 1) {
+            channel.emitters.forEach(subscriber -> enqueue(subscriber, new Outgoing("update", delta, false)));
+            updates.increment(channel.emitters.size());
+        } else if (heartbeat) {
+            channel.emitters.forEach(subscriber -> enqueue(subscriber, Outgoing.HEARTBEAT));
+        }
+        channel.last = next;
+
+        Subscriber joined;
+        while ((joined = channel.joining.poll()) != null) {
+            channel.emitters.add(joined);
+            enqueue(joined, new Outgoing("snapshot", next.diff(itemId, null), false));
+            snapshots.increment();
+        }
+    }
+
+    /** Queues the event for the subscriber's sender, or closes a subscriber that has fallen behind. */
+    private void enqueue(Subscriber subscriber, Outgoing event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (subscriber.queued.incrementAndGet() > maxQueuedEvents) {
+            // Completed by its sender, which may still be stuck writing to it
+            subscriber.closed = true;
+            unsubscribe(subscriber);
+            dropped.increment();
+        } else {
+            subscriber.events.add(event);
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /** Writes the subscriber's queued events; runs on one sender thread at a time per subscriber. */
+    private void drain(Subscriber subscriber) {
+        do {
+            Outgoing event;
+            while ((event = subscriber.events.poll()) != null) {
+                subscriber.queued.decrementAndGet();
+                if (!subscriber.closed) {
+                    send(subscriber, event);
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.events.clear();
+                subscriber.emitter.complete();
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.events.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void send(Subscriber subscriber, Outgoing event) {
+        try {
+            if (event.name() == null) {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } else {
+                subscriber.emitter.send(SseEmitter.event().name(event.name())
+                        .data(event.data(), MediaType.APPLICATION_JSON));
+            }
+            if (event.last()) {
+                subscriber.closed = true;
+                unsubscribe(subscriber);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; drain completes the emitter
+            subscriber.closed = true;
+            unsubscribe(subscriber);
+        }
+    }
+
+    /** Current prices of the items that still exist. */
+    private Map<Long, Prices> loadPrices(Set<Long> itemIds) {
+        Map<Long, Prices> prices = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return prices;
+        }
+        Map<Long, BigDecimal> salePrices = new HashMap<>();
+        OffsetDateTime now = OffsetDateTime.now();
+        saleBoundaries.keySet().removeAll(itemIds);
+        for (Object[] row : salesItemRepository.findActiveSalesByItemIdIn(itemIds)) {
+            Long itemId = (Long) row[0];
+            OffsetDateTime start = (OffsetDateTime) row[2];
+            OffsetDateTime end = (OffsetDateTime) row[3];
+            if ((start == null || !start.isAfter(now)) && (end == null || !end.isBefore(now))) {
+                salePrices.put(itemId, (BigDecimal) row[1]);
+            }
+            // A sale is on from its start through its end, so it is off just after the end
+            OffsetDateTime boundary = start != null && start.isAfter(now) ? start
+                    : end != null && !end.isBefore(now) ? end.plusNanos(1000) : null;
+            if (boundary != null) {
+                saleBoundaries.merge(itemId, boundary, (a, b) -> a.isBefore(b) ? a : b);
+            }
+        }
+        for (Item item : itemCache.getAllById(itemIds)) {
+            prices.put(item.getId(), new Prices(item.getPrice(), item.isOnSale(), item.getDiscountedPrice(),
+                    salePrices.get(item.getId())));
+        }
+        return prices;
+    }
+
+    /** Subscribers of one item. Only the dispatcher adds to {@code emitters} or reads {@code last}. */
+    private static final class Channel {
+        final Set<Subscriber> emitters = ConcurrentHashMap.newKeySet();
+        final Queue<Subscriber> joining = new ConcurrentLinkedQueue<>();
+        Snapshot last;
+    }
+
+    /** One stream and the events queued for it; {@code draining} while a sender owns it. */
+    private static final class Subscriber {
+        final Long itemId;
+        final SseEmitter emitter;
+        final Queue<Outgoing> events = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(Long itemId, SseEmitter emitter) {
+            this.itemId = itemId;
+            this.emitter = emitter;
+        }
+    }
+
+    /** An event to send; a null {@code name} is a keep-alive comment. {@code last} ends the stream. */
+    private record Outgoing(String name, Map<String, Object> data, boolean last) {
+
+        static final Outgoing HEARTBEAT = new Outgoing(null, null, false);
+    }
+
+    private record Prices(BigDecimal price, boolean onSale, BigDecimal discountedPrice, BigDecimal salePrice) {
+    }
+
+    private record Snapshot(int quantityAvailable, Prices prices) {
+
+        /** The fields that differ from {@code previous}, or all of them if there is none. */
+        Map<String, Object> diff(Long itemId, Snapshot previous) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("itemId", itemId);
+            if (previous == null || quantityAvailable != previous.quantityAvailable) {
+                fields.put("quantityAvailable", quantityAvailable);
+            }
+            Prices before = previous == null ? null : previous.prices;
+            if (before == null || !sameAmount(prices.price, before.price)) {
+                fields.put("price", prices.price);
+            }
+            if (before == null || prices.onSale != before.onSale) {
+                fields.put("onSale", prices.onSale);
+            }
+            if (before == null || !sameAmount(prices.discountedPrice, before.discountedPrice)) {
+                fields.put("discountedPrice", prices.discountedPrice);
+            }
+            if (before == null || !sameAmount(prices.salePrice, before.salePrice)) {
+                fields.put("salePrice", prices.salePrice);
+            }
+            return fields;
+        }
+
+        private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+            return Objects.equals(a, b) || (a != null && b != null && a.compareTo(b) == 0);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.group7.ecommerce.springbackend.order;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.group7.ecommerce.springbackend.cart.CartDto;
+import com.group7.ecommerce.springbackend.cart.CartService;
+import com.group7.ecommerce.springbackend.common.ConflictRetryExecutor;
+import com.group7.ecommerce.springbackend.inventory.ReservationLedger;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
+import com.group7.ecommerce.springbackend.user.User;
+import com.group7.ecommerce.springbackend.user.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Admission queue for checkouts. Each worker drains its shard in batches and
+ * places the whole batch in one transaction (see
+ * {@link OrderService#placeOrders}). A full shard rejects new checkouts with
+ * {@link CheckoutQueueFullException} rather than letting them pile up on the
+ * connection pool.
+ *
+ * <p>Carts are sharded by their most held item, the one with the most units
+ * reserved across all carts, so checkouts competing for the same hot item
+ * line up behind one worker instead of contending for its lock. Only that
+ * item is serialized: carts whose hottest items differ can still share other
+ * items from different shards, where the {@link StockLedger} arbitrates as
+ * usual and sharding merely spreads the load.
+ *
+ * <p>The worker reads the user and cart itself. The request thread only runs
+ * one plain JDBC query to pick the shard: with open-in-view, any JPA access
+ * would pin a pooled connection to the request for as long as it waits on
+ * its ticket, and waiting requests would starve the workers.
+ */
+@Component
+public class CheckoutQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutQueue.class);
+
+    private static final String CART_ITEMS_SQL = "SELECT ci.item_id FROM cart_items ci "
+            + "JOIN carts c ON c.id = ci.cart_id WHERE c.user_id = ?";
+
+    private final OrderService orderService;
+    private final CartService cartService;
+    private final UserRepository userRepository;
+    private final ReservationLedger reservationLedger;
+    private final ConflictRetryExecutor conflictRetry;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<BlockingQueue<CheckoutTicket>> shards;
+    private final List<Thread> workers;
+    private final Map<String, CheckoutTicket> tickets = new ConcurrentHashMap<>();
+    /** Each user's ticket that is queued or being placed. */
+    private final Map<Long, CheckoutTicket> queuedByUser = new ConcurrentHashMap<>();
+    private final Queue<CheckoutTicket> completed = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+    private final Duration retryAfter;
+    private final Duration ticketRetention;
+    private volatile boolean running = true;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final DistributionSummary batchSizes;
+
+    public CheckoutQueue(OrderService orderService, CartService cartService, UserRepository userRepository,
+            ReservationLedger reservationLedger, ConflictRetryExecutor conflictRetry, JdbcTemplate jdbcTemplate,
+            @Value("${checkout.queue.shards:4}") int shardCount,
+            @Value("${checkout.queue.capacity:200}") int capacity,
+            @Value("${checkout.queue.batch-size:20}") int batchSize,
+            @Value("${checkout.queue.retry-after:2s}") Duration retryAfter,
+            @Value("${checkout.queue.ticket-retention:10m}") Duration ticketRetention,
+            MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.cartService = cartService;
+        this.userRepository = userRepository;
+        this.reservationLedger = reservationLedger;
+        this.conflictRetry = conflictRetry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.retryAfter = retryAfter;
+        this.ticketRetention = ticketRetention;
+
+        this.accepted = Counter.builder("checkout.queue.admissions")
+                .description("Checkouts by whether they were queued or turned away")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("checkout.queue.admissions")
+                .description("Checkouts by whether they were queued or turned away")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("checkout.queue.batch.size")
+                .description("Orders placed per checkout transaction")
+                .register(meterRegistry);
+
+        this.shards = new ArrayList<>(shardCount);
+        this.workers = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<CheckoutTicket> shard = new ArrayBlockingQueue<>(capacity);
+            shards.add(shard);
+            Gauge.builder("checkout.queue.depth", shard, BlockingQueue::size)
+                    .description("Checkouts waiting per shard")
+                    .tag("shard", String.valueOf(i))
+                    .register(meterRegistry);
+
+            Thread worker = new Thread(() -> work(shard), "checkout-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues the user's cart for checkout. If the user already has a checkout
+     * queued, e.g. after a double-click or a retry, that ticket is returned
+     * instead, so the cart is not placed twice.
+     *
+     * @throws IllegalArgumentException if the cart is empty
+     * @throws CheckoutQueueFullException if the cart's shard is at capacity
+     */
+    public CheckoutTicket submit(Long userId) {
+        List<Long> itemIds = jdbcTemplate.queryForList(CART_ITEMS_SQL, Long.class, userId);
+        if (itemIds.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        long shardKey = hottest(itemIds);
+
+        CheckoutTicket ticket = new CheckoutTicket(userId);
+        CheckoutTicket current = queuedByUser.compute(userId, (id, queued) ->
+                queued != null && queued.getStatus() == CheckoutTicket.Status.QUEUED ? queued : ticket);
+        if (current != ticket) {
+            return current;
+        }
+        tickets.put(ticket.getId(), ticket);
+        if (!shards.get((int) Math.floorMod(shardKey, (long) shards.size())).offer(ticket)) {
+            tickets.remove(ticket.getId());
+            queuedByUser.remove(userId, ticket);
+            rejected.increment();
+            throw new CheckoutQueueFullException(retryAfter);
+        }
+        accepted.increment();
+        return ticket;
+    }
+
+    /** A queued or recently completed ticket, or null if unknown or expired. */
+    public CheckoutTicket getTicket(String ticketId) {
+        return tickets.get(ticketId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work(BlockingQueue<CheckoutTicket> shard) {
+        List<CheckoutTicket> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(shard.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            shard.drainTo(batch, batchSize - 1);
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.error("Checkout worker failed on a batch of {}", batch.size(), e);
+                batch.forEach(ticket -> ticket.fail(e));
+            }
+            batch.forEach(ticket -> {
+                queuedByUser.remove(ticket.getUserId(), ticket);
+                completed.add(ticket);
+            });
+            batch.clear();
+            purgeExpiredTickets();
+        }
+
+        List<CheckoutTicket> abandoned = new ArrayList<>();
+        shard.drainTo(abandoned);
+        abandoned.forEach(ticket -> ticket.fail(new IllegalStateException("Checkout is shutting down")));
+    }
+
+    private void process(List<CheckoutTicket> batch) {
+        List<CheckoutTicket> ready = new ArrayList<>(batch.size());
+        List<OrderService.PendingOrder> pending = new ArrayList<>(batch.size());
+        for (CheckoutTicket ticket : batch) {
+            try {
+                pending.add(load(ticket.getUserId()));
+                ready.add(ticket);
+            } catch (RuntimeException e) {
+                ticket.fail(e);
+            }
+        }
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        batchSizes.record(ready.size());
+        List<OrderService.PlacementResult> results;
+        try {
+            results = orderService.placeOrders(pending);
+        } catch (RuntimeException e) {
+            if (ready.size() == 1 && !(e instanceof OptimisticLockingFailureException)) {
+                ready.get(0).fail(e);
+                return;
+            }
+            // One bad order rolled back the whole batch; place them one by one
+            // so it cannot take the others down with it. A cart changed while
+            // the batch was placed is read again before its order is retried.
+            log.warn("Batch of {} checkouts rolled back, retrying individually", ready.size(), e);
+            for (int i = 0; i < ready.size(); i++) {
+                Long userId = ready.get(i).getUserId();
+                try {
+                    ready.get(i).complete(conflictRetry.execute("checkout", () -> {
+                        OrderService.PendingOrder order = load(userId);
+                        return orderService.placeOrder(order.cart(), order.user());
+                    }));
+                } catch (RuntimeException single) {
+                    ready.get(i).fail(single);
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < ready.size(); i++) {
+            OrderService.PlacementResult result = results.get(i);
+            if (result.failure() != null) {
+                ready.get(i).fail(result.failure());
+            } else {
+                ready.get(i).complete(result.order());
+            }
+        }
+    }
+
+    /** The item with the most units held, lowest id first on ties, so carts agree on it. */
+    private long hottest(List<Long> itemIds) {
+        long hottest = Long.MAX_VALUE;
+        int mostHeld = -1;
+        for (Long itemId : itemIds) {
+            int held = reservationLedger.reserved(itemId);
+            if (held > mostHeld || (held == mostHeld && itemId < hottest)) {
+                hottest = itemId;
+                mostHeld = held;
+            }
+        }
+        return hottest;
+    }
+
+    private OrderService.PendingOrder load(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NoSuchElementException("User not found"));
+        CartDto cart = cartService.getCartAsDto(userId);
+        if (cart.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        return new OrderService.PendingOrder(cart, user);
+    }
+
+    private void purgeExpiredTickets() {
+        Instant cutoff = Instant.now().minus(ticketRetention);
+        CheckoutTicket oldest;
+        while ((oldest = completed.peek()) != null && oldest.getCompletedAt().isBefore(cutoff)) {
+            completed.poll();
+            tickets.remove(oldest.getId());
+        }
+    }
+}
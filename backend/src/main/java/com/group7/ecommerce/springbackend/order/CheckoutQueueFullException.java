@@ -0,0 +1,21 @@
+package com.group7.ecommerce.springbackend.order;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the checkout shard for a cart is at capacity. The client should
+ * retry after {@link #getRetryAfter()}.
+ */
+public class CheckoutQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public CheckoutQueueFullException(Duration retryAfter) {
+        super("Checkout is busy, please try again shortly");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,93 @@
+package com.group7.ecommerce.springbackend.order;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A checkout waiting in {@link CheckoutQueue}. Clients either wait on it in the
+ * request or poll it by id.
+ */
+public class CheckoutTicket {
+
+    public enum Status {
+        QUEUED, PLACED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long userId;
+    private final CompletableFuture<Order> result = new CompletableFuture<>();
+    private volatile Instant completedAt;
+
+    CheckoutTicket(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Status getStatus() {
+        if (!result.isDone()) {
+            return Status.QUEUED;
+        }
+        return result.isCompletedExceptionally() ? Status.FAILED : Status.PLACED;
+    }
+
+    /** The placed order, or null while queued or after a failure. */
+    public Order getOrder() {
+        return getStatus() == Status.PLACED ? result.join() : null;
+    }
+
+    /** Why the checkout failed, or null unless the status is FAILED. */
+    public String getError() {
+        if (getStatus() != Status.FAILED) {
+            return null;
+        }
+        try {
+            result.join();
+            return null;
+        } catch (RuntimeException e) {
+            return e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        }
+    }
+
+    /**
+     * Waits up to {@code timeout} for the order. Returns null if it is still
+     * queued; rethrows the failure if the checkout failed.
+     */
+    public Order await(Duration timeout) throws InterruptedException {
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    void complete(Order order) {
+        completedAt = Instant.now();
+        result.complete(order);
+    }
+
+    void fail(RuntimeException failure) {
+        completedAt = Instant.now();
+        result.completeExceptionally(failure);
+    }
+}
@@ -37,6 +37,9 @@ public class Order {
     @Column(name = "order_date")
     private OffsetDateTime orderDate;
 
+    @Version
+    private Long version;
+
     public enum OrderStatus {
         PENDING,
         PROCESSING,
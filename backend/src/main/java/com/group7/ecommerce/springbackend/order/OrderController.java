@@ -1,9 +1,16 @@
 package com.group7.ecommerce.springbackend.order;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,58 +19,83 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.group7.ecommerce.springbackend.cart.CartDto;
-import com.group7.ecommerce.springbackend.cart.CartService;
+import com.group7.ecommerce.springbackend.archive.ArchivedOrder;
+import com.group7.ecommerce.springbackend.archive.OrderArchive;
 import com.group7.ecommerce.springbackend.common.ApiResponse;
-import com.group7.ecommerce.springbackend.user.User;
-import com.group7.ecommerce.springbackend.user.UserRepository;
+import com.group7.ecommerce.springbackend.common.ConflictRetryExecutor;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
-    private final OrderService orderService;
     private final OrderRepository orderRepository;
-    private final CartService cartService;
-    private final UserRepository userRepository;
+    private final OrderService orderService;
+    private final CheckoutQueue checkoutQueue;
+    private final OrderArchive orderArchive;
+    private final ConflictRetryExecutor conflictRetry;
+    private final Duration checkoutAwaitTimeout;
 
-    public OrderController(OrderService orderService,
-            OrderRepository orderRepository,
-            CartService cartService,
-            UserRepository userRepository) {
-        this.orderService = orderService;
+    public OrderController(OrderRepository orderRepository, OrderService orderService,
+            CheckoutQueue checkoutQueue, OrderArchive orderArchive, ConflictRetryExecutor conflictRetry,
+            @Value("${checkout.queue.await-timeout:10s}") Duration checkoutAwaitTimeout) {
         this.orderRepository = orderRepository;
-        this.cartService = cartService;
-        this.userRepository = userRepository;
+        this.orderService = orderService;
+        this.checkoutQueue = checkoutQueue;
+        this.orderArchive = orderArchive;
+        this.conflictRetry = conflictRetry;
+        this.checkoutAwaitTimeout = checkoutAwaitTimeout;
     }
 
+    /**
+     * Queues the cart for checkout. By default waits for the order and returns
+     * it as before; if it is still queued after the await timeout, or
+     * {@code wait=false}, returns 202 with a ticket to poll. The cart is
+     * cleared once the order is placed.
+     *
+     * <p>Avoid JPA here: see {@link CheckoutQueue}.
+     */
     @PostMapping("/{userId}/place")
-    public ResponseEntity<OrderDto> placeOrder(@PathVariable Long userId) {
+    public ResponseEntity<?> placeOrder(@PathVariable Long userId,
+            @RequestParam(defaultValue = "true") boolean wait) {
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new NoSuchElementException("User not found"));
-
-            CartDto cartDto = cartService.getCartAsDto(userId);
-
-            if (cartDto.getItems().isEmpty()) {
-                return ResponseEntity.badRequest().build();
+            CheckoutTicket ticket = checkoutQueue.submit(userId);
+            if (wait) {
+                Order order = ticket.await(checkoutAwaitTimeout);
+                if (order != null) {
+                    return ResponseEntity.ok(toDto(order));
+                }
             }
-
-            Order order = orderService.placeOrder(cartDto, user);
-
-            // Clear the cart after successful order placement
-            cartService.clearCart(userId);
-
-            return ResponseEntity.ok(toDto(order));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/" + userId + "/tickets/" + ticket.getId()))
+                    .body(ApiResponse.success(toTicketDto(ticket), "Checkout queued"));
+        } catch (CheckoutQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/{userId}/tickets/{ticketId}")
+    public ResponseEntity<ApiResponse<CheckoutTicketDto>> getCheckoutTicket(@PathVariable Long userId,
+            @PathVariable String ticketId) {
+        CheckoutTicket ticket = checkoutQueue.getTicket(ticketId);
+        if (ticket == null || !ticket.getUserId().equals(userId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ApiResponse.success(toTicketDto(ticket)));
+    }
+
+    /** The user's orders, newest first, including those moved to the archive. */
     @GetMapping("/{userId}")
     public ResponseEntity<List<OrderDto>> getUserOrders(@PathVariable Long userId) {
         try {
@@ -71,6 +103,17 @@ public class OrderController {
             List<OrderDto> orderDtos = orders.stream()
                     .map(this::toDto)
                     .collect(Collectors.toList());
+            List<ArchivedOrder> archived = orderArchive.findByUserId(userId);
+            if (!archived.isEmpty()) {
+                // An order still in the database after a failed archive run wins
+                Set<Long> hotIds = orderDtos.stream().map(OrderDto::getId).collect(Collectors.toSet());
+                archived.stream()
+                        .filter(order -> !hotIds.contains(order.id()))
+                        .map(this::toDto)
+                        .forEach(orderDtos::add);
+                orderDtos.sort(Comparator.comparing(OrderDto::getOrderDate,
+                        Comparator.nullsLast(Comparator.reverseOrder())));
+            }
             return ResponseEntity.ok(orderDtos);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -97,9 +140,6 @@ public class OrderController {
     public ResponseEntity<ApiResponse<OrderDto>> updateOrderStatus(@PathVariable Long orderId,
             @RequestBody UpdateOrderStatusRequest request) {
         try {
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new NoSuchElementException("Order not found"));
-
             // Handle both enum and string status
             Order.OrderStatus status;
             if (request.getStatus() != null) {
@@ -110,14 +150,16 @@ public class OrderController {
                 return ResponseEntity.badRequest().build();
             }
 
-            order.setStatus(status);
-            Order updatedOrder = orderRepository.save(order);
+            Order updatedOrder = conflictRetry.execute("order_status",
+                    () -> orderService.changeStatus(orderId, status));
 
             return ResponseEntity.ok(ApiResponse.success(toDto(updatedOrder), "Order status updated successfully"));
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -182,7 +224,41 @@ public class OrderController {
         return dto;
     }
 
+    private OrderDto toDto(ArchivedOrder order) {
+        OrderDto dto = new OrderDto();
+        dto.setId(order.id());
+        dto.setUserId(order.userId());
+        dto.setUserUsername(order.username());
+        dto.setStatus(order.status());
+        dto.setSubtotal(order.subtotal());
+        dto.setTax(order.tax());
+        dto.setDiscountAmount(order.discountAmount());
+        dto.setTotal(order.total());
+        dto.setAppliedDiscountCode(order.appliedDiscountCode());
+        dto.setOrderDate(order.orderDate());
+        dto.setOrderItems(order.lines().stream()
+                .map(line -> {
+                    OrderItemDto itemDto = new OrderItemDto();
+                    itemDto.setItemId(line.itemId());
+                    itemDto.setItemName(line.itemName());
+                    itemDto.setQuantity(line.quantity());
+                    itemDto.setPriceAtPurchase(line.priceAtPurchase());
+                    return itemDto;
+                })
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    private CheckoutTicketDto toTicketDto(CheckoutTicket ticket) {
+        Order order = ticket.getOrder();
+        return new CheckoutTicketDto(ticket.getId(), ticket.getStatus().name(),
+                order != null ? order.getId() : null, ticket.getError());
+    }
+
     // DTOs for request/response
+    public record CheckoutTicketDto(String ticketId, String status, Long orderId, String error) {
+    }
+
     public static class UpdateOrderStatusRequest {
         private Order.OrderStatus status;
         private String statusString;
@@ -1,8 +1,45 @@
 package com.group7.ecommerce.springbackend.order;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /** Total units ordered per item, as {@code [itemId, quantity]} rows. */
+    @Query("select oi.item.id, sum(oi.quantity) from OrderItem oi group by oi.item.id")
+    List<Object[]> sumQuantityByItem();
+
+    /**
+     * Item ids of orders with ids in {@code (afterId, throughId]}, as
+     * {@code [orderId, itemId]} rows ordered by order id.
+     */
+    @Query("select oi.order.id, oi.item.id from OrderItem oi "
+            + "where oi.order.id > :afterId and oi.order.id <= :throughId order by oi.order.id")
+    List<Object[]> findItemIdsByOrderIdRange(@Param("afterId") long afterId, @Param("throughId") long throughId);
+
+    /**
+     * Lines of orders with ids in {@code (afterId, throughId]} not in the
+     * excluded status, as {@code [orderId, userId, orderDate, total, itemId,
+     * category, quantity, priceAtPurchase]} rows ordered by order id.
+     */
+    @Query("select o.id, o.user.id, o.orderDate, o.total, i.id, i.category, oi.quantity, oi.priceAtPurchase "
+            + "from OrderItem oi join oi.order o join oi.item i "
+            + "where o.status <> :excluded and o.id > :afterId and o.id <= :throughId order by o.id")
+    List<Object[]> findLinesByOrderIdRange(@Param("excluded") Order.OrderStatus excluded,
+            @Param("afterId") long afterId, @Param("throughId") long throughId);
+
+    @Modifying
+    @Query("delete from OrderItem oi where oi.order.id in :orderIds")
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query("delete from OrderItem oi where oi.order.id in (select o.id from Order o where o.user.id in :userIds)")
+    int deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
@@ -0,0 +1,27 @@
+package com.group7.ecommerce.springbackend.order;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Written to the outbox by {@link OrderService} in the transaction that saves
+ * the order. Handlers that keep derived data (popularity, analytics) read the
+ * lines from here instead of reloading the order.
+ */
+public record OrderPlacedEvent(Long orderId, Long userId, OffsetDateTime orderDate, BigDecimal total,
+        List<Line> lines) {
+
+    public static final String TYPE = "OrderPlaced";
+
+    public static OrderPlacedEvent of(Order order) {
+        return new OrderPlacedEvent(order.getId(), order.getUser().getId(), order.getOrderDate(), order.getTotal(),
+                order.getOrderItems().stream()
+                        .map(orderItem -> new Line(orderItem.getItem().getId(), orderItem.getItem().getCategory(),
+                                orderItem.getQuantity(), orderItem.getPriceAtPurchase()))
+                        .toList());
+    }
+
+    public record Line(Long itemId, String category, int quantity, BigDecimal unitPrice) {
+    }
+}
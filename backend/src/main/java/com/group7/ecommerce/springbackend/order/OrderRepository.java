@@ -1,10 +1,15 @@
 package com.group7.ecommerce.springbackend.order;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.group7.ecommerce.springbackend.user.User;
@@ -26,4 +31,26 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findAllByOrderByOrderDateDesc();
 
     List<Order> findByStatusOrderByOrderDateDesc(Order.OrderStatus status);
+
+    @Query("select max(o.id) from Order o")
+    Long findMaxId();
+
+    @Query("select o.id from Order o where o.status in :statuses and o.orderDate < :cutoff order by o.user.id, o.id")
+    List<Long> findIdsByStatusInAndOrderDateBefore(@Param("statuses") Collection<Order.OrderStatus> statuses,
+            @Param("cutoff") OffsetDateTime cutoff, Pageable pageable);
+
+    @Query("select o.id from Order o where o.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct o from Order o join fetch o.user left join fetch o.orderItems oi "
+            + "left join fetch oi.item where o.id in :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Order o where o.user.id in :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
@@ -2,30 +2,132 @@ package com.group7.ecommerce.springbackend.order;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.group7.ecommerce.springbackend.cart.CartDto;
 import com.group7.ecommerce.springbackend.cart.CartItemDto;
+import com.group7.ecommerce.springbackend.cart.CartService;
+import com.group7.ecommerce.springbackend.inventory.ReservationLedger;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
+import com.group7.ecommerce.springbackend.inventory.StockMovement;
 import com.group7.ecommerce.springbackend.item.Item;
 import com.group7.ecommerce.springbackend.item.ItemRepository;
+import com.group7.ecommerce.springbackend.outbox.Outbox;
 import com.group7.ecommerce.springbackend.user.User;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class OrderService {
 
     private final OrderRepository orderRepository;
     private final ItemRepository itemRepository;
+    private final StockLedger stockLedger;
+    private final ReservationLedger reservationLedger;
+    private final CartService cartService;
+    private final Outbox outbox;
+
+    private final Counter ordersPlaced;
+    private final Counter ordersOutOfStock;
+    private final Counter unitsSold;
+    private final Counter revenue;
 
-    public OrderService(OrderRepository orderRepository, ItemRepository itemRepository) {
+    public OrderService(OrderRepository orderRepository, ItemRepository itemRepository,
+            StockLedger stockLedger, ReservationLedger reservationLedger,
+            CartService cartService, Outbox outbox, MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.itemRepository = itemRepository;
+        this.stockLedger = stockLedger;
+        this.reservationLedger = reservationLedger;
+        this.cartService = cartService;
+        this.outbox = outbox;
+
+        this.ordersPlaced = Counter.builder("checkout.orders")
+                .description("Checkout attempts by outcome")
+                .tag("outcome", "placed")
+                .register(meterRegistry);
+        this.ordersOutOfStock = Counter.builder("checkout.orders")
+                .description("Checkout attempts by outcome")
+                .tag("outcome", "out_of_stock")
+                .register(meterRegistry);
+        this.unitsSold = Counter.builder("checkout.units")
+                .description("Item units sold through checkout")
+                .register(meterRegistry);
+        this.revenue = Counter.builder("checkout.revenue")
+                .description("Order totals placed through checkout")
+                .baseUnit("dollars")
+                .register(meterRegistry);
     }
 
+    /**
+     * Places the order and empties the user's cart in one transaction. The
+     * {@link OrderPlacedEvent} goes through the outbox, so its handlers run
+     * after commit and never for an order that rolled back.
+     */
     @Transactional
     public Order placeOrder(CartDto cartDto, User user) {
+        return place(cartDto, user, validate(cartDto, user));
+    }
+
+    /**
+     * Places several orders in one transaction. Items they share are loaded
+     * once into the persistence context; each sale is a movement in the
+     * {@link StockLedger}, which folds them into the stock rows later. An order
+     * that fails validation is skipped without touching stock and its result
+     * carries the exception; any other failure rolls back the whole batch. A
+     * second order for the same user fails the same way, since its cart was
+     * read before the first order emptied it.
+     */
+    @Transactional
+    public List<PlacementResult> placeOrders(List<PendingOrder> pendingOrders) {
+        List<PlacementResult> results = new ArrayList<>(pendingOrders.size());
+        Set<Long> placedUsers = new HashSet<>();
+        for (PendingOrder pending : pendingOrders) {
+            List<Item> items;
+            try {
+                if (placedUsers.contains(pending.user().getId())) {
+                    throw new IllegalStateException("Cart was already checked out");
+                }
+                items = validate(pending.cart(), pending.user());
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(new PlacementResult(null, e));
+                continue;
+            }
+            results.add(new PlacementResult(place(pending.cart(), pending.user(), items), null));
+            placedUsers.add(pending.user().getId());
+        }
+        return results;
+    }
+
+    /**
+     * Checks every line before any stock changes, so a rejected order leaves
+     * the shared persistence context untouched when batched.
+     */
+    private List<Item> validate(CartDto cartDto, User user) {
+        List<Item> items = new ArrayList<>(cartDto.getItems().size());
+        for (CartItemDto itemDto : cartDto.getItems()) {
+            Item item = itemRepository.findById(itemDto.getItemId())
+                    .orElseThrow(() -> new IllegalArgumentException("Item not found: " + itemDto.getItemId()));
+
+            // Stock held in other shoppers' carts is not for sale
+            int available = reservationLedger.available(user.getId(), item.getId(), stockLedger.onHand(item.getId()));
+            if (available < itemDto.getQuantity()) {
+                ordersOutOfStock.increment();
+                throw new IllegalStateException("Not enough stock for item: " + item.getTitle());
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private Order place(CartDto cartDto, User user, List<Item> items) {
         Order order = new Order();
         order.setUser(user);
         order.setOrderDate(OffsetDateTime.now());
@@ -37,16 +139,9 @@ public class OrderService {
         order.setAppliedDiscountCode(cartDto.getAppliedDiscountCode());
 
         List<OrderItem> orderItems = new ArrayList<>();
-        for (CartItemDto itemDto : cartDto.getItems()) {
-            Item item = itemRepository.findById(itemDto.getItemId())
-                    .orElseThrow(() -> new IllegalArgumentException("Item not found: " + itemDto.getItemId()));
-
-            if (item.getQuantityAvailable() < itemDto.getQuantity()) {
-                throw new IllegalStateException("Not enough stock for item: " + item.getTitle());
-            }
-
-            item.setQuantityAvailable(item.getQuantityAvailable() - itemDto.getQuantity());
-            itemRepository.save(item);
+        for (int i = 0; i < items.size(); i++) {
+            CartItemDto itemDto = cartDto.getItems().get(i);
+            Item item = items.get(i);
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -57,6 +152,48 @@ public class OrderService {
         }
 
         order.setOrderItems(orderItems);
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        // The ledger re-checks under the item's lock; the catalog changes when it flushes
+        for (OrderItem orderItem : orderItems) {
+            stockLedger.append(orderItem.getItem().getId(), StockMovement.Type.SALE, -orderItem.getQuantity(),
+                    "order:" + saved.getId());
+            reservationLedger.consume(user.getId(), orderItem.getItem().getId());
+        }
+        outbox.append(OrderPlacedEvent.TYPE, OrderPlacedEvent.of(saved));
+        cartService.clearCart(user.getId());
+
+        ordersPlaced.increment();
+        orderItems.forEach(orderItem -> unitsSold.increment(orderItem.getQuantity()));
+        if (saved.getTotal() != null) {
+            revenue.increment(saved.getTotal().doubleValue());
+        }
+        return saved;
+    }
+
+    /**
+     * Sets the order's status, recording an {@link OrderStatusChangedEvent} in
+     * the outbox if it actually changed.
+     *
+     * @throws NoSuchElementException if there is no such order
+     */
+    @Transactional
+    public Order changeStatus(Long orderId, Order.OrderStatus status) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new NoSuchElementException("Order not found"));
+        Order.OrderStatus previous = order.getStatus();
+        order.setStatus(status);
+        Order saved = orderRepository.save(order);
+        if (previous != status) {
+            outbox.append(OrderStatusChangedEvent.TYPE,
+                    new OrderStatusChangedEvent(previous, status, OffsetDateTime.now(), OrderPlacedEvent.of(saved)));
+        }
+        return saved;
+    }
+
+    public record PendingOrder(CartDto cart, User user) {
+    }
+
+    /** Exactly one of {@code order} and {@code failure} is set. */
+    public record PlacementResult(Order order, RuntimeException failure) {
     }
 }
@@ -0,0 +1,16 @@
+package com.group7.ecommerce.springbackend.order;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Written to the outbox by {@link OrderService#changeStatus} when an order
+ * moves to a different status. Carries the order itself so handlers can back
+ * out what they counted when it was placed, e.g. on cancellation, and when
+ * the change happened so they can tell whether a rebuild already saw it.
+ * {@code changedAt} is null in events written before it was added.
+ */
+public record OrderStatusChangedEvent(Order.OrderStatus previous, Order.OrderStatus status,
+        OffsetDateTime changedAt, OrderPlacedEvent order) {
+
+    public static final String TYPE = "OrderStatusChanged";
+}
@@ -0,0 +1,34 @@
+package com.group7.ecommerce.springbackend.outbox;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Records an event in {@code outbox_events} as part of the caller's
+ * transaction, so it is delivered if and only if the change that caused it
+ * commits.
+ */
+@Component
+public class Outbox {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public Outbox(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String eventType, Object payload) {
+        try {
+            repository.save(new OutboxEvent(eventType, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialise " + eventType + " outbox event", e);
+        }
+    }
+}
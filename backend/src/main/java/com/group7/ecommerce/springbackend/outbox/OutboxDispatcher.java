@@ -0,0 +1,146 @@
+package com.group7.ecommerce.springbackend.outbox;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Polls {@code outbox_events} and hands due events to the
+ * {@link OutboxHandler}s registered for their type. A failing event is retried
+ * with exponential backoff and marked FAILED after {@code outbox.max-attempts}.
+ * Delivered events are kept for {@code outbox.retention} and then deleted.
+ *
+ * <p>Runs on the scheduler thread with a fixed delay, so batches never
+ * overlap. Meant for a single instance: there is no row claiming between
+ * dispatchers. Created eagerly even under lazy initialization, since
+ * nothing else would ever ask for it.
+ */
+@Component
+@Lazy(false)
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Map<String, List<OutboxHandler<?>>> handlersByType;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration retention;
+
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer lag;
+
+    public OutboxDispatcher(OutboxEventRepository repository, ObjectMapper objectMapper,
+            List<OutboxHandler<?>> handlers,
+            @Value("${outbox.batch-size:100}") int batchSize,
+            @Value("${outbox.max-attempts:10}") int maxAttempts,
+            @Value("${outbox.initial-backoff:1s}") Duration initialBackoff,
+            @Value("${outbox.retention:7d}") Duration retention,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.handlersByType = handlers.stream().collect(Collectors.groupingBy(OutboxHandler::eventType));
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.retention = retention;
+
+        this.delivered = resultCounter(meterRegistry, "delivered");
+        this.retried = resultCounter(meterRegistry, "retried");
+        this.failed = resultCounter(meterRegistry, "failed");
+        this.lag = Timer.builder("outbox.lag")
+                .description("Time from an outbox event being written to its delivery")
+                .register(meterRegistry);
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("outbox.dispatches")
+                .description("Outbox event delivery attempts by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:500ms}")
+    public void dispatch() {
+        List<OutboxEvent> due;
+        do {
+            due = repository.findByStatusAndAvailableAtLessThanEqualOrderByIdAsc(OutboxEvent.Status.PENDING,
+                    OffsetDateTime.now(), PageRequest.of(0, batchSize));
+            due.forEach(this::deliver);
+            repository.saveAll(due);
+        } while (due.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:1h}")
+    public void purgeDelivered() {
+        int deleted = repository.deleteByStatusAndProcessedAtBefore(OutboxEvent.Status.DONE,
+                OffsetDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} delivered outbox events", deleted);
+        }
+    }
+
+    private void deliver(OutboxEvent event) {
+        try {
+            for (OutboxHandler<?> handler : handlersByType.getOrDefault(event.getEventType(), List.of())) {
+                invoke(handler, event.getPayload());
+            }
+            event.setStatus(OutboxEvent.Status.DONE);
+            event.setProcessedAt(OffsetDateTime.now());
+            event.setLastError(null);
+            delivered.increment();
+            lag.record(Duration.between(event.getCreatedAt(), event.getProcessedAt()));
+        } catch (Exception e) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(abbreviate(e.toString()));
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus(OutboxEvent.Status.FAILED);
+                event.setProcessedAt(OffsetDateTime.now());
+                failed.increment();
+                log.error("Outbox event {} ({}) failed after {} attempts", event.getId(), event.getEventType(),
+                        event.getAttempts(), e);
+            } else {
+                event.setAvailableAt(OffsetDateTime.now().plus(backoff(event.getAttempts())));
+                retried.increment();
+                log.warn("Outbox event {} ({}) failed, attempt {} of {}", event.getId(), event.getEventType(),
+                        event.getAttempts(), maxAttempts, e);
+            }
+        }
+    }
+
+    private <T> void invoke(OutboxHandler<T> handler, String payload) throws Exception {
+        handler.handle(objectMapper.readValue(payload, handler.payloadType()));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+
+    private static String abbreviate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
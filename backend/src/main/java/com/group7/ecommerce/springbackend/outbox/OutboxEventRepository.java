@@ -0,0 +1,25 @@
+package com.group7.ecommerce.springbackend.outbox;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByStatusAndAvailableAtLessThanEqualOrderByIdAsc(OutboxEvent.Status status,
+            OffsetDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.processedAt < :cutoff")
+    int deleteByStatusAndProcessedAtBefore(@Param("status") OutboxEvent.Status status,
+            @Param("cutoff") OffsetDateTime cutoff);
+}
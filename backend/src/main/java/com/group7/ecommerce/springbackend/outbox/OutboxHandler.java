@@ -0,0 +1,16 @@
+package com.group7.ecommerce.springbackend.outbox;
+
+/**
+ * Receives outbox events of one type from {@link OutboxDispatcher}, off the
+ * request thread and after the writing transaction has committed. Delivery is
+ * at least once: a failed event is retried for every handler of its type, so
+ * handlers must tolerate seeing the same event twice.
+ */
+public interface OutboxHandler<T> {
+
+    String eventType();
+
+    Class<T> payloadType();
+
+    void handle(T payload);
+}
@@ -1,8 +1,11 @@
 package com.group7.ecommerce.springbackend.sales;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,5 +15,10 @@ public interface SalesItemRepository extends JpaRepository<SalesItem, Long> {
     Optional<SalesItem> findByItemIdAndIsActiveTrue(Long itemId);
     List<SalesItem> findByItemId(Long itemId);
     void deleteByItemId(Long itemId);
+
+    /** Rows of item id, sale price, start and end date for the items' active sales. */
+    @Query("select s.item.id, s.salePrice, s.saleStartDate, s.saleEndDate from SalesItem s "
+            + "where s.isActive = true and s.item.id in :itemIds")
+    List<Object[]> findActiveSalesByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 }
 
@@ -7,22 +7,32 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+import com.group7.ecommerce.springbackend.common.SingleFlight;
 import com.group7.ecommerce.springbackend.item.Item;
 import com.group7.ecommerce.springbackend.item.ItemRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class SalesItemService {
 
     private final SalesItemRepository salesItemRepository;
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, SalesItemDto> salesItemLoads;
 
-    public SalesItemService(SalesItemRepository salesItemRepository, ItemRepository itemRepository) {
+    public SalesItemService(SalesItemRepository salesItemRepository, ItemRepository itemRepository,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
         this.salesItemRepository = salesItemRepository;
         this.itemRepository = itemRepository;
+        this.eventPublisher = eventPublisher;
+        this.salesItemLoads = new SingleFlight<>("sales_item", meterRegistry);
     }
 
     public List<SalesItemDto> getAll() {
@@ -37,10 +47,15 @@ public class SalesItemService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Concurrent lookups of the same id share one query and one DTO.
+     */
     public SalesItemDto getById(Long id) {
-        SalesItem salesItem = salesItemRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Sales item not found"));
-        return toDto(salesItem);
+        return salesItemLoads.load(id, () -> {
+            SalesItem salesItem = salesItemRepository.findById(id)
+                    .orElseThrow(() -> new NoSuchElementException("Sales item not found"));
+            return toDto(salesItem);
+        });
     }
 
     @Transactional
@@ -62,6 +77,7 @@ public class SalesItemService {
         salesItem.setActive(true);
 
         SalesItem saved = salesItemRepository.save(salesItem);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(item.getId()));
         return toDto(saved);
     }
 
@@ -81,6 +97,7 @@ public class SalesItemService {
         }
 
         SalesItem updated = salesItemRepository.save(salesItem);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(salesItem.getItem().getId()));
         return toDto(updated);
     }
 
@@ -90,15 +107,16 @@ public class SalesItemService {
                 .orElseThrow(() -> new NoSuchElementException("Sales item not found"));
         salesItem.setActive(!salesItem.isActive());
         SalesItem updated = salesItemRepository.save(salesItem);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(salesItem.getItem().getId()));
         return toDto(updated);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!salesItemRepository.existsById(id)) {
-            throw new NoSuchElementException("Sales item not found");
-        }
-        salesItemRepository.deleteById(id);
+        SalesItem salesItem = salesItemRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Sales item not found"));
+        salesItemRepository.delete(salesItem);
+        eventPublisher.publishEvent(CatalogChangedEvent.ofItem(salesItem.getItem().getId()));
     }
 
     private SalesItemDto toDto(SalesItem salesItem) {
@@ -4,12 +4,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+/**
+ * Authentication beans kept apart from {@link SecurityConfig}, so that
+ * {@code UserService} can take the password encoder without depending on the
+ * filter chain that in turn depends on it through {@link JwtRequestFilter}.
+ */
 @Configuration
-@EnableWebSecurity
 public class AuthenticationConfig {
 
     @Bean
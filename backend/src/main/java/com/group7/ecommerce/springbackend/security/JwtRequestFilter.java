@@ -2,7 +2,8 @@ package com.group7.ecommerce.springbackend.security;
 
 import java.io.IOException;
 
-import org.springframework.context.annotation.Lazy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,6 +11,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.group7.ecommerce.springbackend.common.LogSampler;
 import com.group7.ecommerce.springbackend.user.UserService;
 
 import io.jsonwebtoken.ExpiredJwtException;
@@ -23,7 +25,9 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    @Lazy
+    private static final Logger log = LoggerFactory.getLogger(JwtRequestFilter.class);
+    private static final LogSampler TRACE_SAMPLER = LogSampler.oneIn(100);
+
     private final UserService userService;
     private final JwtTokenProvider jwtTokenProvider;
 
@@ -40,32 +44,32 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             try {
                 username = jwtTokenProvider.getUsernameFromToken(jwtToken);
             } catch (IllegalArgumentException e) {
-                System.out.println("Unable to get JWT Token");
+                log.debug("Unable to get JWT Token");
             } catch (ExpiredJwtException e) {
-                System.out.println("JWT Token has expired");
+                log.debug("JWT Token has expired");
             }
-        } else {
-            logger.warn("JWT Token does not begin with Bearer String");
+        } else if (requestTokenHeader != null) {
+            log.debug("JWT Token does not begin with Bearer String");
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                System.out.println("JWT Filter - Loading user details for username: " + username);
                 UserDetails userDetails = this.userService.loadUserByUsername(username);
 
                 if (jwtTokenProvider.validateToken(jwtToken, userDetails)) {
-                    System.out.println("JWT Filter - Token validated successfully for user: " + username);
+                    if (log.isDebugEnabled() && TRACE_SAMPLER.sample()) {
+                        log.debug("Token validated for user {}", username);
+                    }
                     UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     usernamePasswordAuthenticationToken
                             .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
                 } else {
-                    System.out.println("JWT Filter - Token validation failed for user: " + username);
+                    log.debug("Token validation failed for user {}", username);
                 }
             } catch (Exception e) {
-                System.out.println("JWT Filter - Error loading user details for username: " + username + ", error: "
-                        + e.getMessage());
+                log.warn("Error loading user details for {}: {}", username, e.getMessage());
             }
         }
         chain.doFilter(request, response);
@@ -4,6 +4,9 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -12,6 +15,7 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
@@ -23,7 +27,39 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    // Verified claims keyed by the raw token. A token is immutable, so the cached
+    // claims stay valid until the token expires; this saves the HMAC check and
+    // JSON parse that every authenticated request otherwise repeats three times
+    private static final int MAX_CACHED_TOKENS = 10_000;
+    private final Map<String, Claims> claimsCache = new ConcurrentHashMap<>();
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private volatile SecretKey signingKey;
+
+    public JwtTokenProvider(MeterRegistry meterRegistry) {
+        this.cacheHits = Counter.builder("jwt.claims.cache")
+                .description("Token lookups served from the verified-claims cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("jwt.claims.cache")
+                .description("Token lookups served from the verified-claims cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.claims.cache.size", claimsCache, Map::size)
+                .description("Number of verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
     private SecretKey getSigningKey() {
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = createSigningKey();
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private SecretKey createSigningKey() {
         // Ensure the secret is at least 64 bytes (512 bits) for HS512
         // If the secret string is shorter, we'll hash it to get exactly 64 bytes
         byte[] keyBytes = secret.getBytes();
@@ -68,7 +104,33 @@ public class JwtTokenProvider {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token).getPayload();
+        Claims cached = claimsCache.get(token);
+        if (cached != null) {
+            if (cached.getExpiration().after(new Date())) {
+                cacheHits.increment();
+                return cached;
+            }
+            claimsCache.remove(token);
+        }
+        cacheMisses.increment();
+
+        // Throws ExpiredJwtException for expired tokens, so only live tokens are cached
+        Claims claims = Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            if (claimsCache.size() >= MAX_CACHED_TOKENS) {
+                evictExpired();
+            }
+            claimsCache.put(token, claims);
+        }
+        return claims;
+    }
+
+    private void evictExpired() {
+        Date now = new Date();
+        claimsCache.values().removeIf(claims -> !claims.getExpiration().after(now));
+        if (claimsCache.size() >= MAX_CACHED_TOKENS) {
+            claimsCache.clear();
+        }
     }
 
     private Boolean isTokenExpired(String token) {
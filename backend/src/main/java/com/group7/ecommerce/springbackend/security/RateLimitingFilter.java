@@ -11,6 +11,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -31,6 +34,23 @@ public class RateLimitingFilter implements Filter {
     // Store blocked IPs with unblock time
     private final Map<String, LocalDateTime> blockedIPs = new ConcurrentHashMap<>();
 
+    private final Counter blockedRejections;
+    private final Counter minuteLimitRejections;
+    private final Counter hourLimitRejections;
+
+    public RateLimitingFilter(MeterRegistry meterRegistry) {
+        this.blockedRejections = rejectionCounter(meterRegistry, "blocked");
+        this.minuteLimitRejections = rejectionCounter(meterRegistry, "minute");
+        this.hourLimitRejections = rejectionCounter(meterRegistry, "hour");
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ratelimit.rejections")
+                .description("Requests rejected by the per-IP rate limiter")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
@@ -55,6 +75,7 @@ public class RateLimitingFilter implements Filter {
         LocalDateTime unblockTime = blockedIPs.get(clientIP);
         if (unblockTime != null) {
             if (LocalDateTime.now().isBefore(unblockTime)) {
+                blockedRejections.increment();
                 httpResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
                 httpResponse.setContentType("application/json");
                 httpResponse.setHeader("Retry-After", String.valueOf(
@@ -80,6 +101,7 @@ public class RateLimitingFilter implements Filter {
         
         // Check per-minute limit
         if (counter.getRequestsLastMinute() > MAX_REQUESTS_PER_MINUTE) {
+            minuteLimitRejections.increment();
             blockIP(clientIP);
             httpResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             httpResponse.setContentType("application/json");
@@ -92,6 +114,7 @@ public class RateLimitingFilter implements Filter {
         
         // Check per-hour limit
         if (counter.getRequestsLastHour() > MAX_REQUESTS_PER_HOUR) {
+            hourLimitRejections.increment();
             blockIP(clientIP);
             httpResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             httpResponse.setContentType("application/json");
@@ -27,6 +27,10 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         // Public endpoints
                         .requestMatchers("/api/auth/register", "/api/auth/login", "/images/**").permitAll()
+                        // Health endpoint
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Metrics include business figures (revenue, order counts), so scraping requires admin
+                        .requestMatchers("/actuator/prometheus").hasAuthority("ROLE_ADMIN")
                         // Password change requires authentication (must come before general /api/auth/**)
                         .requestMatchers("/api/auth/change-password/**").hasAnyAuthority("ROLE_USER", "ROLE_ADMIN")
                         // Profile endpoints require authentication
@@ -0,0 +1,112 @@
+package com.group7.ecommerce.springbackend.user;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.group7.ecommerce.springbackend.cart.CartItemRepository;
+import com.group7.ecommerce.springbackend.cart.CartRepository;
+import com.group7.ecommerce.springbackend.inventory.ReservationLedger;
+import com.group7.ecommerce.springbackend.order.OrderItemRepository;
+import com.group7.ecommerce.springbackend.order.OrderRepository;
+
+/**
+ * Deletes and deactivates users with set-based statements instead of
+ * loading their carts and orders. A user's rows go in foreign-key order
+ * (cart items, carts, order items, orders, the user), one statement per
+ * table for a whole chunk of users.
+ *
+ * <p>Bulk operations walk the matching users by id in chunks of
+ * {@code users.bulk.chunk-size}, each chunk in its own transaction, so a
+ * large filter never holds one long transaction or loads every user at
+ * once. Orders already moved to the order archive stay in its segments.
+ */
+@Service
+public class UserAdminService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAdminService.class);
+
+    private final UserRepository userRepository;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ReservationLedger reservationLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public UserAdminService(UserRepository userRepository, CartRepository cartRepository,
+            CartItemRepository cartItemRepository, OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository, ReservationLedger reservationLedger,
+            TransactionTemplate transactionTemplate, @Value("${users.bulk.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.reservationLedger = reservationLedger;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    public void delete(Long userId) {
+        if (deleteAll(List.of(userId)) == 0) {
+            throw new NoSuchElementException("User not found");
+        }
+    }
+
+    /** Deletes every matching user with their carts and orders; returns how many. */
+    public int deleteMatching(UserFilter filter) {
+        int deleted = forEachChunk(filter, this::deleteAll);
+        log.info("Deleted {} users matching {}", deleted, filter);
+        return deleted;
+    }
+
+    /** Deactivates every matching user; returns how many. */
+    public int deactivateMatching(UserFilter filter) {
+        int deactivated = forEachChunk(filter, ids -> transactionTemplate.execute(status ->
+                userRepository.deactivateAllByIdIn(ids)));
+        log.info("Deactivated {} users matching {}", deactivated, filter);
+        return deactivated;
+    }
+
+    private int forEachChunk(UserFilter filter, ToIntFunction<List<Long>> action) {
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter criterion is required");
+        }
+        int total = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = userRepository.findAll(filter.toSpecification(afterId),
+                    PageRequest.of(0, chunkSize, Sort.by("id"))).map(User::getId).getContent();
+            if (ids.isEmpty()) {
+                break;
+            }
+            total += action.applyAsInt(ids);
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == chunkSize);
+        return total;
+    }
+
+    private int deleteAll(List<Long> userIds) {
+        List<Object[]> holds = cartItemRepository.findItemIdsByUserIdIn(userIds);
+        Integer deleted = transactionTemplate.execute(status -> {
+            cartItemRepository.deleteByUserIdIn(userIds);
+            cartRepository.deleteByUserIdIn(userIds);
+            orderItemRepository.deleteByUserIdIn(userIds);
+            orderRepository.deleteByUserIdIn(userIds);
+            return userRepository.deleteAllByIdIn(userIds);
+        });
+        holds.forEach(row -> reservationLedger.release((Long) row[0], (Long) row[1]));
+        return deleted;
+    }
+}
@@ -2,7 +2,8 @@ package com.group7.ecommerce.springbackend.user;
 
 import java.util.NoSuchElementException;
 
-import org.springframework.context.annotation.Lazy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,10 +23,12 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/auth")
 public class UserController {
 
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     private final UserService userService;
     private final JwtTokenProvider jwtTokenProvider;
 
-    public UserController(@Lazy UserService userService, JwtTokenProvider jwtTokenProvider) {
+    public UserController(UserService userService, JwtTokenProvider jwtTokenProvider) {
         this.userService = userService;
         this.jwtTokenProvider = jwtTokenProvider;
     }
@@ -109,8 +112,7 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(ApiResponse.error("User not found"));
         } catch (Exception e) {
-            // Log the exception for debugging
-            e.printStackTrace();
+            log.error("Error changing password for user {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("An error occurred while changing password: " + e.getMessage()));
         }
@@ -0,0 +1,36 @@
+package com.group7.ecommerce.springbackend.user;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Selects users for bulk admin operations. Every criterion is optional, but
+ * at least one must be set. Administrators never match.
+ */
+public record UserFilter(Boolean active, LocalDateTime createdBefore, String usernamePrefix) {
+
+    public boolean isEmpty() {
+        return active == null && createdBefore == null && (usernamePrefix == null || usernamePrefix.isBlank());
+    }
+
+    /** Matching users with ids above {@code afterId}. */
+    Specification<User> toSpecification(long afterId) {
+        return (root, query, cb) -> {
+            var predicate = cb.and(
+                    cb.greaterThan(root.get("id"), afterId),
+                    cb.notEqual(root.get("role"), User.Role.ROLE_ADMIN));
+            if (active != null) {
+                predicate = cb.and(predicate, cb.equal(root.get("isActive"), active));
+            }
+            if (createdBefore != null) {
+                predicate = cb.and(predicate, cb.lessThan(root.get("createdAt"), createdBefore));
+            }
+            if (usernamePrefix != null && !usernamePrefix.isBlank()) {
+                String escaped = usernamePrefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+                predicate = cb.and(predicate, cb.like(root.get("username"), escaped + "%", '\\'));
+            }
+            return predicate;
+        };
+    }
+}
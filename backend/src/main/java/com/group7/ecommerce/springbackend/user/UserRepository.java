@@ -1,13 +1,26 @@
 package com.group7.ecommerce.springbackend.user;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    @Modifying
+    @Query("update User u set u.isActive = false where u.id in :ids")
+    int deactivateAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from User u where u.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -3,6 +3,8 @@ package com.group7.ecommerce.springbackend.user;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,9 +12,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.group7.ecommerce.springbackend.common.LogSampler;
+
 @Service
 public class UserService implements UserDetailsService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    private static final LogSampler TRACE_SAMPLER = LogSampler.oneIn(100);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -109,14 +116,15 @@ public class UserService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("UserService - Loading user by username: " + username);
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> {
-                    System.out.println("UserService - User not found in database: " + username);
+                    log.debug("User not found in database: {}", username);
                     return new UsernameNotFoundException("User not found: " + username);
                 });
 
-        System.out.println("UserService - Found user: " + user.getUsername() + " with role: " + user.getRole());
+        if (log.isDebugEnabled() && TRACE_SAMPLER.sample()) {
+            log.debug("Loaded user {} with role {}", user.getUsername(), user.getRole());
+        }
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getUsername())
                 .password(user.getPassword())
@@ -0,0 +1,17 @@
+-- Append-only stock ledger. items.quantity_available is a projection of it:
+-- StockLedger folds movements into the item row in batches and marks them
+-- applied, so unapplied rows are what the projection still lacks
+CREATE SEQUENCE stock_movements_id_seq INCREMENT BY 50;
+
+CREATE TABLE stock_movements (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    quantity INT NOT NULL,
+    reference VARCHAR(100),
+    applied BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_stock_movements_item_id ON stock_movements(item_id, id);
+CREATE INDEX idx_stock_movements_unapplied ON stock_movements(item_id) WHERE applied = FALSE;
@@ -0,0 +1,4 @@
+-- Optimistic locking for carts and orders: concurrent cart edits and order
+-- status changes conflict instead of the last writer silently winning
+ALTER TABLE carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Response headers replayed with the stored response (Location, Retry-After, ...),
+-- one "Name: value" per line
+ALTER TABLE idempotency_keys ADD COLUMN headers TEXT;
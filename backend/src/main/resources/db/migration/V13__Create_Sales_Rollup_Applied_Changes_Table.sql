@@ -0,0 +1,8 @@
+-- Order placements and status changes already counted in sales_rollups, so
+-- redelivered outbox events are skipped; kept for analytics.applied-retention
+CREATE TABLE sales_rollup_applied_changes (
+    change_key VARCHAR(100) PRIMARY KEY,
+    applied_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_sales_rollup_applied_changes_applied_at ON sales_rollup_applied_changes(applied_at);
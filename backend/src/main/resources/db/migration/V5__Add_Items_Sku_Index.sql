@@ -0,0 +1,2 @@
+-- Bulk lookups by SKU (GET /api/items/batch?skus=...) filter on this column
+CREATE INDEX idx_items_sku ON items(sku);
@@ -0,0 +1,12 @@
+-- Responses to requests sent with an Idempotency-Key header, replayed on retries
+CREATE TABLE idempotency_keys (
+    id BIGSERIAL PRIMARY KEY,
+    scoped_key VARCHAR(320) NOT NULL UNIQUE,
+    fingerprint VARCHAR(64) NOT NULL,
+    status_code INT NOT NULL,
+    content_type VARCHAR(255),
+    body TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys(created_at);
@@ -0,0 +1,15 @@
+-- Sales totals per hour and per day, by item, by category and overall,
+-- maintained incrementally as orders are placed and cancelled
+CREATE TABLE sales_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    granularity VARCHAR(8) NOT NULL,
+    dimension VARCHAR(16) NOT NULL,
+    dimension_key VARCHAR(255) NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT uq_sales_rollups_bucket UNIQUE (granularity, dimension, dimension_key, bucket_start)
+);
+
+CREATE INDEX idx_sales_rollups_range ON sales_rollups(granularity, dimension, bucket_start);
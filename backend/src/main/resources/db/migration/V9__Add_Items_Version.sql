@@ -0,0 +1,3 @@
+-- Optimistic locking for items: bulk price/stock updates and checkout
+-- decrements bump it, so a write based on a stale read fails
+ALTER TABLE items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,141 @@
+package com.group7.ecommerce.springbackend.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.group7.ecommerce.springbackend.archive.OrderArchive;
+import com.group7.ecommerce.springbackend.item.ItemRepository;
+import com.group7.ecommerce.springbackend.order.OrderItemRepository;
+import com.group7.ecommerce.springbackend.order.OrderPlacedEvent;
+import com.group7.ecommerce.springbackend.order.OrderRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SalesRollupAccumulatorTest {
+
+    private static final OffsetDateTime PLACED = OffsetDateTime.of(2024, 3, 1, 9, 30, 0, 0, ZoneOffset.UTC);
+
+    private final SalesRollupRepository repository = mock(SalesRollupRepository.class);
+    private final AppliedSalesChangeRepository appliedRepository = mock(AppliedSalesChangeRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SalesRollupAccumulator accumulator = new SalesRollupAccumulator(repository, appliedRepository,
+            mock(OrderRepository.class), mock(OrderItemRepository.class), mock(OrderArchive.class),
+            mock(ItemRepository.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            Duration.ofDays(90), Duration.ofDays(7), meterRegistry);
+
+    /** Rollups written by flushes, in order. */
+    private final List<SalesRollup> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(repository.save(any(SalesRollup.class))).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    private static OrderPlacedEvent order(long id) {
+        return new OrderPlacedEvent(id, 1L, PLACED, new BigDecimal("20.00"),
+                List.of(new OrderPlacedEvent.Line(5L, "Toys", 2, new BigDecimal("10.00"))));
+    }
+
+    /** Order count of the last written daily store total. */
+    private long dailyOrders() {
+        return saved.stream()
+                .filter(rollup -> rollup.getGranularity() == SalesRollup.Granularity.DAY
+                        && rollup.getDimension() == SalesRollup.Dimension.TOTAL)
+                .reduce((first, second) -> second)
+                .orElseThrow()
+                .getOrderCount();
+    }
+
+    private double duplicates() {
+        return meterRegistry.counter("analytics.rollup.duplicates").count();
+    }
+
+    @Test
+    void redeliveryBeforeFlushIsCountedOnce() {
+        accumulator.handle(order(1));
+        accumulator.handle(order(1));
+        accumulator.handle(order(2));
+
+        accumulator.flush();
+
+        assertThat(dailyOrders()).isEqualTo(2);
+        assertThat(duplicates()).isEqualTo(1);
+        verify(appliedRepository).saveAll(argThat((List<AppliedSalesChange> changes) -> changes.stream()
+                .map(AppliedSalesChange::getChangeKey).sorted().toList().equals(List.of("placed:1", "placed:2"))));
+    }
+
+    @Test
+    void redeliveryOfAFlushedOrderIsSkipped() {
+        accumulator.handle(order(1));
+        accumulator.flush();
+        when(appliedRepository.existsById("placed:1")).thenReturn(true);
+
+        accumulator.handle(order(1));
+
+        assertThat(accumulator.pendingSize()).isZero();
+        assertThat(duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void cancellationIsTakenOutOnceAndReinstatementIsNotADuplicate() {
+        OffsetDateTime cancelledAt = PLACED.plusHours(1);
+        accumulator.handle(order(1));
+        accumulator.addStatusChange(order(1), cancelledAt, -1);
+        accumulator.addStatusChange(order(1), cancelledAt, -1);
+        accumulator.addStatusChange(order(1), cancelledAt.plusMinutes(5), 1);
+
+        accumulator.flush();
+
+        assertThat(dailyOrders()).isEqualTo(1);
+        assertThat(duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void failedFlushKeepsKeysSoRetriesStillSkipRedeliveries() {
+        when(appliedRepository.saveAll(anyList())).thenThrow(new QueryTimeoutException("timeout"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        accumulator.handle(order(1));
+
+        accumulator.flush();
+        accumulator.handle(order(1));
+        saved.clear();
+        accumulator.flush();
+
+        assertThat(dailyOrders()).isEqualTo(1);
+        assertThat(duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void eventsWithoutChangeTimeAreAlwaysCounted() {
+        accumulator.addStatusChange(order(1), null, -1);
+        accumulator.addStatusChange(order(1), null, -1);
+
+        accumulator.flush();
+
+        assertThat(dailyOrders()).isEqualTo(-2);
+        verify(appliedRepository, never()).existsById(any());
+    }
+}
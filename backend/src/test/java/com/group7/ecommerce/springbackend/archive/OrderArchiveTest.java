@@ -0,0 +1,65 @@
+package com.group7.ecommerce.springbackend.archive;
+
+import static com.group7.ecommerce.springbackend.archive.OrderSegmentTest.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderArchiveTest {
+
+    private static final OffsetDateTime PLACED = OffsetDateTime.of(2024, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    private OrderArchive open() throws Exception {
+        return new OrderArchive(directory, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void findsUsersOrdersAcrossSegmentsNewestFirst() throws Exception {
+        OrderArchive archive = open();
+        archive.append(List.of(order(1, 10, PLACED), order(2, 20, PLACED)));
+        archive.append(List.of(order(3, 10, PLACED), order(4, 30, PLACED)));
+
+        assertThat(archive.findByUserId(10L)).extracting(ArchivedOrder::id).containsExactly(3L, 1L);
+        assertThat(archive.findByUserId(40L)).isEmpty();
+        assertThat(archive.maxOrderId()).isEqualTo(4);
+    }
+
+    @Test
+    void orderArchivedTwiceIsReturnedOnce() throws Exception {
+        OrderArchive archive = open();
+        // A run whose delete failed, then the next run archiving the same orders again
+        archive.append(List.of(order(1, 10, PLACED), order(2, 10, PLACED)));
+        archive.append(List.of(order(1, 10, PLACED), order(2, 10, PLACED), order(5, 10, PLACED)));
+
+        assertThat(archive.findByUserId(10L)).extracting(ArchivedOrder::id).containsExactly(5L, 2L, 1L);
+
+        List<Long> visited = new ArrayList<>();
+        archive.forEachSegment(orders -> orders.forEach(order -> visited.add(order.id())));
+        assertThat(visited).containsExactlyInAnyOrder(1L, 2L, 5L);
+    }
+
+    @Test
+    void reopensSegmentsAndDropsIncompleteOnes() throws Exception {
+        open().append(List.of(order(1, 10, PLACED)));
+        Files.write(directory.resolve("orders-crashed.seg.tmp"), new byte[16]);
+
+        OrderArchive reopened = open();
+
+        assertThat(reopened.segments()).hasSize(1);
+        assertThat(reopened.findByUserId(10L)).extracting(ArchivedOrder::id).containsExactly(1L);
+        assertThat(directory.resolve("orders-crashed.seg.tmp")).doesNotExist();
+    }
+}
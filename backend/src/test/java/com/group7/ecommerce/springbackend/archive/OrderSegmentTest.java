@@ -0,0 +1,108 @@
+package com.group7.ecommerce.springbackend.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OrderSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    static ArchivedOrder order(long id, long userId, OffsetDateTime orderDate) {
+        return new ArchivedOrder(id, userId, "user" + userId, "DELIVERED", new BigDecimal("20.00"),
+                new BigDecimal("1.60"), null, new BigDecimal("21.60"), null, orderDate,
+                List.of(new ArchivedOrder.Line(100 + id, "Item " + id, 2, new BigDecimal("10.00")),
+                        new ArchivedOrder.Line(7L, "Crème brûlée", 1, null)));
+    }
+
+    private OrderSegment write(List<ArchivedOrder> orders) throws Exception {
+        Path path = directory.resolve("orders.seg");
+        OrderSegment.write(path, orders);
+        return OrderSegment.open(path);
+    }
+
+    @Test
+    void readsBackEveryFieldSortedByUserThenOrder() throws Exception {
+        OffsetDateTime placed = OffsetDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000, ZoneOffset.UTC);
+        ArchivedOrder cancelled = new ArchivedOrder(4L, 3L, null, "CANCELLED", null, null, new BigDecimal("5.00"),
+                new BigDecimal("-0.01"), "SPRING10", null, List.of());
+        List<ArchivedOrder> orders = List.of(order(5, 9, placed), order(2, 3, placed.minusDays(1)), cancelled);
+
+        OrderSegment segment = write(orders);
+
+        assertThat(segment.readAll()).containsExactly(order(2, 3, placed.minusDays(1)), cancelled,
+                order(5, 9, placed));
+    }
+
+    @Test
+    void findsOnlyTheUsersOrders() throws Exception {
+        OffsetDateTime placed = OffsetDateTime.of(2024, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OrderSegment segment = write(List.of(order(1, 10, placed), order(2, 20, placed), order(3, 10, placed),
+                order(4, 30, placed), order(5, 20, placed)));
+
+        assertThat(segment.findByUserId(20)).extracting(ArchivedOrder::id).containsExactly(2L, 5L);
+        assertThat(segment.findByUserId(30)).extracting(ArchivedOrder::id).containsExactly(4L);
+        assertThat(segment.findByUserId(10)).containsExactly(order(1, 10, placed), order(3, 10, placed));
+        assertThat(segment.findByUserId(25)).isEmpty();
+        assertThat(segment.findByUserId(99)).isEmpty();
+    }
+
+    @Test
+    void skipsUsersOutsideItsRangeAndAbsentOnesOnceIndexed() throws Exception {
+        OffsetDateTime placed = OffsetDateTime.of(2024, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OrderSegment segment = write(List.of(order(1, 10, placed), order(2, 30, placed)));
+
+        assertThat(segment.mayContainUser(5)).isFalse();
+        // Within the header's range, so only the user index can rule it out
+        assertThat(segment.mayContainUser(20)).isTrue();
+        segment.findByUserId(10);
+        assertThat(segment.mayContainUser(20)).isFalse();
+        assertThat(segment.mayContainUser(30)).isTrue();
+    }
+
+    @Test
+    void headerDescribesTheSegment() throws Exception {
+        OffsetDateTime first = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OrderSegment segment = write(List.of(order(8, 2, first.plusDays(3)), order(3, 6, first)));
+
+        SegmentInfo info = segment.info();
+
+        assertThat(info.file()).isEqualTo("orders.seg");
+        assertThat(info.orders()).isEqualTo(2);
+        assertThat(info.lines()).isEqualTo(4);
+        assertThat(info.minOrderId()).isEqualTo(3);
+        assertThat(info.maxOrderId()).isEqualTo(8);
+        assertThat(segment.maxOrderId()).isEqualTo(8);
+        assertThat(info.minUserId()).isEqualTo(2);
+        assertThat(info.maxUserId()).isEqualTo(6);
+        assertThat(info.firstOrderDate()).isEqualTo(first);
+        assertThat(info.lastOrderDate()).isEqualTo(first.plusDays(3));
+    }
+
+    @Test
+    void emptySegmentMatchesNoUser() throws Exception {
+        OrderSegment segment = write(List.of());
+
+        assertThat(segment.readAll()).isEmpty();
+        assertThat(segment.mayContainUser(0)).isFalse();
+        assertThat(segment.info().firstOrderDate()).isNull();
+    }
+
+    @Test
+    void refusesFileThatIsNotASegment() throws Exception {
+        Path path = directory.resolve("bogus.seg");
+        Files.write(path, new byte[1024]);
+
+        assertThatThrownBy(() -> OrderSegment.open(path)).isInstanceOf(IllegalStateException.class);
+    }
+}
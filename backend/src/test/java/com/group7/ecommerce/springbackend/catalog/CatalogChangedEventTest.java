@@ -0,0 +1,29 @@
+package com.group7.ecommerce.springbackend.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class CatalogChangedEventTest {
+
+    @Test
+    void wholeCatalogIsOnlyEverExplicit() {
+        assertThat(CatalogChangedEvent.allItems().isAllItems()).isTrue();
+        assertThat(CatalogChangedEvent.ofItems(List.of(1L, 2L)).isAllItems()).isFalse();
+        assertThat(CatalogChangedEvent.ofStock(List.of(1L)).stockOnly()).isTrue();
+    }
+
+    @Test
+    void emptySelectionIsRefused() {
+        assertThatThrownBy(() -> CatalogChangedEvent.ofItems(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CatalogChangedEvent.ofStock(Set.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CatalogChangedEvent(Set.of(1L), true, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
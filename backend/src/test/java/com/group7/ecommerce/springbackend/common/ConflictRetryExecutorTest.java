@@ -0,0 +1,125 @@
+package com.group7.ecommerce.springbackend.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConflictRetryExecutorTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConflictRetryExecutor executor = new ConflictRetryExecutor(
+            new TransactionTemplate(transactionManager), meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        Thread.interrupted();
+    }
+
+    /** An action that loses the race {@code conflicts} times and then succeeds. */
+    private static Supplier<String> conflicting(AtomicInteger calls, int conflicts) {
+        return () -> {
+            if (calls.incrementAndGet() <= conflicts) {
+                throw new OptimisticLockingFailureException("stale version");
+            }
+            return "saved";
+        };
+    }
+
+    private double outcomes(String outcome) {
+        return meterRegistry.counter("retry.conflicts", "operation", "save", "outcome", outcome).count();
+    }
+
+    @Test
+    void firstAttemptThatSucceedsIsNotCounted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(executor.execute("save", conflicting(calls, 0))).isEqualTo("saved");
+
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.find("retry.conflicts").counters()).isEmpty();
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void conflictIsRetriedInAFreshTransaction() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(executor.execute("save", conflicting(calls, 2))).isEqualTo("saved");
+
+        assertThat(calls).hasValue(3);
+        assertThat(outcomes("retried")).isEqualTo(2);
+        assertThat(outcomes("recovered")).isEqualTo(1);
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void conflictIsRethrownAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.execute("save", conflicting(calls, 5)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(calls).hasValue(3);
+        assertThat(outcomes("retried")).isEqualTo(2);
+        assertThat(outcomes("exhausted")).isEqualTo(1);
+        assertThat(outcomes("recovered")).isZero();
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.run("save", () -> {
+            calls.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate key");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void runsOnceInsideTheCallersTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.execute("save", conflicting(calls, 1)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(calls).hasValue(1);
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void interruptedBackoffGivesUp() {
+        AtomicInteger calls = new AtomicInteger();
+        Thread.currentThread().interrupt();
+
+        assertThatThrownBy(() -> executor.execute("save", conflicting(calls, 1)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(calls).hasValue(1);
+        assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    }
+}
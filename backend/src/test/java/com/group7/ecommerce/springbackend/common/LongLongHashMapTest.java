@@ -0,0 +1,68 @@
+package com.group7.ecommerce.springbackend.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LongLongHashMapTest {
+
+    @Test
+    void addToAccumulatesPerKey() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThat(map.addTo(7, 2)).isEqualTo(2);
+        assertThat(map.addTo(7, 3)).isEqualTo(5);
+        map.addTo(-7, 1);
+
+        assertThat(map.get(7)).isEqualTo(5);
+        assertThat(map.get(-7)).isEqualTo(1);
+        assertThat(map.get(8)).isZero();
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void keyZeroIsReserved() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThatThrownBy(() -> map.addTo(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.get(0)).isZero();
+    }
+
+    @Test
+    void matchesHashMapAcrossResizes() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            // Sequential ids and scattered ones, as the co-occurrence counts see both
+            long key = i % 2 == 0 ? i / 2 + 1 : random.nextLong();
+            if (key == 0) {
+                continue;
+            }
+            long delta = random.nextInt(10) - 3;
+            map.addTo(key, delta);
+            expected.merge(key, delta, Long::sum);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).as("key %d", key).isEqualTo(value));
+    }
+
+    @Test
+    void forEachVisitsEveryEntryOnce() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 1; key <= 100; key++) {
+            map.addTo(key, key * 10);
+        }
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach((key, value) -> assertThat(visited.put(key, value)).isNull());
+
+        assertThat(visited).hasSize(100).containsEntry(1L, 10L).containsEntry(100L, 1000L);
+    }
+}
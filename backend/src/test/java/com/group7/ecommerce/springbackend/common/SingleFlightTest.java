@@ -0,0 +1,108 @@
+package com.group7.ecommerce.springbackend.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 4;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, String> flight = new SingleFlight<>("test", meterRegistry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    private double calls(String result) {
+        return meterRegistry.counter("singleflight.calls", "name", "test", "result", result).count();
+    }
+
+    /** Starts {@link #CALLERS} loads of one key and releases the loader once the others have joined it. */
+    private List<Future<String>> loadConcurrently(Supplier<String> loader) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flight.load(1L, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return loader.get();
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls("coalesced") < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        return results;
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = loadConcurrently(() -> "item-" + loads.incrementAndGet());
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(calls("loaded")).isEqualTo(1);
+        assertThat(calls("coalesced")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void concurrentCallersShareTheFailure() throws Exception {
+        List<Future<String>> results = loadConcurrently(() -> {
+            throw new IllegalStateException("database down");
+        });
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("database down");
+        }
+        assertThat(calls("loaded")).isEqualTo(1);
+    }
+
+    @Test
+    void finishedLoadIsNotKept() {
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.load(1L, () -> "item-" + loads.incrementAndGet());
+        String second = flight.load(1L, () -> "item-" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("item-2");
+        assertThat(calls("coalesced")).isZero();
+    }
+
+    @Test
+    void failedLoadIsNotKept() {
+        assertThatThrownBy(() -> flight.load(1L, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flight.load(1L, () -> "recovered")).isEqualTo("recovered");
+    }
+}
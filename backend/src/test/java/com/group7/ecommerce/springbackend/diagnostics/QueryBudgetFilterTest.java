@@ -0,0 +1,90 @@
+package com.group7.ecommerce.springbackend.diagnostics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class QueryBudgetFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryBudgetInspector inspector = new QueryBudgetInspector();
+
+    private QueryBudgetFilter filter(String mode) {
+        return new QueryBudgetFilter(mode, 1, 3, Duration.ofSeconds(5), 2, meterRegistry);
+    }
+
+    /** A request that prepares {@code count} statements, {@code distinct} of them different. */
+    private FilterChain running(int count, int distinct) {
+        return (request, response) -> {
+            for (int i = 0; i < count; i++) {
+                inspector.inspect("select * from items where id = ? /* " + (i % distinct) + " */");
+            }
+        };
+    }
+
+    private double violations(String type) {
+        return meterRegistry.counter("querybudget.violations", "type", type).count();
+    }
+
+    @Test
+    void strictModeFailsRequestOverStatementBudget() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+
+        assertThatThrownBy(() -> filter("strict").doFilter(request, new MockHttpServletResponse(), running(4, 4)))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("GET /api/items ran 4 statements");
+        assertThat(violations("statements")).isEqualTo(1);
+    }
+
+    @Test
+    void strictModeReportsRepeatedStatementAsPossibleNPlusOne() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+
+        assertThatThrownBy(() -> filter("strict").doFilter(request, new MockHttpServletResponse(), running(3, 1)))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("repeated 3x, possible N+1");
+        assertThat(violations("repeated")).isEqualTo(1);
+        assertThat(violations("statements")).isZero();
+    }
+
+    @Test
+    void requestWithinBudgetPasses() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+
+        filter("strict").doFilter(request, new MockHttpServletResponse(), running(3, 3));
+
+        assertThat(violations("statements")).isZero();
+        assertThat(violations("repeated")).isZero();
+        assertThat(QueryBudget.current()).isNull();
+    }
+
+    @Test
+    void logModeCountsViolationWithoutFailing() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+
+        filter("log").doFilter(request, new MockHttpServletResponse(), running(10, 10));
+
+        assertThat(violations("statements")).isEqualTo(1);
+    }
+
+    @Test
+    void actuatorAndImportAreNotTracked() throws Exception {
+        QueryBudgetFilter filter = filter("strict");
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                running(10, 1));
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/admin/items/import"), new MockHttpServletResponse(),
+                running(10, 1));
+
+        assertThat(violations("statements")).isZero();
+    }
+}
@@ -0,0 +1,257 @@
+package com.group7.ecommerce.springbackend.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+
+class IdempotencyFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final IdempotencyStore store = new IdempotencyStore(repository, 100, Duration.ofHours(24),
+            meterRegistry);
+    private final IdempotencyFilter filter = new IdempotencyFilter(store, Duration.ofSeconds(5));
+    private final AtomicInteger handled = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findByScopedKey(anyString())).thenReturn(Optional.empty());
+        signIn("alice");
+    }
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void signIn(String username) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        SecurityContextHolder.setContext(context);
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders/1/checkout");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /** A handler answering with {@code status}, a Location header and the order number it placed. */
+    private FilterChain handler(int status) {
+        return (request, response) -> {
+            int order = handled.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setHeader("Location", "/api/orders/1/" + order);
+            http.setHeader("X-Request-Id", "request-" + order);
+            http.setContentType("application/json");
+            http.getWriter().write("{\"order\":" + order + "}");
+        };
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void retryReplaysTheStoredResponse() throws Exception {
+        MockHttpServletResponse first = send(request("key-1", "{}"), handler(201));
+        MockHttpServletResponse retry = send(request("key-1", "{}"), handler(201));
+
+        assertThat(handled).hasValue(1);
+        assertThat(first.getContentAsString()).isEqualTo("{\"order\":1}");
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"order\":1}");
+        assertThat(retry.getHeader("Location")).isEqualTo("/api/orders/1/1");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        // Per-response headers are not replayed
+        assertThat(retry.getHeader("X-Request-Id")).isNull();
+    }
+
+    @Test
+    void storedResponseIsPersistedWithItsReplayedHeaders() throws Exception {
+        send(request("key-1", "{}"), handler(201));
+
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getScopedKey()).isEqualTo("alice:key-1");
+        assertThat(IdempotencyStore.decodeHeaders(saved.getValue().getHeaders()))
+                .containsExactly(Map.entry("Location", "/api/orders/1/1"));
+    }
+
+    @Test
+    void bufferedBodyCanBeReadWithoutBlocking() throws Exception {
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        FilterChain nonBlocking = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+            });
+            ((HttpServletResponse) response).setStatus(201);
+        };
+
+        MockHttpServletResponse response = send(request("key-1", "{\"qty\":1}"), nonBlocking);
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("{\"qty\":1}");
+        assertThat(allRead).isTrue();
+    }
+
+    @Test
+    void keyReusedForADifferentBodyIsRejected() throws Exception {
+        send(request("key-1", "{\"qty\":1}"), handler(201));
+        MockHttpServletResponse reused = send(request("key-1", "{\"qty\":2}"), handler(201));
+
+        assertThat(reused.getStatus()).isEqualTo(422);
+        assertThat(handled).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedToTheUser() throws Exception {
+        send(request("key-1", "{}"), handler(201));
+        signIn("bob");
+        MockHttpServletResponse other = send(request("key-1", "{}"), handler(201));
+
+        assertThat(handled).hasValue(2);
+        assertThat(other.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void conflictsAreNotStoredSoTheyCanBeRetried() throws Exception {
+        send(request("key-1", "{}"), handler(409));
+        MockHttpServletResponse retry = send(request("key-1", "{}"), handler(201));
+
+        assertThat(handled).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void rejectsOverlongKey() throws Exception {
+        MockHttpServletResponse response = send(request("k".repeat(256), "{}"), handler(201));
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(handled).hasValue(0);
+    }
+
+    @Test
+    void requestsWithoutKeyAreNotTracked() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders/1/checkout");
+        send(request, handler(201));
+        send(request("key-1", "{}"), handler(201));
+
+        assertThat(handled).hasValue(2);
+    }
+
+    @Test
+    void duplicateWaitsForTheRequestInFlight() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handler(201).doFilter(request, response);
+        };
+        SecurityContext alice = SecurityContextHolder.getContext();
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.setContext(alice);
+            try {
+                return send(request("key-1", "{}"), slow);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.setContext(alice);
+            try {
+                return send(request("key-1", "{}"), handler(201));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // The first request looked the key up twice; the duplicate's lookup
+        // is the third, right before it starts waiting
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("idempotency.lookups", "result", "miss").count() < 3
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"order\":1}");
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.getContentAsString()).isEqualTo("{\"order\":1}");
+        assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(handled).hasValue(1);
+    }
+
+    @Test
+    void duplicateOfAFailedRequestIsToldToRetry() throws Exception {
+        // Still registered as in flight, but finished without a response to replay
+        CompletableFuture<IdempotencyStore.StoredResponse> failed = new CompletableFuture<>();
+        store.begin("alice:key-1", failed);
+        failed.complete(null);
+
+        MockHttpServletResponse response = send(request("key-1", "{}"), handler(201));
+
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(handled).hasValue(0);
+    }
+}
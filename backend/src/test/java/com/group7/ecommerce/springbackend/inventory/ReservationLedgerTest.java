@@ -0,0 +1,153 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReservationLedgerTest {
+
+    private static final long ALICE = 1L;
+    private static final long BOB = 2L;
+    private static final long ITEM = 10L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReservationLedger ledger = new ReservationLedger(Duration.ofMinutes(15), Duration.ofSeconds(1),
+            meterRegistry);
+
+    @AfterEach
+    void stop() {
+        ledger.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void begin() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    /** Ends the simulated transaction, running the callbacks registered during it. */
+    private static void end(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private double outcomes(String outcome) {
+        return meterRegistry.counter("inventory.reservations", "outcome", outcome).count();
+    }
+
+    @Test
+    void holdsCountAgainstOtherShoppers() {
+        ledger.reserve(ALICE, ITEM, 3, 5);
+
+        assertThat(ledger.reserved(ITEM)).isEqualTo(3);
+        assertThat(ledger.available(ALICE, ITEM, 5)).isEqualTo(5);
+        assertThat(ledger.available(BOB, ITEM, 5)).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsHoldBeyondUnreservedStock() {
+        ledger.reserve(ALICE, ITEM, 3, 5);
+
+        assertThatThrownBy(() -> ledger.reserve(BOB, ITEM, 3, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(outcomes("rejected")).isEqualTo(1);
+        assertThat(ledger.reserved(ITEM)).isEqualTo(3);
+    }
+
+    @Test
+    void ownHoldCanBeKeptWhenStockDrops() {
+        ledger.reserve(ALICE, ITEM, 3, 5);
+
+        // Same quantity again is a refresh, even though only 2 are on hand now
+        ledger.reserve(ALICE, ITEM, 3, 2);
+
+        assertThat(ledger.reserved(ITEM)).isEqualTo(3);
+    }
+
+    @Test
+    void grownHoldIsPutBackOnRollback() {
+        ledger.reserve(ALICE, ITEM, 1, 5);
+
+        begin();
+        ledger.reserve(ALICE, ITEM, 4, 5);
+        assertThat(ledger.reserved(ITEM)).isEqualTo(4);
+        end(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledger.reserved(ITEM)).isEqualTo(1);
+    }
+
+    @Test
+    void releaseWaitsForCommit() {
+        ledger.reserve(ALICE, ITEM, 2, 5);
+
+        begin();
+        ledger.release(ALICE, ITEM);
+        assertThat(ledger.reserved(ITEM)).isEqualTo(2);
+        end(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(ledger.reserved(ITEM)).isZero();
+    }
+
+    @Test
+    void rolledBackReduceKeepsTheHold() {
+        ledger.reserve(ALICE, ITEM, 4, 5);
+
+        begin();
+        ledger.reduce(ALICE, ITEM, 1);
+        end(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledger.reserved(ITEM)).isEqualTo(4);
+    }
+
+    @Test
+    void consumedHoldStopsCountingAtOnceAndReturnsOnRollback() {
+        ledger.reserve(ALICE, ITEM, 2, 5);
+
+        begin();
+        ledger.consume(ALICE, ITEM);
+        assertThat(ledger.reserved(ITEM)).isZero();
+        end(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledger.reserved(ITEM)).isEqualTo(2);
+        assertThat(outcomes("committed")).isZero();
+    }
+
+    @Test
+    void consumedHoldIsCountedOnCommit() {
+        ledger.reserve(ALICE, ITEM, 2, 5);
+
+        begin();
+        ledger.consume(ALICE, ITEM);
+        end(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(ledger.reserved(ITEM)).isZero();
+        assertThat(outcomes("committed")).isEqualTo(1);
+    }
+
+    @Test
+    void holdExpiresAfterItsTtl() throws Exception {
+        ledger.shutdown();
+        ledger = new ReservationLedger(Duration.ofMillis(50), Duration.ofMillis(10), meterRegistry);
+
+        ledger.reserve(ALICE, ITEM, 2, 5);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ledger.reserved(ITEM) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(ledger.reserved(ITEM)).isZero();
+        assertThat(outcomes("expired")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,216 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StockLedgerTest {
+
+    private static final long ITEM = 10L;
+
+    private final StockMovementRepository repository = mock(StockMovementRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final NamedParameterJdbcTemplate namedJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong movementIds = new AtomicLong();
+
+    private final StockLedger ledger = new StockLedger(repository, jdbcTemplate, namedJdbcTemplate,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher, meterRegistry);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(ITEM))).thenReturn(5);
+        when(repository.save(any(StockMovement.class))).thenAnswer(invocation -> {
+            StockMovement movement = invocation.getArgument(0);
+            movement.setId(movementIds.incrementAndGet());
+            return movement;
+        });
+        // Run the statement setter so the test can see which deltas were applied
+        doAnswer(invocation -> {
+            Collection<?> batch = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object entry : batch) {
+                setter.setValues(statement, entry);
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void begin() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    /** Ends the simulated transaction, running the callbacks registered during it. */
+    private static void end(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private void committed(int quantity) {
+        begin();
+        ledger.append(ITEM, quantity < 0 ? StockMovement.Type.SALE : StockMovement.Type.RESTOCK, quantity, null);
+        end(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    @Test
+    void saleTakesStockBeforeItCommits() {
+        begin();
+        ledger.append(ITEM, StockMovement.Type.SALE, -3, "order-1");
+
+        assertThat(ledger.onHand(ITEM)).isEqualTo(2);
+        assertThatThrownBy(() -> ledger.append(ITEM, StockMovement.Type.SALE, -3, "order-2"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.counter("inventory.movements.rejected").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("inventory.movements", "type", "SALE").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackSaleIsGivenBack() {
+        begin();
+        ledger.append(ITEM, StockMovement.Type.SALE, -3, "order-1");
+        end(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledger.onHand(ITEM)).isEqualTo(5);
+        ledger.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void restockIsNotSellableUntilItCommits() {
+        begin();
+        ledger.append(ITEM, StockMovement.Type.RESTOCK, 4, null);
+
+        assertThat(ledger.onHand(ITEM)).isEqualTo(5);
+        end(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(ledger.onHand(ITEM)).isEqualTo(9);
+    }
+
+    @Test
+    void flushFoldsCommittedMovementsIntoOneUpdatePerItem() throws Exception {
+        committed(-1);
+        committed(-2);
+
+        ledger.flush();
+
+        verify(statement).setInt(1, -3);
+        verify(statement).setLong(2, ITEM);
+        verify(namedJdbcTemplate).update(anyString(), eq(Map.of("ids", List.of(1L, 2L))));
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.ofStock(List.of(ITEM)));
+
+        ledger.flush();
+        verify(statement, times(1)).setInt(anyInt(), anyInt());
+    }
+
+    @Test
+    void failedFlushKeepsMovementsForTheNextOne() throws Exception {
+        committed(-1);
+        when(namedJdbcTemplate.update(anyString(), anyMap())).thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(2);
+
+        ledger.flush();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        committed(-2);
+        ledger.flush();
+
+        verify(statement).setInt(1, -1);
+        verify(statement).setInt(1, -3);
+        verify(namedJdbcTemplate).update(anyString(), eq(Map.of("ids", List.of(1L))));
+        verify(namedJdbcTemplate).update(anyString(), eq(Map.of("ids", List.of(1L, 2L))));
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.ofStock(List.of(ITEM)));
+        assertThat(ledger.onHand(ITEM)).isEqualTo(2);
+    }
+
+    @Test
+    void stockCountIsRefusedOnceStockHasMoved() {
+        committed(-1);
+        begin();
+
+        assertThatThrownBy(() -> ledger.setLevel(ITEM, 10, 5, "count"))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        StockMovement adjustment = ledger.setLevel(ITEM, 10, 4, "count");
+
+        assertThat(adjustment.getType()).isEqualTo(StockMovement.Type.ADJUSTMENT);
+        assertThat(adjustment.getQuantity()).isEqualTo(6);
+        // The adjustment is in flight, so a second count cannot be checked against it
+        assertThatThrownBy(() -> ledger.setLevel(ITEM, 10, 10, "count"))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(ledger.setLevel(ITEM, 10, "count")).isNull();
+    }
+
+    @Test
+    void movementsLeftUnappliedByACrashAreCountedOnLoad() throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getInt("quantity")).thenReturn(-2);
+        when(row.getLong("id")).thenReturn(7L);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(ITEM));
+
+        assertThat(ledger.onHand(ITEM)).isEqualTo(3);
+        ledger.flush();
+
+        verify(statement).setInt(1, -2);
+        verify(namedJdbcTemplate).update(anyString(), eq(Map.of("ids", List.of(7L))));
+    }
+
+    @Test
+    void unknownItemIsReported() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(99L)))
+                .thenThrow(new EmptyResultDataAccessException(1));
+
+        assertThatThrownBy(() -> ledger.onHand(99L)).isInstanceOf(NoSuchElementException.class);
+    }
+}
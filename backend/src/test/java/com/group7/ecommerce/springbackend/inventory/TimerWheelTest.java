@@ -0,0 +1,80 @@
+package com.group7.ecommerce.springbackend.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+    private final Map<String, Long> expiredAt = new ConcurrentHashMap<>();
+    private final CountDownLatch done = new CountDownLatch(2);
+    private final long startNanos = System.nanoTime();
+    private TimerWheel<String> wheel;
+
+    @AfterEach
+    void stop() {
+        if (wheel != null) {
+            wheel.shutdown();
+        }
+    }
+
+    private void record(String task) {
+        if (task.equals("fail")) {
+            throw new IllegalStateException("expiry callback failed");
+        }
+        expiredAt.put(task, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        done.countDown();
+    }
+
+    // Deadlines are whole ticks from the tick the task was scheduled in, so a
+    // task may fire up to one tick before its exact delay
+    @Test
+    void expiresTasksAfterTheirDelayLessAtMostOneTick() throws Exception {
+        wheel = new TimerWheel<>("test-wheel", 8, Duration.ofMillis(10), this::record);
+
+        wheel.schedule("short", Duration.ofMillis(30));
+        wheel.schedule("long", Duration.ofMillis(120));
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(expiredAt.get("short")).isGreaterThanOrEqualTo(20);
+        assertThat(expiredAt.get("long")).isGreaterThanOrEqualTo(110);
+    }
+
+    @Test
+    void keepsTimeoutsBeyondOneRotationForTheirRound() throws Exception {
+        // Four 10ms buckets: a 100ms delay wraps the wheel twice before it is due
+        wheel = new TimerWheel<>("test-wheel", 4, Duration.ofMillis(10), this::record);
+
+        wheel.schedule("wrapped", Duration.ofMillis(100));
+        wheel.schedule("soon", Duration.ofMillis(10));
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(expiredAt.get("wrapped")).isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    void failingCallbackDoesNotStopTheWheel() throws Exception {
+        wheel = new TimerWheel<>("test-wheel", 8, Duration.ofMillis(10), this::record);
+
+        wheel.schedule("fail", Duration.ofMillis(10));
+        wheel.schedule("first", Duration.ofMillis(20));
+        wheel.schedule("second", Duration.ofMillis(40));
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(expiredAt).containsOnlyKeys("first", "second");
+    }
+
+    @Test
+    void rejectsSizeThatIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new TimerWheel<String>("test-wheel", 6, Duration.ofMillis(10), this::record))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.group7.ecommerce.springbackend.item;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class CsvRecordReaderTest {
+
+    private static CsvRecordReader reader(String csv) {
+        return new CsvRecordReader(new StringReader(csv));
+    }
+
+    @Test
+    void splitsPlainFields() throws IOException {
+        CsvRecordReader csv = reader("a,b,c\n1,,3\n");
+
+        assertThat(csv.next()).containsExactly("a", "b", "c");
+        assertThat(csv.next()).containsExactly("1", "", "3");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        CsvRecordReader csv = reader("\"x, y\",\"say \"\"hi\"\"\",\"two\nlines\"\nnext\n");
+
+        assertThat(csv.next()).containsExactly("x, y", "say \"hi\"", "two\nlines");
+        assertThat(csv.recordLine()).isEqualTo(1);
+        assertThat(csv.next()).containsExactly("next");
+        assertThat(csv.recordLine()).isEqualTo(3);
+    }
+
+    @Test
+    void skipsBlankLinesAndCountsThem() throws IOException {
+        CsvRecordReader csv = reader("a\r\n\r\n\nb\rc");
+
+        assertThat(csv.next()).containsExactly("a");
+        assertThat(csv.next()).containsExactly("b");
+        assertThat(csv.recordLine()).isEqualTo(4);
+        assertThat(csv.next()).containsExactly("c");
+        assertThat(csv.recordLine()).isEqualTo(5);
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void emptyQuotedFieldIsARecord() throws IOException {
+        CsvRecordReader csv = reader("\"\"\na,\n");
+
+        assertThat(csv.next()).containsExactly("");
+        assertThat(csv.next()).containsExactly("a", "");
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertThat(reader("").next()).isNull();
+        assertThat(reader("\n\n").next()).isNull();
+    }
+
+    @Test
+    void unterminatedQuoteIsReported() throws IOException {
+        CsvRecordReader csv = reader("ok\n\"open,\nstill open");
+
+        csv.next();
+
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class).hasMessageContaining("line 2");
+    }
+
+    @Test
+    void overlongFieldIsRefused() {
+        CsvRecordReader csv = reader("x".repeat(64 * 1024 + 1));
+
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class).hasMessageContaining("longer than");
+    }
+}
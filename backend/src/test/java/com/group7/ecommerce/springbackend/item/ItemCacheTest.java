@@ -0,0 +1,96 @@
+package com.group7.ecommerce.springbackend.item;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ItemCacheTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemCache cache = new ItemCache(itemRepository, 2, meterRegistry);
+    /** Ids loaded from the repository, in order. */
+    private final List<Long> loaded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findAllById(anyList())).thenAnswer(call -> {
+            List<Long> ids = call.getArgument(0);
+            loaded.addAll(ids);
+            return ids.stream().map(ItemCacheTest::item).toList();
+        });
+        when(itemRepository.findBySkuIn(anyList())).thenAnswer(call -> {
+            List<String> skus = call.getArgument(0);
+            return skus.stream().map(sku -> item(Long.parseLong(sku.substring(4)))).toList();
+        });
+    }
+
+    private static Item item(long id) {
+        Item item = new Item("Item " + id, null, new BigDecimal("1.00"), 5, null, "Toys", "SKU-" + id);
+        item.setId(id);
+        return item;
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("item.cache", "result", result).count();
+    }
+
+    @Test
+    void servesRepeatedLookupsFromCopies() {
+        Item first = cache.getAllById(List.of(1L)).get(0);
+        first.setTitle("changed by caller");
+
+        assertThat(cache.getAllById(List.of(1L)).get(0).getTitle()).isEqualTo("Item 1");
+        assertThat(cache.getAllBySku(List.of("SKU-1"))).extracting(Item::getId).containsExactly(1L);
+        assertThat(loaded).containsExactly(1L);
+        assertThat(lookups("hit")).isEqualTo(2);
+    }
+
+    @Test
+    void fullCacheEvictsTheLeastRecentlyUsedItem() {
+        cache.getAllById(List.of(1L, 2L));
+        cache.getAllById(List.of(1L));
+
+        cache.getAllById(List.of(3L));
+        loaded.clear();
+        cache.getAllById(List.of(1L, 3L));
+        cache.getAllById(List.of(2L));
+
+        // Item 2 was least recently used when 3 came in, so only it was reloaded
+        assertThat(loaded).containsExactly(2L);
+        assertThat(meterRegistry.get("item.cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void evictedItemIsNoLongerFoundBySku() {
+        cache.getAllById(List.of(1L, 2L, 3L));
+        loaded.clear();
+
+        assertThat(cache.getAllBySku(List.of("SKU-1"))).extracting(Item::getId).containsExactly(1L);
+        assertThat(lookups("miss")).isEqualTo(4);
+    }
+
+    @Test
+    void changedItemsAreReloaded() {
+        cache.getAllById(List.of(1L, 2L));
+
+        cache.onCatalogChanged(CatalogChangedEvent.ofItem(1L));
+        loaded.clear();
+        cache.getAllById(List.of(1L, 2L));
+
+        assertThat(loaded).containsExactly(1L);
+    }
+}
@@ -0,0 +1,120 @@
+package com.group7.ecommerce.springbackend.item;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+
+class ItemFacetIndexTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemFacetIndex index = new ItemFacetIndex(itemRepository);
+
+    private static Item item(long id, String category, String price, boolean onSale) {
+        Item item = new Item("Item " + id, null, new BigDecimal(price), 10, null, category, "SKU-" + id);
+        item.setId(id);
+        item.setOnSale(onSale);
+        return item;
+    }
+
+    @BeforeEach
+    void load() {
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item(1, "books", "10", false),
+                item(2, "books", "30", true),
+                item(3, "games", "60", false),
+                item(4, "games", "1200", true),
+                item(5, null, "20", false)));
+        index.rebuild();
+    }
+
+    @Test
+    void matchesEveryFilter() {
+        ItemFacetIndex.FacetResult result = index.search(List.of("books", "games"), List.of("25-50", "1000+"), true);
+
+        assertThat(result.itemIds()).containsExactly(2, 4);
+    }
+
+    @Test
+    void countsFacetValuesWithoutTheFacetsOwnFilter() {
+        ItemFacetIndex.FacetResult result = index.search(List.of("books"), List.of(), null);
+
+        assertThat(result.itemIds()).containsExactly(1, 2);
+        // Category counts ignore the category filter
+        assertThat(result.facets().get("category")).containsEntry("books", 2).containsEntry("games", 2);
+        assertThat(result.facets().get("price")).containsEntry("0-25", 1).containsEntry("25-50", 1)
+                .containsEntry("50-100", 0);
+        assertThat(result.facets().get("onSale")).containsEntry("true", 1).containsEntry("false", 1);
+    }
+
+    @Test
+    void notOnSaleMatchesLiveItemsWithoutSale() {
+        assertThat(index.search(List.of(), List.of(), false).itemIds()).containsExactly(1, 3, 5);
+    }
+
+    @Test
+    void unknownCategoryMatchesNothing() {
+        assertThat(index.search(List.of("garden"), List.of(), null).itemIds()).isEmpty();
+    }
+
+    @Test
+    void rejectsUnknownPriceBucket() {
+        assertThatThrownBy(() -> index.search(List.of(), List.of("10-20"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void changedItemMovesToItsNewValues() {
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of(item(1, "games", "75", true)));
+
+        index.onCatalogChanged(CatalogChangedEvent.ofItem(1L));
+
+        assertThat(index.search(List.of("books"), List.of(), null).itemIds()).containsExactly(2);
+        assertThat(index.search(List.of("games"), List.of("50-100"), true).itemIds()).containsExactly(1);
+    }
+
+    @Test
+    void deletedItemIsDropped() {
+        when(itemRepository.findAllById(Set.of(3L))).thenReturn(List.of());
+
+        index.onCatalogChanged(CatalogChangedEvent.ofItem(3L));
+
+        assertThat(index.search(List.of("games"), List.of(), null).itemIds()).containsExactly(4);
+    }
+
+    @Test
+    void newItemIsAdded() {
+        when(itemRepository.findAllById(Set.of(6L))).thenReturn(List.of(item(6, "garden", "300", false)));
+
+        index.onCatalogChanged(CatalogChangedEvent.ofItem(6L));
+
+        assertThat(index.search(List.of("garden"), List.of("250-500"), null).itemIds()).containsExactly(6);
+    }
+
+    @Test
+    void stockOnlyChangesAreIgnored() {
+        index.onCatalogChanged(CatalogChangedEvent.ofStock(Set.of(1L)));
+
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void pricesFallIntoBucketsByExclusiveUpperBound() {
+        assertThat(ItemFacetIndex.priceBucket(null)).isZero();
+        assertThat(ItemFacetIndex.priceBucket(new BigDecimal("24.99"))).isZero();
+        assertThat(ItemFacetIndex.priceBucket(new BigDecimal("25"))).isEqualTo(1);
+        assertThat(ItemFacetIndex.priceBucket(new BigDecimal("1000"))).isEqualTo(6);
+    }
+}
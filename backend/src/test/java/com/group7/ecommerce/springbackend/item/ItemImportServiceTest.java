@@ -0,0 +1,212 @@
+package com.group7.ecommerce.springbackend.item;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+class ItemImportServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+    private static final String HEADER = "sku,title,price,quantity_available,category\n";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final NamedParameterJdbcTemplate namedJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** SKUs in the simulated items table, by id. */
+    private final Map<String, Long> items = new HashMap<>();
+    /** SKUs written by each batch statement, in order. */
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doAnswer(invocation -> {
+            Map<String, List<String>> parameters = invocation.getArgument(1);
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (String sku : parameters.get("skus")) {
+                if (items.containsKey(sku)) {
+                    ResultSet row = mock(ResultSet.class);
+                    when(row.getString("sku")).thenReturn(sku);
+                    when(row.getLong("id")).thenReturn(items.get(sku));
+                    handler.processRow(row);
+                }
+            }
+            return null;
+        }).when(namedJdbcTemplate).query(anyString(), anyMap(), any(RowCallbackHandler.class));
+        doAnswer(invocation -> {
+            boolean insert = invocation.<String>getArgument(0).startsWith("insert");
+            Collection<?> rows = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            List<String> skus = new ArrayList<>();
+            for (Object row : rows) {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                setter.setValues(statement, row);
+                skus.add(lastString(statement));
+            }
+            if (skus.contains("BAD")) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            if (insert) {
+                skus.forEach(sku -> items.put(sku, 100L + items.size()));
+            }
+            batches.add(skus);
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    /** The SKU, which is bound last in both statements. */
+    private static String lastString(PreparedStatement statement) {
+        List<Invocation> calls = new ArrayList<>(mockingDetails(statement).getInvocations());
+        return calls.get(calls.size() - 1).getArgument(1);
+    }
+
+    private ItemImportService service(int batchSize) {
+        return new ItemImportService(jdbcTemplate, namedJdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), VALIDATOR, new ObjectMapper(),
+                eventPublisher, stockLedger, batchSize, meterRegistry);
+    }
+
+    private ItemImportReport importCsv(ItemImportService service, String csv) throws IOException {
+        return service.importItems(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ItemImportService.Format.CSV);
+    }
+
+    @Test
+    void upsertsBySkuAndAdjustsStockOfExistingItems() throws IOException {
+        items.put("SKU-1", 7L);
+
+        ItemImportReport report = importCsv(service(500),
+                "Category, Title ,Price,Quantity-Available,SKU\nBooks,Old,9.99,3,SKU-1\nBooks,New,5.00,8,SKU-2\n");
+
+        assertThat(report).isEqualTo(new ItemImportReport(2, 1, 1, 0, List.of()));
+        assertThat(batches).containsExactly(List.of("SKU-1"), List.of("SKU-2"));
+        verify(stockLedger).setLevel(7L, 3, "import");
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.allItems());
+        assertThat(meterRegistry.counter("item.import.rows", "result", "inserted").count()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidRowsAreReportedByTheLineTheyStartOn() throws IOException {
+        ItemImportReport report = importCsv(service(500), "sku,title,price,quantity_available,category,description\n"
+                + "A,,1.00,1,Toys,\"spans\ntwo lines\"\n"
+                + "B,Ball,cheap,1,Toys,\n"
+                + ",Kite,2.00,1,Toys,\n"
+                + "C,Car,3.00,1,Toys,\n");
+
+        assertThat(report.rows()).isEqualTo(4);
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.failed()).isEqualTo(3);
+        assertThat(report.errors()).containsExactly(
+                new ItemImportReport.RowError(2, "A", List.of("Title is required")),
+                new ItemImportReport.RowError(4, "B", List.of("Price and quantity available must be numbers")),
+                new ItemImportReport.RowError(5, null, List.of("SKU is required for import")));
+    }
+
+    @Test
+    void headerWithoutRequiredColumnIsRefused() {
+        assertThatThrownBy(() -> importCsv(service(500), "sku,title,price,category\nA,Ball,1.00,Toys\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("quantityavailable");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void repeatedSkuIsWrittenAfterItsEarlierRow() throws IOException {
+        ItemImportReport report = importCsv(service(500), HEADER + "A,First,1.00,1,Toys\nA,Second,1.00,4,Toys\n");
+
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.updated()).isEqualTo(1);
+        verify(stockLedger).setLevel(items.get("A"), 4, "import");
+    }
+
+    @Test
+    void writesInBatchesOfTheConfiguredSize() throws IOException {
+        importCsv(service(2), HEADER + "A,A,1.00,1,Toys\nB,B,1.00,1,Toys\nC,C,1.00,1,Toys\n");
+
+        assertThat(batches).containsExactly(List.of("A", "B"), List.of("C"));
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRow() throws IOException {
+        ItemImportReport report = importCsv(service(500), HEADER + "A,A,1.00,1,Toys\nBAD,B,1.00,1,Toys\n"
+                + "C,C,1.00,1,Toys\n");
+
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.errors()).containsExactly(
+                new ItemImportReport.RowError(3, "BAD", List.of("value too long")));
+        assertThat(batches).containsExactly(List.of("A"), List.of("C"));
+    }
+
+    @Test
+    void readsNdjsonSkippingBlankLines() throws IOException {
+        String ndjson = """
+                {"sku":"A","title":"Ball","price":1.00,"quantityAvailable":2,"category":"Toys"}
+
+                {"sku":"B",
+                null
+                """;
+
+        ItemImportReport report = service(500).importItems(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ItemImportService.Format.NDJSON);
+
+        assertThat(report.rows()).isEqualTo(3);
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.errors()).extracting(ItemImportReport.RowError::line).containsExactly(3L, 4L);
+        assertThat(report.errors().get(0).messages().get(0)).startsWith("Malformed JSON");
+        assertThat(report.errors().get(1).messages()).containsExactly("Row must be a JSON object");
+    }
+
+    @Test
+    void nothingWrittenLeavesCachesAlone() throws IOException {
+        ItemImportReport report = importCsv(service(500), HEADER + "A,,1.00,1,Toys\n");
+
+        assertThat(report.failed()).isEqualTo(1);
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,83 @@
+package com.group7.ecommerce.springbackend.item;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
+import com.group7.ecommerce.springbackend.sales.SalesItemRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ItemServiceTest {
+
+    private static final long ITEM = 10L;
+
+    private final ItemRepository repo = mock(ItemRepository.class);
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final ItemService service = new ItemService(repo, mock(SalesItemRepository.class),
+            mock(ApplicationEventPublisher.class), mock(ItemFacetIndex.class), mock(ItemSuggestIndex.class),
+            mock(ItemCoOccurrenceIndex.class), mock(ItemCache.class), stockLedger, new SimpleMeterRegistry());
+
+    private Item stored() {
+        Item item = new Item("Ball", null, new BigDecimal("5.00"), 10, null, "Toys", "B-1");
+        item.setId(ITEM);
+        when(repo.findById(ITEM)).thenReturn(Optional.of(item));
+        when(repo.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        return item;
+    }
+
+    @Test
+    void stockCountIsCheckedAgainstWhatTheEditorRead() {
+        service.editStock(ITEM, 12, 10, "admin");
+
+        verify(stockLedger).setLevel(ITEM, 12, 10, "admin");
+    }
+
+    @Test
+    void unchangedStockIsLeftAlone() {
+        when(stockLedger.onHand(ITEM)).thenReturn(10);
+
+        service.editStock(ITEM, 10, null, "admin");
+
+        verify(stockLedger, never()).setLevel(any(), anyInt(), any(), anyString());
+    }
+
+    @Test
+    void staleFormDoesNotPutSoldStockBack() {
+        // The editor loaded the item at 10 units; 3 sold before the title edit was saved
+        when(stockLedger.onHand(ITEM)).thenReturn(7);
+        when(stockLedger.setLevel(ITEM, 10, 10, "admin"))
+                .thenThrow(new OptimisticLockingFailureException("changed"));
+        Item edit = new Item("Red ball", null, new BigDecimal("5.00"), 10, null, "Toys", null);
+        stored();
+
+        assertThatThrownBy(() -> service.replace(ITEM, edit, null)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void patchWithoutQuantityLeavesStockAlone() {
+        Item item = stored();
+        Item edit = new Item();
+        edit.setTitle("Red ball");
+
+        Item saved = service.update(ITEM, edit, null, null);
+
+        assertThat(saved.getTitle()).isEqualTo("Red ball");
+        assertThat(saved.getQuantityAvailable()).isEqualTo(item.getQuantityAvailable());
+        verify(stockLedger, never()).setLevel(any(), anyInt(), any(), anyString());
+    }
+}
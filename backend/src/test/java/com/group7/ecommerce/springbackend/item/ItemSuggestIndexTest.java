@@ -0,0 +1,111 @@
+package com.group7.ecommerce.springbackend.item;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.group7.ecommerce.springbackend.catalog.CatalogChangedEvent;
+import com.group7.ecommerce.springbackend.order.OrderItemRepository;
+import com.group7.ecommerce.springbackend.order.OrderPlacedEvent;
+
+class ItemSuggestIndexTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+    private final ItemSuggestIndex index = new ItemSuggestIndex(itemRepository, orderItemRepository);
+
+    private static Item item(long id, String title, String category, String sku) {
+        Item item = new Item(title, null, BigDecimal.TEN, 1, null, category, sku);
+        item.setId(id);
+        return item;
+    }
+
+    private List<Long> suggest(String prefix) {
+        return index.suggest(prefix, 10).stream().map(ItemSuggestion::id).toList();
+    }
+
+    @BeforeEach
+    void load() {
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item(1, "Crème Brûlée Torch", "Kitchen", "KT-100"),
+                item(2, "Cricket Bat", "Sports", "SP-200"),
+                item(3, "Kitchen Scale", "Kitchen", "KT-300")));
+        when(orderItemRepository.sumQuantityByItem()).thenReturn(List.<Object[]>of(
+                new Object[] { 3L, 5L }, new Object[] { 1L, 2L }));
+        index.rebuild();
+    }
+
+    @Test
+    void matchesWordPrefixesIgnoringCaseAndAccents() {
+        assertThat(suggest("brul")).containsExactly(1L);
+        assertThat(suggest("CREME")).containsExactly(1L);
+        assertThat(suggest("torch")).containsExactly(1L);
+    }
+
+    @Test
+    void matchesCategoryAndSku() {
+        assertThat(suggest("sports")).containsExactly(2L);
+        assertThat(suggest("kt-3")).containsExactly(3L);
+    }
+
+    @Test
+    void ranksByUnitsOrderedThenTitle() {
+        assertThat(suggest("kitchen")).containsExactly(3L, 1L);
+        assertThat(suggest("cr")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void placedOrdersChangeTheRanking() {
+        index.handle(new OrderPlacedEvent(10L, 7L, null, null,
+                List.of(new OrderPlacedEvent.Line(1L, "Kitchen", 4, BigDecimal.ONE))));
+
+        assertThat(suggest("kitchen")).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void blankPrefixSuggestsNothing() {
+        assertThat(suggest("  -- ")).isEmpty();
+    }
+
+    @Test
+    void renamedItemIsFoundByItsNewTitle() {
+        when(itemRepository.findAllById(Set.of(2L))).thenReturn(List.of(item(2, "Croquet Set", "Sports", "SP-200")));
+
+        index.onCatalogChanged(CatalogChangedEvent.ofItem(2L));
+
+        assertThat(suggest("cricket")).isEmpty();
+        assertThat(suggest("croq")).containsExactly(2L);
+    }
+
+    @Test
+    void deletedItemIsNoLongerSuggested() {
+        when(itemRepository.findAllById(Set.of(3L))).thenReturn(List.of());
+
+        index.onCatalogChanged(CatalogChangedEvent.ofItem(3L));
+
+        assertThat(suggest("kitchen")).containsExactly(1L);
+    }
+
+    @Test
+    void stockOnlyChangesAreIgnored() {
+        index.onCatalogChanged(CatalogChangedEvent.ofStock(Set.of(1L)));
+
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void normalizesPunctuationToSingleSpaces() {
+        assertThat(ItemSuggestIndex.normalize("  Ça-va?  Très_bien ")).isEqualTo("ca va tres bien");
+        assertThat(ItemSuggestIndex.normalize(null)).isEmpty();
+    }
+}
@@ -0,0 +1,264 @@
+package com.group7.ecommerce.springbackend.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.group7.ecommerce.springbackend.cart.CartDto;
+import com.group7.ecommerce.springbackend.cart.CartItemDto;
+import com.group7.ecommerce.springbackend.cart.CartService;
+import com.group7.ecommerce.springbackend.common.ConflictRetryExecutor;
+import com.group7.ecommerce.springbackend.inventory.ReservationLedger;
+import com.group7.ecommerce.springbackend.user.User;
+import com.group7.ecommerce.springbackend.user.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CheckoutQueueTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderService orderService = mock(OrderService.class);
+    private final CartService cartService = mock(CartService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ReservationLedger reservationLedger = mock(ReservationLedger.class);
+    private final ConflictRetryExecutor conflictRetry = new ConflictRetryExecutor(
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 3,
+            Duration.ofMillis(1), Duration.ofMillis(5));
+    private final List<List<Long>> batches = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private CheckoutQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any())).thenReturn(List.of(1L));
+        when(userRepository.findById(anyLong())).thenAnswer(call -> {
+            User user = new User();
+            user.setId(call.getArgument(0));
+            return Optional.of(user);
+        });
+        when(cartService.getCartAsDto(anyLong())).thenAnswer(call -> cart());
+    }
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private CheckoutQueue queue(int shards, int capacity) {
+        queue = new CheckoutQueue(orderService, cartService, userRepository, reservationLedger, conflictRetry,
+                jdbcTemplate, shards, capacity, 10, Duration.ofSeconds(2), Duration.ofMinutes(10), meterRegistry);
+        return queue;
+    }
+
+    private static CartDto cart() {
+        CartItemDto line = new CartItemDto();
+        line.setItemId(1L);
+        line.setQuantity(1);
+        CartDto cart = new CartDto();
+        cart.setItems(List.of(line));
+        return cart;
+    }
+
+    private static Order order(Long userId) {
+        Order order = new Order();
+        order.setId(userId * 100);
+        return order;
+    }
+
+    /**
+     * Places every batch as requested, recording its users. The first batch
+     * waits for {@link #release}, so checkouts submitted meanwhile queue up
+     * behind it.
+     */
+    private void placeBatches() {
+        when(orderService.placeOrders(anyList())).thenAnswer(call -> {
+            List<OrderService.PendingOrder> pending = call.getArgument(0);
+            boolean first;
+            synchronized (batches) {
+                first = batches.isEmpty();
+                batches.add(pending.stream().map(order -> order.user().getId()).toList());
+            }
+            if (first) {
+                awaitRelease();
+            }
+            return pending.stream()
+                    .map(order -> new OrderService.PlacementResult(order(order.user().getId()), null))
+                    .toList();
+        });
+    }
+
+    /** Holds the worker until the test releases it; shutdown interrupts it. */
+    private void awaitRelease() {
+        try {
+            release.await(WAIT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Submits a first checkout and waits until the worker is placing it. */
+    private CheckoutTicket occupyWorker() throws InterruptedException {
+        CheckoutTicket first = queue.submit(1L);
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (System.nanoTime() < deadline) {
+            synchronized (batches) {
+                if (!batches.isEmpty()) {
+                    return first;
+                }
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Worker never picked up the first checkout");
+    }
+
+    @Test
+    void placesQueuedCheckoutsInOneBatch() throws Exception {
+        placeBatches();
+        queue(1, 10);
+
+        CheckoutTicket first = occupyWorker();
+        List<CheckoutTicket> queued = List.of(queue.submit(2L), queue.submit(3L), queue.submit(4L));
+        release.countDown();
+
+        assertThat(first.await(WAIT).getId()).isEqualTo(100L);
+        for (CheckoutTicket ticket : queued) {
+            assertThat(ticket.await(WAIT).getId()).isEqualTo(ticket.getUserId() * 100);
+        }
+        assertThat(batches).containsExactly(List.of(1L), List.of(2L, 3L, 4L));
+        assertThat(queue.getTicket(first.getId()).getStatus()).isEqualTo(CheckoutTicket.Status.PLACED);
+    }
+
+    @Test
+    void repeatedCheckoutJoinsTheQueuedOne() throws Exception {
+        placeBatches();
+        queue(1, 10);
+
+        occupyWorker();
+        CheckoutTicket queued = queue.submit(2L);
+        CheckoutTicket repeated = queue.submit(2L);
+        release.countDown();
+
+        assertThat(repeated).isSameAs(queued);
+        assertThat(queued.await(WAIT).getId()).isEqualTo(200L);
+        assertThat(batches).containsExactly(List.of(1L), List.of(2L));
+        assertThat(meterRegistry.counter("checkout.queue.admissions", "result", "accepted").count()).isEqualTo(2);
+        // Once placed, the next checkout is a new one
+        assertThat(queue.submit(2L)).isNotSameAs(queued);
+    }
+
+    @Test
+    void rolledBackBatchIsRetriedOneByOne() throws Exception {
+        CountDownLatch firstPlaced = new CountDownLatch(1);
+        when(orderService.placeOrders(anyList())).thenAnswer(call -> {
+            List<OrderService.PendingOrder> pending = call.getArgument(0);
+            if (firstPlaced.getCount() > 0) {
+                firstPlaced.countDown();
+                awaitRelease();
+                return List.of(new OrderService.PlacementResult(order(1L), null));
+            }
+            throw new IllegalStateException("Order total changed");
+        });
+        when(orderService.placeOrder(any(), any())).thenAnswer(call -> {
+            User user = call.getArgument(1);
+            if (user.getId() == 3L) {
+                throw new IllegalArgumentException("Insufficient stock");
+            }
+            return order(user.getId());
+        });
+        queue(1, 10);
+
+        queue.submit(1L);
+        assertThat(firstPlaced.await(WAIT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+        CheckoutTicket good = queue.submit(2L);
+        CheckoutTicket bad = queue.submit(3L);
+        release.countDown();
+
+        assertThat(good.await(WAIT).getId()).isEqualTo(200L);
+        assertThatThrownBy(() -> bad.await(WAIT)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Insufficient stock");
+        assertThat(bad.getStatus()).isEqualTo(CheckoutTicket.Status.FAILED);
+        assertThat(bad.getError()).isEqualTo("Insufficient stock");
+    }
+
+    @Test
+    void singleCheckoutFailureIsNotRetried() {
+        when(orderService.placeOrders(anyList())).thenThrow(new IllegalArgumentException("Insufficient stock"));
+        queue(1, 10);
+
+        CheckoutTicket ticket = queue.submit(1L);
+
+        assertThatThrownBy(() -> ticket.await(WAIT)).isInstanceOf(IllegalArgumentException.class);
+        verify(orderService, never()).placeOrder(any(), any());
+    }
+
+    @Test
+    void fullShardTurnsCheckoutsAway() throws Exception {
+        placeBatches();
+        queue(1, 1);
+
+        occupyWorker();
+        queue.submit(2L);
+
+        assertThatThrownBy(() -> queue.submit(3L)).isInstanceOf(CheckoutQueueFullException.class);
+        assertThat(meterRegistry.counter("checkout.queue.admissions", "result", "rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void emptyCartIsRejectedBeforeQueueing() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any())).thenReturn(List.of());
+        queue(1, 10);
+
+        assertThatThrownBy(() -> queue.submit(1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(meterRegistry.counter("checkout.queue.admissions", "result", "accepted").count()).isZero();
+    }
+
+    @Test
+    void cartsAreShardedByTheirMostHeldItem() throws Exception {
+        List<String> workers = new ArrayList<>();
+        when(orderService.placeOrders(anyList())).thenAnswer(call -> {
+            synchronized (workers) {
+                workers.add(Thread.currentThread().getName());
+            }
+            List<OrderService.PendingOrder> pending = call.getArgument(0);
+            return pending.stream().map(order -> new OrderService.PlacementResult(order(1L), null)).toList();
+        });
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any())).thenReturn(List.of(2L, 3L));
+        queue(2, 10);
+
+        // Nothing held: the lowest id, item 2, picks the shard
+        queue.submit(1L).await(WAIT);
+        when(reservationLedger.reserved(3L)).thenReturn(4);
+        queue.submit(1L).await(WAIT);
+
+        assertThat(workers).containsExactly("checkout-0", "checkout-1");
+    }
+}
@@ -0,0 +1,78 @@
+package com.group7.ecommerce.springbackend.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.group7.ecommerce.springbackend.cart.CartDto;
+import com.group7.ecommerce.springbackend.cart.CartItemDto;
+import com.group7.ecommerce.springbackend.cart.CartService;
+import com.group7.ecommerce.springbackend.inventory.ReservationLedger;
+import com.group7.ecommerce.springbackend.inventory.StockLedger;
+import com.group7.ecommerce.springbackend.item.Item;
+import com.group7.ecommerce.springbackend.item.ItemRepository;
+import com.group7.ecommerce.springbackend.outbox.Outbox;
+import com.group7.ecommerce.springbackend.user.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final ReservationLedger reservationLedger = mock(ReservationLedger.class);
+    private final CartService cartService = mock(CartService.class);
+    private final OrderService service = new OrderService(orderRepository, itemRepository, stockLedger,
+            reservationLedger, cartService, mock(Outbox.class), new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        Item item = new Item("Ball", null, new BigDecimal("5.00"), 10, null, "Toys", "B-1");
+        item.setId(1L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(reservationLedger.available(anyLong(), anyLong(), anyInt())).thenReturn(10);
+        when(orderRepository.save(any(Order.class))).thenAnswer(call -> {
+            Order order = call.getArgument(0);
+            order.setId(100L);
+            return order;
+        });
+    }
+
+    private static OrderService.PendingOrder pending(long userId) {
+        CartItemDto line = new CartItemDto();
+        line.setItemId(1L);
+        line.setQuantity(2);
+        line.setPrice(new BigDecimal("5.00"));
+        CartDto cart = new CartDto();
+        cart.setItems(List.of(line));
+        cart.setTotal(new BigDecimal("10.00"));
+        User user = new User();
+        user.setId(userId);
+        return new OrderService.PendingOrder(cart, user);
+    }
+
+    @Test
+    void secondCheckoutOfTheSameCartInABatchFails() {
+        List<OrderService.PlacementResult> results = service.placeOrders(
+                List.of(pending(1L), pending(2L), pending(1L)));
+
+        assertThat(results).extracting(result -> result.order() != null).containsExactly(true, true, false);
+        assertThat(results.get(2).failure()).isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cart was already checked out");
+        verify(orderRepository, times(2)).save(any(Order.class));
+        verify(cartService, times(2)).clearCart(anyLong());
+    }
+}
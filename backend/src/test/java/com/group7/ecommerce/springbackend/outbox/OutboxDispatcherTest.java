@@ -0,0 +1,160 @@
+package com.group7.ecommerce.springbackend.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxDispatcherTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final RecordingHandler handler = new RecordingHandler();
+
+    private OutboxDispatcher dispatcher(int batchSize) {
+        return new OutboxDispatcher(repository, new ObjectMapper(), List.of(handler), batchSize, 3,
+                Duration.ofSeconds(1), Duration.ofDays(7), meterRegistry);
+    }
+
+    @SafeVarargs
+    private void due(List<OutboxEvent>... batches) {
+        var stubbing = when(repository.findByStatusAndAvailableAtLessThanEqualOrderByIdAsc(
+                eq(OutboxEvent.Status.PENDING), any(OffsetDateTime.class), any(Pageable.class)));
+        for (List<OutboxEvent> batch : batches) {
+            stubbing = stubbing.thenReturn(batch);
+        }
+    }
+
+    private static OutboxEvent event(long id, String type, String value) {
+        OutboxEvent event = new OutboxEvent(type, "{\"value\":\"" + value + "\"}");
+        event.setId(id);
+        return event;
+    }
+
+    private double dispatches(String result) {
+        return meterRegistry.counter("outbox.dispatches", "result", result).count();
+    }
+
+    @Test
+    void deliversEventsToTheHandlersOfTheirType() {
+        OutboxEvent ping = event(1, "ping", "a");
+        OutboxEvent other = event(2, "other", "b");
+        due(List.of(ping, other));
+
+        dispatcher(10).dispatch();
+
+        assertThat(handler.received).containsExactly("a");
+        // No handler for the type is not an error
+        assertThat(List.of(ping.getStatus(), other.getStatus()))
+                .containsOnly(OutboxEvent.Status.DONE);
+        assertThat(ping.getProcessedAt()).isNotNull();
+        verify(repository).saveAll(List.of(ping, other));
+        assertThat(dispatches("delivered")).isEqualTo(2);
+    }
+
+    @Test
+    void failedEventIsRetriedWithExponentialBackoff() {
+        handler.failing = true;
+        OutboxEvent first = event(1, "ping", "a");
+        OutboxEvent second = event(2, "ping", "b");
+        second.setAttempts(1);
+        due(List.of(first, second));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        dispatcher(10).dispatch();
+
+        assertThat(first.getStatus()).isEqualTo(OutboxEvent.Status.PENDING);
+        assertThat(first.getAttempts()).isEqualTo(1);
+        assertThat(first.getLastError()).contains("handler down");
+        assertThat(first.getAvailableAt()).isCloseTo(before.plusSeconds(1), within(500, ChronoUnit.MILLIS));
+        assertThat(second.getAttempts()).isEqualTo(2);
+        assertThat(second.getAvailableAt()).isCloseTo(before.plusSeconds(2), within(500, ChronoUnit.MILLIS));
+        assertThat(dispatches("retried")).isEqualTo(2);
+    }
+
+    @Test
+    void eventFailsAfterMaxAttempts() {
+        handler.failing = true;
+        OutboxEvent event = event(1, "ping", "a");
+        event.setAttempts(2);
+        due(List.of(event));
+
+        dispatcher(10).dispatch();
+
+        assertThat(event.getStatus()).isEqualTo(OutboxEvent.Status.FAILED);
+        assertThat(event.getAttempts()).isEqualTo(3);
+        assertThat(event.getProcessedAt()).isNotNull();
+        assertThat(dispatches("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void backoffIsCappedAtFiveMinutes() {
+        handler.failing = true;
+        OutboxEvent event = event(1, "ping", "a");
+        event.setAttempts(15);
+        due(List.of(event));
+        OutboxDispatcher patient = new OutboxDispatcher(repository, new ObjectMapper(), List.of(handler), 10, 100,
+                Duration.ofSeconds(1), Duration.ofDays(7), meterRegistry);
+
+        OffsetDateTime before = OffsetDateTime.now();
+        patient.dispatch();
+
+        assertThat(event.getAvailableAt()).isCloseTo(before.plusMinutes(5), within(500, ChronoUnit.MILLIS));
+    }
+
+    @Test
+    void keepsPollingWhileBatchesAreFull() {
+        due(List.of(event(1, "ping", "a"), event(2, "ping", "b")), List.of(event(3, "ping", "c")));
+
+        dispatcher(2).dispatch();
+
+        assertThat(handler.received).containsExactly("a", "b", "c");
+        verify(repository, times(2)).findByStatusAndAvailableAtLessThanEqualOrderByIdAsc(
+                eq(OutboxEvent.Status.PENDING), any(OffsetDateTime.class), any(Pageable.class));
+    }
+
+    record Ping(String value) {
+    }
+
+    static final class RecordingHandler implements OutboxHandler<Ping> {
+
+        final List<String> received = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public String eventType() {
+            return "ping";
+        }
+
+        @Override
+        public Class<Ping> payloadType() {
+            return Ping.class;
+        }
+
+        @Override
+        public void handle(Ping payload) {
+            if (failing) {
+                throw new IllegalStateException("handler down");
+            }
+            received.add(payload.value());
+        }
+    }
+}
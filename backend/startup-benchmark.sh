@@ -0,0 +1,76 @@
+#!/bin/bash
+
+# Startup-time benchmark
+# Starts the backend several times in each launch mode and reports the JVM's
+# "process running for" time at the "Started SpringBackendApplication" line:
+#   jar         java -jar on the fat JAR
+#   lazy        the fat JAR with the "lazy" profile (lazy bean initialization)
+#   extracted   unpacked JAR (app + lib/)
+#   cds         unpacked JAR with a class-data-sharing archive
+#   aot+cds     unpacked JAR with the CDS archive and the Spring AOT context
+#
+# Usage (from backend/): ./startup-benchmark.sh [runs per mode, default 5]
+# Uses an in-memory H2 database and a random port, so nothing else is needed.
+
+set -e
+
+RUNS=${1:-5}
+WORK=target/startup-benchmark
+APP_ARGS="--spring.datasource.url=jdbc:h2:mem:bench --server.port=0 --archive.orders.directory=$WORK/archive"
+
+echo "🔨 Building with Spring AOT processing..."
+./mvnw -q -Paot package -DskipTests
+FAT_JAR=$(ls target/spring-backend-*.jar | head -n 1)
+
+rm -rf "$WORK"
+mkdir -p "$WORK"
+java -Djarmode=tools -jar "$FAT_JAR" extract --destination "$WORK/app" > /dev/null
+JAR="$WORK/app/$(basename "$FAT_JAR")"
+
+echo "🎓 Recording CDS archives from training runs..."
+java -XX:ArchiveClassesAtExit="$WORK/plain.jsa" -Xlog:cds=off -Xlog:cds+dynamic=off \
+    -Dspring.context.exit=onRefresh -jar "$JAR" $APP_ARGS > "$WORK/train-plain.log" 2>&1
+java -XX:ArchiveClassesAtExit="$WORK/aot.jsa" -Xlog:cds=off -Xlog:cds+dynamic=off \
+    -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh -jar "$JAR" $APP_ARGS > "$WORK/train-aot.log" 2>&1
+
+# Prints the seconds one start took, or fails if it did not start within 3 minutes
+start_once() {
+    local log="$WORK/run.log"
+    java "$@" $APP_ARGS > "$log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 360); do
+        if grep -q "Started SpringBackendApplication" "$log"; then
+            kill "$pid" 2>/dev/null
+            wait "$pid" 2>/dev/null || true
+            sed -n 's/.*process running for \([0-9.]*\)).*/\1/p' "$log" | head -n 1
+            return 0
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "❌ Backend exited during startup, see $log" >&2
+            return 1
+        fi
+        sleep 0.5
+    done
+    kill "$pid" 2>/dev/null
+    echo "❌ Backend did not start within 3 minutes, see $log" >&2
+    return 1
+}
+
+measure() {
+    local mode=$1
+    shift
+    local times=()
+    for _ in $(seq 1 "$RUNS"); do
+        times+=("$(start_once "$@")")
+    done
+    printf '%s\n' "${times[@]}" | awk -v mode="$mode" '
+        { sum += $1; if (NR == 1 || $1 < min) min = $1; if ($1 > max) max = $1 }
+        END { printf "%-10s  avg %6.2fs  min %6.2fs  max %6.2fs  (%d runs)\n", mode, sum / NR, min, max, NR }'
+}
+
+echo "⏱️  Measuring $RUNS starts per mode..."
+measure "jar" -jar "$FAT_JAR"
+measure "lazy" -Dspring.profiles.active=lazy -jar "$FAT_JAR"
+measure "extracted" -jar "$JAR"
+measure "cds" -XX:SharedArchiveFile="$WORK/plain.jsa" -jar "$JAR"
+measure "aot+cds" -XX:SharedArchiveFile="$WORK/aot.jsa" -Dspring.aot.enabled=true -jar "$JAR"
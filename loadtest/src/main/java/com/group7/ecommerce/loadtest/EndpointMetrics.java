@@ -0,0 +1,65 @@
+package com.group7.ecommerce.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency and outcome counters for one logical endpoint, e.g.
+ * {@code GET /api/items/{id}}. Recording is wait-free so shopper threads never
+ * contend with each other or with the reporter.
+ */
+public class EndpointMetrics {
+
+    // Latencies are tracked in microseconds up to one minute with 3 significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder intervalErrors = new LongAdder();
+    private long totalErrors;
+    private Histogram recycled;
+
+    public EndpointMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long latencyNanos, boolean error) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        recorder.recordValue(Math.max(1, micros));
+        if (error) {
+            intervalErrors.increment();
+        }
+    }
+
+    /**
+     * Swaps the live interval histogram out, folds it into the run total and
+     * returns it. Only the reporter thread calls this.
+     */
+    synchronized Interval drainInterval() {
+        Histogram interval = recorder.getIntervalHistogram(recycled);
+        long errors = intervalErrors.sumThenReset();
+        total.add(interval);
+        totalErrors += errors;
+        recycled = interval;
+        return new Interval(interval, errors);
+    }
+
+    synchronized Histogram getTotal() {
+        return total.copy();
+    }
+
+    synchronized long getTotalErrors() {
+        return totalErrors;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    record Interval(Histogram histogram, long errors) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.group7.ecommerce.loadtest;
+
+import java.time.Duration;
+
+/**
+ * How the number of active virtual shoppers evolves over a run.
+ */
+public enum LoadProfile {
+
+    /**
+     * Grow linearly from one shopper to the peak over the whole run. Read the
+     * interval reports to find the user count where latency turns vertical.
+     */
+    RAMP {
+        @Override
+        public int targetUsers(LoadTestConfig config, Duration elapsed) {
+            return scale(config.getUsers(), elapsed, config.getDuration());
+        }
+    },
+
+    /**
+     * Reach the peak over {@code --ramp-up}, then hold it for the rest of the
+     * run to surface leaks, pool exhaustion and slow drift.
+     */
+    SOAK {
+        @Override
+        public int targetUsers(LoadTestConfig config, Duration elapsed) {
+            return scale(config.getUsers(), elapsed, config.getRampUp());
+        }
+    };
+
+    public abstract int targetUsers(LoadTestConfig config, Duration elapsed);
+
+    private static int scale(int peak, Duration elapsed, Duration over) {
+        if (over.isZero() || elapsed.compareTo(over) >= 0) {
+            return peak;
+        }
+        long users = Math.round((double) peak * elapsed.toMillis() / over.toMillis());
+        return (int) Math.max(1, Math.min(peak, users));
+    }
+}
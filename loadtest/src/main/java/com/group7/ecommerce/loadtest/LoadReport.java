@@ -0,0 +1,92 @@
+package com.group7.ecommerce.loadtest;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Registry of per-endpoint metrics plus the interval and final report
+ * printers.
+ */
+public class LoadReport {
+
+    private static final String HEADER = String.format(Locale.ROOT,
+            "%-34s %9s %9s %7s %9s %9s %9s %9s %9s",
+            "endpoint", "requests", "req/s", "err%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final PrintStream out;
+
+    public LoadReport(PrintStream out) {
+        this.out = out;
+    }
+
+    public EndpointMetrics endpoint(String name) {
+        return endpoints.computeIfAbsent(name, EndpointMetrics::new);
+    }
+
+    public void printInterval(Duration elapsed, Duration interval, int activeUsers) {
+        out.printf(Locale.ROOT, "%n[%s] active shoppers: %d%n", format(elapsed), activeUsers);
+        out.println(HEADER);
+        for (EndpointMetrics metrics : sorted()) {
+            EndpointMetrics.Interval snapshot = metrics.drainInterval();
+            printRow(metrics.getName(), snapshot.histogram(), snapshot.errors(), interval);
+        }
+    }
+
+    public void printSummary(Duration elapsed) {
+        // Fold whatever was recorded since the last interval into the totals
+        sorted().forEach(EndpointMetrics::drainInterval);
+
+        out.printf(Locale.ROOT, "%n===== Summary after %s =====%n", format(elapsed));
+        out.println(HEADER);
+        Histogram all = null;
+        long allErrors = 0;
+        for (EndpointMetrics metrics : sorted()) {
+            Histogram total = metrics.getTotal();
+            long errors = metrics.getTotalErrors();
+            printRow(metrics.getName(), total, errors, elapsed);
+            if (all == null) {
+                all = total.copy();
+            } else {
+                all.add(total);
+            }
+            allErrors += errors;
+        }
+        if (all != null) {
+            printRow("ALL", all, allErrors, elapsed);
+        }
+    }
+
+    private void printRow(String name, Histogram histogram, long errors, Duration window) {
+        long count = histogram.getTotalCount();
+        double seconds = Math.max(window.toMillis(), 1) / 1000.0;
+        double errorPercent = count == 0 ? 0 : 100.0 * errors / count;
+        out.printf(Locale.ROOT, "%-34s %9d %9.1f %7.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, count, count / seconds, errorPercent,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private Collection<EndpointMetrics> sorted() {
+        List<EndpointMetrics> list = new ArrayList<>(endpoints.values());
+        list.sort(Comparator.comparing(EndpointMetrics::getName));
+        return list;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static String format(Duration d) {
+        return String.format(Locale.ROOT, "%02d:%02d:%02d", d.toHours(), d.toMinutesPart(), d.toSecondsPart());
+    }
+}
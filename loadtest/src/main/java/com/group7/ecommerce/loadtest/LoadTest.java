@@ -0,0 +1,115 @@
+package com.group7.ecommerce.loadtest;
+
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of the load generator. Starts virtual shoppers according to the
+ * selected {@link LoadProfile}, prints a per-endpoint report every
+ * {@code --report-interval} and a cumulative summary at the end.
+ */
+public class LoadTest {
+
+    private static final Duration CONTROL_TICK = Duration.ofMillis(250);
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestConfig.usage());
+            System.exit(2);
+            return;
+        }
+        if (config == null) {
+            System.out.println(LoadTestConfig.usage());
+            return;
+        }
+        new LoadTest().run(config);
+    }
+
+    public void run(LoadTestConfig config) throws InterruptedException {
+        ExecutorService shoppers = newShopperExecutor();
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(config.getRequestTimeout())
+                .executor(shoppers)
+                .build();
+        LoadReport report = new LoadReport(System.out);
+        List<ShopperJourney> journeys = new ArrayList<>();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        System.out.printf("Running %s profile against %s: %d shoppers for %s (%s threads)%n",
+                config.getProfile(), config.getBaseUrl(), config.getUsers(), config.getDuration(),
+                virtualThreadsAvailable() ? "virtual" : "platform");
+
+        Instant start = Instant.now();
+        Instant nextReport = start.plus(config.getReportInterval());
+        Instant lastReport = start;
+        while (true) {
+            Instant now = Instant.now();
+            Duration elapsed = Duration.between(start, now);
+            if (elapsed.compareTo(config.getDuration()) >= 0) {
+                break;
+            }
+
+            int target = config.getProfile().targetUsers(config, elapsed);
+            while (journeys.size() < target) {
+                int shopperId = journeys.size() + 1;
+                ShopperClient client = new ShopperClient(http, report, config, shopperId);
+                ShopperJourney journey = new ShopperJourney(client, config, "lt_" + runId + "_" + shopperId);
+                journeys.add(journey);
+                shoppers.execute(journey);
+            }
+
+            if (!now.isBefore(nextReport)) {
+                report.printInterval(elapsed, Duration.between(lastReport, now), journeys.size());
+                lastReport = now;
+                nextReport = now.plus(config.getReportInterval());
+            }
+            Thread.sleep(CONTROL_TICK.toMillis());
+        }
+
+        journeys.forEach(ShopperJourney::stop);
+        Duration elapsed = Duration.between(start, Instant.now());
+        shoppers.shutdown();
+        if (!shoppers.awaitTermination(config.getRequestTimeout().toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+            shoppers.shutdownNow();
+        }
+        report.printSummary(elapsed);
+    }
+
+    /**
+     * Uses one virtual thread per shopper when the runtime supports it (JDK 21+)
+     * and falls back to a cached platform thread pool on JDK 17, which the
+     * project is built for.
+     */
+    private static ExecutorService newShopperExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
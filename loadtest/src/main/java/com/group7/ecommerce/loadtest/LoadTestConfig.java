@@ -0,0 +1,166 @@
+package com.group7.ecommerce.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options for a load test run. Every option has a default so
+ * {@code java -jar load-test.jar} runs a short ramp against a local backend.
+ */
+public class LoadTestConfig {
+
+    private String baseUrl = "http://localhost:8080";
+    private LoadProfile profile = LoadProfile.RAMP;
+    private int users = 50;
+    private Duration duration = Duration.ofMinutes(2);
+    private Duration rampUp = Duration.ofSeconds(30);
+    private Duration thinkTime = Duration.ZERO;
+    private Duration reportInterval = Duration.ofSeconds(10);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private double discountRatio = 0.5;
+    private double checkoutRatio = 0.2;
+    private String discountCode = "FLASH30";
+    private String password = "loadtest123";
+    private boolean spreadClientIps = true;
+
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.equals("--help") || arg.equals("-h")) {
+                options.put("help", "true");
+                continue;
+            }
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Unrecognised argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig();
+        if (options.containsKey("help")) {
+            return null;
+        }
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            String value = option.getValue();
+            switch (option.getKey()) {
+                case "base-url" -> config.baseUrl = stripTrailingSlash(value);
+                case "profile" -> config.profile = LoadProfile.valueOf(value.toUpperCase());
+                case "users" -> config.users = Integer.parseInt(value);
+                case "duration" -> config.duration = parseDuration(value);
+                case "ramp-up" -> config.rampUp = parseDuration(value);
+                case "think-time" -> config.thinkTime = parseDuration(value);
+                case "report-interval" -> config.reportInterval = parseDuration(value);
+                case "request-timeout" -> config.requestTimeout = parseDuration(value);
+                case "discount-ratio" -> config.discountRatio = parseRatio(option.getKey(), value);
+                case "checkout-ratio" -> config.checkoutRatio = parseRatio(option.getKey(), value);
+                case "discount-code" -> config.discountCode = value;
+                case "password" -> config.password = value;
+                case "spread-client-ips" -> config.spreadClientIps = Boolean.parseBoolean(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + option.getKey());
+            }
+        }
+        if (config.users < 1) {
+            throw new IllegalArgumentException("--users must be at least 1");
+        }
+        return config;
+    }
+
+    public static String usage() {
+        return String.join(System.lineSeparator(),
+                "Usage: java -jar load-test.jar [options]",
+                "  --base-url=URL            backend base URL (default http://localhost:8080)",
+                "  --profile=ramp|soak       ramp grows users across the whole run; soak holds them steady",
+                "  --users=N                 peak number of concurrent virtual shoppers (default 50)",
+                "  --duration=DUR            total run time, e.g. 90s, 10m, 2h (default 2m)",
+                "  --ramp-up=DUR             soak only: time to reach the full user count (default 30s)",
+                "  --think-time=DUR          pause between journey steps (default 0ms)",
+                "  --report-interval=DUR     interval between progress reports (default 10s)",
+                "  --request-timeout=DUR     per-request timeout (default 10s)",
+                "  --discount-ratio=0..1     share of journeys applying a discount code (default 0.5)",
+                "  --checkout-ratio=0..1     share of journeys that place an order (default 0.2)",
+                "  --discount-code=CODE      discount code to apply (default FLASH30)",
+                "  --password=PASSWORD       password for the generated shopper accounts",
+                "  --spread-client-ips=BOOL  rotate X-Forwarded-For per journey to stay under the per-IP",
+                "                            rate limit (default true; false exercises the limiter)");
+    }
+
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        long amount = Long.parseLong(v.substring(0, v.length() - 1));
+        return switch (v.charAt(v.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Invalid duration: " + value);
+        };
+    }
+
+    private static double parseRatio(String name, String value) {
+        double ratio = Double.parseDouble(value);
+        if (ratio < 0 || ratio > 1) {
+            throw new IllegalArgumentException("--" + name + " must be between 0 and 1");
+        }
+        return ratio;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getRampUp() {
+        return rampUp;
+    }
+
+    public Duration getThinkTime() {
+        return thinkTime;
+    }
+
+    public Duration getReportInterval() {
+        return reportInterval;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public double getDiscountRatio() {
+        return discountRatio;
+    }
+
+    public double getCheckoutRatio() {
+        return checkoutRatio;
+    }
+
+    public String getDiscountCode() {
+        return discountCode;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public boolean isSpreadClientIps() {
+        return spreadClientIps;
+    }
+}
@@ -0,0 +1,130 @@
+package com.group7.ecommerce.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Thin wrapper around the shared {@link HttpClient} for one virtual shopper.
+ * Every call is timed and recorded against a templated endpoint name so that
+ * {@code /api/items/3} and {@code /api/items/7} land in the same histogram.
+ */
+public class ShopperClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient http;
+    private final LoadReport report;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final int shopperId;
+    private final boolean spreadClientIps;
+    private String forwardedFor;
+    private int journeys;
+    private String token;
+
+    public ShopperClient(HttpClient http, LoadReport report, LoadTestConfig config, int shopperId) {
+        this.http = http;
+        this.report = report;
+        this.baseUrl = config.getBaseUrl();
+        this.timeout = config.getRequestTimeout();
+        this.shopperId = shopperId;
+        this.spreadClientIps = config.isSpreadClientIps();
+        this.forwardedFor = address(0);
+    }
+
+    /**
+     * Called at the start of every journey. RateLimitingFilter keys on
+     * X-Forwarded-For, so when spreading is enabled each journey uses the next
+     * synthetic address of this shopper and the run measures the backend rather
+     * than the per-IP limiter.
+     */
+    public void nextJourney() {
+        if (spreadClientIps) {
+            forwardedFor = address(++journeys);
+        }
+    }
+
+    private String address(int journey) {
+        return "10." + (journey & 0xff) + "." + ((shopperId >> 8) & 0xff) + "." + (shopperId & 0xff);
+    }
+
+    public Response get(String endpoint, String path) {
+        return send(endpoint, builder(path).GET());
+    }
+
+    public Response post(String endpoint, String path, Object body) {
+        return send(endpoint, builder(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body))));
+    }
+
+    public Response delete(String endpoint, String path) {
+        return send(endpoint, builder(path).DELETE());
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("X-Forwarded-For", forwardedFor);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder builder) {
+        EndpointMetrics metrics = report.endpoint(endpoint);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - start;
+            boolean error = response.statusCode() >= 400;
+            metrics.record(elapsed, error);
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            metrics.record(System.nanoTime() - start, true);
+            return new Response(-1, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(-1, "interrupted");
+        }
+    }
+
+    private static String toJson(Object body) {
+        try {
+            return MAPPER.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to serialise request body", e);
+        }
+    }
+
+    public record Response(int status, String body) {
+
+        public boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        public JsonNode json() {
+            if (body == null || body.isEmpty()) {
+                return MAPPER.missingNode();
+            }
+            try {
+                return MAPPER.readTree(body);
+            } catch (IOException e) {
+                return MAPPER.missingNode();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.group7.ecommerce.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Scripted storefront session for one virtual shopper. The shopper registers
+ * and logs in once, then loops over: browse the catalog, search, view sales,
+ * open a product, add it to the cart, optionally apply a discount code and
+ * either place an order or empty the cart.
+ */
+public class ShopperJourney implements Runnable {
+
+    private static final String[] SEARCH_TERMS = {
+            "laptop", "watch", "wireless", "jacket", "shoes", "coffee", "yoga", "book", "chair", "pro"
+    };
+
+    private final ShopperClient client;
+    private final LoadTestConfig config;
+    private final String username;
+    private volatile boolean running = true;
+    private Long userId;
+
+    public ShopperJourney(ShopperClient client, LoadTestConfig config, String username) {
+        this.client = client;
+        this.config = config;
+        this.username = username;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        if (!signIn()) {
+            return;
+        }
+        while (running && !Thread.currentThread().isInterrupted()) {
+            shop();
+        }
+    }
+
+    private boolean signIn() {
+        client.post("POST /api/auth/register", "/api/auth/register",
+                Map.of("username", username, "password", config.getPassword(), "fullName", "Load Shopper"));
+        pause();
+
+        ShopperClient.Response login = client.post("POST /api/auth/login", "/api/auth/login",
+                Map.of("username", username, "password", config.getPassword()));
+        JsonNode data = login.json().path("data");
+        if (!login.ok() || data.path("token").isMissingNode()) {
+            return false;
+        }
+        client.setToken(data.path("token").asText());
+        userId = data.path("user").path("id").asLong();
+        return true;
+    }
+
+    private void shop() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        client.nextJourney();
+
+        int page = random.nextInt(2);
+        List<Long> itemIds = itemIds(client.get("GET /api/items", "/api/items?pageNumber=" + page + "&pageSize=20"));
+        pause();
+
+        String term = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+        itemIds.addAll(itemIds(client.get("GET /api/items?search", "/api/items?search=" + term)));
+        pause();
+
+        client.get("GET /api/sales", "/api/sales");
+        pause();
+
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        long itemId = itemIds.get(random.nextInt(itemIds.size()));
+        client.get("GET /api/items/{id}", "/api/items/" + itemId);
+        pause();
+
+        ShopperClient.Response added = client.post("POST /api/cart/items/{id}", "/api/cart/items/" + itemId,
+                Map.of("quantity", 1));
+        pause();
+        if (!added.ok()) {
+            return;
+        }
+
+        if (random.nextDouble() < config.getDiscountRatio()) {
+            client.post("POST /api/cart/discount", "/api/cart/discount",
+                    Map.of("discountCode", config.getDiscountCode()));
+            pause();
+        }
+
+        if (random.nextDouble() < config.getCheckoutRatio()) {
+            client.post("POST /api/orders/{userId}/place", "/api/orders/" + userId + "/place", Map.of());
+        } else {
+            client.delete("DELETE /api/cart", "/api/cart");
+        }
+        pause();
+    }
+
+    private static List<Long> itemIds(ShopperClient.Response response) {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode item : response.json().path("data")) {
+            if (item.hasNonNull("id")) {
+                ids.add(item.get("id").asLong());
+            }
+        }
+        return ids;
+    }
+
+    private void pause() {
+        long millis = config.getThinkTime().toMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}